@@ -166,7 +166,8 @@ const DynamicFormDialog = ({
         result = await documentApi.updateDocument(
           schema.collectionName, 
           document.id, 
-          formData
+          formData,
+          document.version
         );
       }
       onSave(result);
@@ -38,6 +38,8 @@ import * as XLSX from 'xlsx';
 import { saveAs } from 'file-saver';
 import { FIELD_TYPES } from '../services/api';
 
+const CSV_PREVIEW_BYTES = 64 * 1024;
+
 const FileUploadDialog = ({ open, onClose, onSave }) => {
   const [activeStep, setActiveStep] = useState(0);
   const [file, setFile] = useState(null);
@@ -68,10 +70,18 @@ const FileUploadDialog = ({ open, onClose, onSave }) => {
   });
 
   const parseFile = (file) => {
+    // CSV rows are imported server-side, so only a leading slice is read for the headers, data types
+    // and preview; spreadsheets can't be parsed from a slice and are still read whole
+    const isCsv = file.name.toLowerCase().endsWith('.csv');
     const reader = new FileReader();
     reader.onload = (e) => {
       try {
-        const workbook = XLSX.read(e.target.result, { type: 'binary' });
+        let content = e.target.result;
+        if (isCsv && file.size > CSV_PREVIEW_BYTES) {
+          // Drop the last line, which the slice most likely cut short
+          content = content.substring(0, content.lastIndexOf('\n') + 1);
+        }
+        const workbook = XLSX.read(content, { type: isCsv ? 'string' : 'binary' });
         const sheetName = workbook.SheetNames[0];
         const worksheet = workbook.Sheets[sheetName];
         const jsonData = XLSX.utils.sheet_to_json(worksheet, { header: 1 });
@@ -106,7 +116,11 @@ const FileUploadDialog = ({ open, onClose, onSave }) => {
         setErrors({ file: 'Failed to parse file. Please ensure it\'s a valid Excel/CSV file.' });
       }
     };
-    reader.readAsBinaryString(file);
+    if (isCsv) {
+      reader.readAsText(file.slice(0, CSV_PREVIEW_BYTES));
+    } else {
+      reader.readAsBinaryString(file);
+    }
   };
 
   const mapDataTypeToFieldType = (dataType) => {
@@ -217,7 +231,20 @@ const FileUploadDialog = ({ open, onClose, onSave }) => {
         },
       };
 
-      onSave(schema);
+      // CSV rows are imported server-side after the schema exists; the header row is
+      // remapped to the configured field names and the data-type row is skipped
+      const importRequest = file.name.toLowerCase().endsWith('.csv')
+        ? {
+            file,
+            options: {
+              skipRows: 1,
+              columns: parsedData.headers
+                .map(header => fieldMappings.find(m => m.columnName === header)?.fieldName || ''),
+            },
+          }
+        : null;
+
+      onSave(schema, importRequest);
       handleClose();
     }
   };
@@ -44,8 +44,11 @@ const SchemaDialog = ({ open, onClose, onSave, schema = null, mode = 'create' })
         fields: (schema.fields || []).map(field => ({
           ...field,
           id: generateId(), // Add temporary id for frontend management
-          primaryKey: field.primaryKey || false // Ensure primaryKey is set
-        }))
+          primaryKey: field.primaryKey || false, // Ensure primaryKey is set
+          indexed: field.indexed || false,
+          searchable: field.searchable || false
+        })),
+        indexes: schema.indexes || []
       });
     } else {
       setFormData({
@@ -79,6 +82,8 @@ const SchemaDialog = ({ open, onClose, onSave, schema = null, mode = 'create' })
       type: 'STRING',
       required: false,
       primaryKey: false,
+      indexed: false,
+      searchable: false,
       defaultValue: '',
       validation: {}
     };
@@ -323,7 +328,8 @@ const SchemaDialog = ({ open, onClose, onSave, schema = null, mode = 'create' })
                         label="Field Type"
                         onChange={(e) => updateField(field.id, { 
                           type: e.target.value,
-                          validation: {} // Reset validation when type changes
+                          validation: {}, // Reset validation when type changes
+                          searchable: e.target.value === 'STRING' && field.searchable
                         })}
                       >
                         {FIELD_TYPES.map(type => (
@@ -381,6 +387,32 @@ const SchemaDialog = ({ open, onClose, onSave, schema = null, mode = 'create' })
                     )}
                   </Grid>
                   
+                  <Grid item xs={6}>
+                    <FormControlLabel
+                      control={
+                        <Checkbox
+                          checked={field.indexed || false}
+                          onChange={(e) => updateField(field.id, { indexed: e.target.checked })}
+                        />
+                      }
+                      label="Indexed"
+                    />
+                  </Grid>
+                  
+                  {field.type === 'STRING' && (
+                    <Grid item xs={6}>
+                      <FormControlLabel
+                        control={
+                          <Checkbox
+                            checked={field.searchable || false}
+                            onChange={(e) => updateField(field.id, { searchable: e.target.checked })}
+                          />
+                        }
+                        label="Searchable (full text)"
+                      />
+                    </Grid>
+                  )}
+                  
                   <Grid item xs={6}>
                     <TextField
                       label="Default Value"
@@ -26,7 +26,7 @@ import {
   TableChart as TableIcon,
 } from '@mui/icons-material';
 import { DataGrid } from '@mui/x-data-grid';
-import { schemaApi, documentApi } from '../services/api';
+import { schemaApi, documentApi, importApi } from '../services/api';
 import SchemaDialog from '../components/SchemaDialog';
 import FileUploadDialog from '../components/FileUploadDialog';
 import { formatDate, generateGridColumns } from '../utils/helpers';
@@ -95,11 +95,30 @@ const CollectionManagement = ({ onCollectionSelect }) => {
     }
   };
 
-  const handleSaveCollection = async (collectionData) => {
+  const trackImport = async (job) => {
+    let current = job;
+    while (current.status === 'RUNNING') {
+      await new Promise(resolve => setTimeout(resolve, 1000));
+      current = await importApi.getImport(job.id);
+    }
+    const summary = `${current.rowsAccepted} rows imported, ${current.rowsRejected} rejected`;
+    if (current.status === 'COMPLETED') {
+      enqueueSnackbar(`Import finished: ${summary}`, { variant: current.rowsRejected > 0 ? 'warning' : 'success' });
+    } else {
+      enqueueSnackbar(`Import ${current.status.toLowerCase()}: ${current.message || summary}`, { variant: 'error' });
+    }
+  };
+
+  const handleSaveCollection = async (collectionData, importRequest = null) => {
     try {
-      if (dialogMode === 'create') {
+      if (dialogMode === 'create' || importRequest) {
         await schemaApi.createSchema(collectionData);
         enqueueSnackbar('Collection created successfully', { variant: 'success' });
+        if (importRequest) {
+          const job = await importApi.startImport(collectionData.collectionName, importRequest.file, importRequest.options);
+          enqueueSnackbar('Importing file rows in the background...', { variant: 'info' });
+          trackImport(job).catch(err => console.error('Error tracking import:', err));
+        }
       } else {
         await schemaApi.updateSchema(selectedCollection.collectionName, collectionData);
         enqueueSnackbar('Collection updated successfully', { variant: 'success' });
@@ -38,6 +38,8 @@ const DataViewer = () => {
   const [selectedCollection, setSelectedCollection] = useState('');
   const [schema, setSchema] = useState(null);
   const [documents, setDocuments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [totalCount, setTotalCount] = useState(null);
   const [loading, setLoading] = useState(false);
   const [collectionsLoading, setCollectionsLoading] = useState(true);
   const [error, setError] = useState('');
@@ -87,20 +89,46 @@ const DataViewer = () => {
       setLoading(true);
       setError('');
       
-      const response = await documentApi.getDocuments(selectedCollection, appliedFilters);
+      // The total is counted by the server instead of loading every page
+      const [response, total] = await Promise.all([
+        documentApi.getDocuments(selectedCollection, appliedFilters),
+        documentApi.countDocuments(selectedCollection, appliedFilters).catch(() => null),
+      ]);
       setDocuments(response.data || []);
+      setNextCursor(response.nextCursor || null);
+      setTotalCount(total);
     } catch (err) {
       console.error('Error loading documents:', err);
       setError('Failed to load documents');
       setDocuments([]);
+      setNextCursor(null);
+      setTotalCount(null);
     } finally {
       setLoading(false);
     }
   }, [selectedCollection, appliedFilters]);
 
+  const loadMoreDocuments = useCallback(async () => {
+    if (!selectedCollection || !nextCursor) return;
+    
+    try {
+      setLoading(true);
+      const response = await documentApi.getDocuments(selectedCollection, appliedFilters, { cursor: nextCursor });
+      setDocuments(prev => [...prev, ...(response.data || [])]);
+      setNextCursor(response.nextCursor || null);
+    } catch (err) {
+      console.error('Error loading more documents:', err);
+      setError('Failed to load more documents');
+    } finally {
+      setLoading(false);
+    }
+  }, [selectedCollection, appliedFilters, nextCursor]);
+
   const handleCollectionChange = useCallback((event) => {
     setSelectedCollection(event.target.value);
     setDocuments([]);
+    setNextCursor(null);
+    setTotalCount(null);
     setSchema(null);
   }, []);
 
@@ -290,10 +318,17 @@ const DataViewer = () => {
               <Grid item xs={12} md={6}>
                 <Box sx={{ display: 'flex', alignItems: 'center', gap: 1 }}>
                   <Chip 
-                    label={`${documents.length} records`} 
+                    label={totalCount
+                      ? `${documents.length} of ${totalCount.estimated ? '~' : ''}${totalCount.count} records`
+                      : `${documents.length}${nextCursor ? '+' : ''} records`} 
                     color="primary" 
                     variant="outlined" 
                   />
+                  {nextCursor && (
+                    <Button size="small" variant="outlined" onClick={loadMoreDocuments} disabled={loading}>
+                      Load More
+                    </Button>
+                  )}
                   {getActiveFiltersCount() > 0 && (
                     <Chip 
                       label={`${getActiveFiltersCount()} filter${getActiveFiltersCount() > 1 ? 's' : ''} applied`} 
@@ -339,6 +374,15 @@ const DataViewer = () => {
                 >
                   Apply Filters
                 </Button>
+                <Tooltip title="Export Collection (CSV)">
+                  <IconButton
+                    size="small"
+                    color="primary"
+                    onClick={() => window.open(documentApi.getExportUrl(selectedCollection, 'csv'), '_blank')}
+                  >
+                    <DownloadIcon />
+                  </IconButton>
+                </Tooltip>
                 <Tooltip title="Refresh Data">
                   <IconButton size="small" onClick={loadDocuments} disabled={loading} color="primary">
                     <RefreshIcon />
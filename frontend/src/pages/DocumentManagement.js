@@ -115,7 +115,7 @@ const DocumentManagement = ({ schema, onBack }) => {
         await documentApi.createDocument(schema.collectionName, documentData);
         enqueueSnackbar('Document created successfully', { variant: 'success' });
       } else {
-        await documentApi.updateDocument(schema.collectionName, selectedDocument.id, documentData);
+        await documentApi.updateDocument(schema.collectionName, selectedDocument.id, documentData, selectedDocument.version);
         enqueueSnackbar('Document updated successfully', { variant: 'success' });
       }
       setDocumentDialogOpen(false);
@@ -82,12 +82,13 @@ export const schemaApi = {
 
 // Document Management APIs
 export const documentApi = {
-  // Get all documents in a collection with optional filters
-  getDocuments: async (collectionName, filters = {}) => {
+  // Get one page of documents in a collection with optional filters.
+  // response.data holds the page items; pass response.nextCursor back as paging.cursor for the next page.
+  getDocuments: async (collectionName, filters = {}, paging = {}) => {
     const queryParams = new URLSearchParams();
     
-    // Add filters as query parameters
-    Object.entries(filters).forEach(([key, value]) => {
+    // Add filters and paging options as query parameters
+    Object.entries({ ...filters, ...paging }).forEach(([key, value]) => {
       if (value !== null && value !== undefined && value !== '') {
         queryParams.append(key, value);
       }
@@ -95,17 +96,45 @@ export const documentApi = {
     
     const url = `/collections/${collectionName}/documents${queryParams.toString() ? `?${queryParams.toString()}` : ''}`;
     const response = await apiClient.get(url);
-    return response;
+    return { ...response, data: response.data.items || [], nextCursor: response.data.nextCursor };
   },
 
-  // Get all documents in a collection with pagination (legacy method)
+  // Get the first page of documents in a collection (legacy method)
   getAllDocuments: async (collectionName, page = 0, size = 10) => {
     const response = await apiClient.get(`/collections/${collectionName}/documents`, {
-      params: { page, size }
+      params: { limit: size }
     });
+    return response.data.items || [];
+  },
+
+  // Number of documents matching the filters: { count, estimated }
+  countDocuments: async (collectionName, filters = {}) => {
+    const params = Object.fromEntries(Object.entries(filters)
+      .filter(([, value]) => value !== null && value !== undefined && value !== ''));
+    const response = await apiClient.get(`/collections/${collectionName}/count`, { params });
     return response.data;
   },
 
+  // Most frequent values per field among the filtered documents: { field: [{ value, count }] }
+  getFacets: async (collectionName, fields, filters = {}, limit = 10) => {
+    const params = Object.fromEntries(Object.entries(filters)
+      .filter(([, value]) => value !== null && value !== undefined && value !== ''));
+    const response = await apiClient.get(`/collections/${collectionName}/facets`, {
+      params: { ...params, fields: fields.join(','), limit }
+    });
+    return response.data;
+  },
+
+  // Grouped totals computed by the server: { filter, groupBy, metrics: [{ op, field, as }], sort, limit }
+  aggregate: async (collectionName, request) => {
+    const response = await apiClient.post(`/collections/${collectionName}/aggregate`, request);
+    return response.data;
+  },
+
+  // URL that streams a whole collection as ndjson or csv
+  getExportUrl: (collectionName, format = 'csv') =>
+    `${API_BASE_URL}/collections/${collectionName}/export?format=${format}`,
+
   // Get specific document
   getDocument: async (collectionName, documentId) => {
     const response = await apiClient.get(`/collections/${collectionName}/documents/${documentId}`);
@@ -118,9 +147,10 @@ export const documentApi = {
     return response.data;
   },
 
-  // Update document
-  updateDocument: async (collectionName, documentId, document) => {
-    const response = await apiClient.put(`/collections/${collectionName}/documents/${documentId}`, document);
+  // Update document; pass the version it was loaded with to fail with 412 if it changed meanwhile
+  updateDocument: async (collectionName, documentId, document, version) => {
+    const headers = version !== undefined && version !== null ? { 'If-Match': `"${version}"` } : {};
+    const response = await apiClient.put(`/collections/${collectionName}/documents/${documentId}`, document, { headers });
     return response.data;
   },
 
@@ -130,13 +160,50 @@ export const documentApi = {
     return response.data;
   },
 
-  // Search documents with query
-  searchDocuments: async (collectionName, query = {}, page = 0, size = 10) => {
-    const response = await apiClient.post(`/collections/${collectionName}/documents/search`, query, {
-      params: { page, size }
+  // Query documents with a typed filter tree: { filter, sort, limit, cursor, projection }.
+  // Returns the same shape as getDocuments.
+  searchDocuments: async (collectionName, query = {}) => {
+    const response = await apiClient.post(`/collections/${collectionName}/documents/query`, query);
+    return { ...response, data: response.data.items || [], nextCursor: response.data.nextCursor };
+  },
+
+  // Relevance-ranked full-text search over searchable fields: { text, filter, limit, cursor, projection }.
+  // response.data holds { textScore, document } hits, most relevant first.
+  textSearch: async (collectionName, request) => {
+    const response = await apiClient.post(`/collections/${collectionName}/documents/search`, request);
+    return { ...response, data: response.data.items || [], nextCursor: response.data.nextCursor };
+  },
+};
+
+// Server-side file import APIs
+export const importApi = {
+  // Upload a CSV file; the server imports it in the background and returns the job
+  startImport: async (collectionName, file, options = {}) => {
+    const { columns, ...params } = options;
+    const formData = new FormData();
+    formData.append('file', file);
+    // Sent as a JSON array so field names containing commas survive
+    if (columns) {
+      formData.append('columns', JSON.stringify(columns));
+    }
+    const response = await apiClient.post(`/collections/${collectionName}/imports`, formData, {
+      headers: { 'Content-Type': 'multipart/form-data' },
+      params,
     });
     return response.data;
   },
+
+  // Get import job progress
+  getImport: async (jobId) => {
+    const response = await apiClient.get(`/imports/${jobId}`);
+    return response.data;
+  },
+
+  // Cancel a running import
+  cancelImport: async (jobId) => {
+    const response = await apiClient.delete(`/imports/${jobId}`);
+    return response.data;
+  },
 };
 
 // Health check API
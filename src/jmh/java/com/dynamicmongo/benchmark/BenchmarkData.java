@@ -0,0 +1,104 @@
+package com.dynamicmongo.benchmark;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schemas and matching documents shared by the benchmarks: "small" is a typical five-field
+ * record, "wide" has sixty mixed fields and "nested" carries objects and arrays.
+ */
+final class BenchmarkData {
+
+    static final String COLLECTION = "products";
+
+    private BenchmarkData() {
+    }
+
+    static CollectionSchema schema(String shape) {
+        List<FieldDefinition> fields = new ArrayList<>();
+        switch (shape) {
+            case "small":
+                fields.add(rules(new FieldDefinition("name", "STRING", true), Map.of("minLength", 2, "maxLength", 100)));
+                fields.add(new FieldDefinition("sku", "STRING", true));
+                fields.add(rules(new FieldDefinition("price", "DOUBLE", true), Map.of("min", 0)));
+                fields.add(new FieldDefinition("stock", "INTEGER", false));
+                fields.add(new FieldDefinition("active", "BOOLEAN", false));
+                break;
+            case "wide":
+                for (int i = 0; i < 60; i++) {
+                    String type = switch (i % 4) {
+                        case 0 -> "STRING";
+                        case 1 -> "INTEGER";
+                        case 2 -> "DOUBLE";
+                        default -> "BOOLEAN";
+                    };
+                    fields.add(new FieldDefinition("field" + i, type, i % 3 == 0));
+                }
+                break;
+            case "nested":
+                fields.addAll(schema("small").getFields());
+                fields.add(new FieldDefinition("dimensions", "OBJECT", false));
+                fields.add(new FieldDefinition("supplier", "OBJECT", false));
+                fields.add(new FieldDefinition("tags", "ARRAY", false));
+                fields.add(new FieldDefinition("variants", "ARRAY", false));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        return new CollectionSchema(COLLECTION, fields);
+    }
+
+    static Map<String, Object> data(String shape, int seed) {
+        Map<String, Object> data = new HashMap<>();
+        switch (shape) {
+            case "small":
+                data.put("name", "Product " + seed);
+                data.put("sku", "SKU-" + seed);
+                data.put("price", 10.5 + seed);
+                data.put("stock", seed % 500);
+                data.put("active", seed % 2 == 0);
+                break;
+            case "wide":
+                for (int i = 0; i < 60; i++) {
+                    Object value = switch (i % 4) {
+                        case 0 -> "value-" + seed + "-" + i;
+                        case 1 -> seed + i;
+                        case 2 -> seed * 0.5 + i;
+                        default -> (seed + i) % 2 == 0;
+                    };
+                    data.put("field" + i, value);
+                }
+                break;
+            case "nested":
+                data.putAll(data("small", seed));
+                data.put("dimensions", Map.of("width", 10.0, "height", 2.5, "depth", 4.0, "unit", "cm"));
+                data.put("supplier", Map.of("name", "Acme", "address", Map.of("city", "Springfield", "zip", "12345")));
+                data.put("tags", List.of("office", "paper", "sale"));
+                data.put("variants", List.of(Map.of("color", "red", "stock", 3), Map.of("color", "blue", "stock", 7)));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        return data;
+    }
+
+    static DynamicDocument document(String shape, int seed) {
+        DynamicDocument document = new DynamicDocument(data(shape, seed), COLLECTION);
+        document.setId(String.format("%024x", seed));
+        document.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        document.setUpdatedAt(LocalDateTime.of(2025, 1, 2, 12, 0));
+        document.setVersion(seed % 5);
+        return document;
+    }
+
+    private static FieldDefinition rules(FieldDefinition field, Map<String, Object> validation) {
+        field.setValidation(validation);
+        return field;
+    }
+}
@@ -0,0 +1,99 @@
+package com.dynamicmongo.benchmark;
+
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.repository.DynamicDocumentCodec;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// MappingMongoConverter as MongoTemplate uses it against DynamicDocumentCodec, both to and from BSON bytes
+// the way the driver sends and receives them, without a database connection
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentMappingBenchmark {
+
+    @Param({"small", "wide", "nested"})
+    private String shape;
+
+    private final EncoderContext encoderContext = EncoderContext.builder().build();
+    private final DecoderContext decoderContext = DecoderContext.builder().build();
+
+    private MappingMongoConverter converter;
+    private DocumentCodec documentCodec;
+    private DynamicDocumentCodec codec;
+    private DynamicDocument document;
+    private byte[] stored;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        documentCodec = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+        codec = new DynamicDocumentCodec(MongoClientSettings.getDefaultCodecRegistry(),
+                BenchmarkData.schema(shape).getFields());
+
+        document = BenchmarkData.document(shape, 42);
+        stored = codecWrite();
+    }
+
+    @Benchmark
+    public byte[] converterWrite() {
+        Document target = new Document();
+        converter.write(document, target);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        documentCodec.encode(new BsonBinaryWriter(buffer), target, encoderContext);
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public DynamicDocument converterRead() {
+        Document source = documentCodec.decode(new BsonBinaryReader(ByteBuffer.wrap(stored)), decoderContext);
+        return converter.read(DynamicDocument.class, source);
+    }
+
+    @Benchmark
+    public byte[] codecWrite() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        codec.encode(new BsonBinaryWriter(buffer), document, encoderContext);
+        return buffer.toByteArray();
+    }
+
+    @Benchmark
+    public DynamicDocument codecRead() {
+        return codec.decode(new BsonBinaryReader(ByteBuffer.wrap(stored)), decoderContext);
+    }
+}
@@ -0,0 +1,107 @@
+package com.dynamicmongo.benchmark;
+
+import com.dynamicmongo.config.BsonHttpMessageConverter;
+import com.dynamicmongo.model.DocumentPage;
+import com.dynamicmongo.model.DynamicDocument;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes a page of documents in each negotiable response format, optionally gzipped as the
+ * server would compress it. Time is measured by JMH; the encoded size of each combination is
+ * reported as the {@code bytes} secondary result, so bytes and time can be read side by side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"small", "wide", "nested"})
+    private String shape;
+
+    @Param({"100"})
+    private int size;
+
+    @Param({"json", "smile", "cbor", "bson"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ObjectMapper objectMapper;
+    private BsonHttpMessageConverter bsonConverter;
+    private DocumentPage page;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "json" -> builder.build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> null;
+        };
+        bsonConverter = new BsonHttpMessageConverter();
+
+        List<DynamicDocument> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            documents.add(BenchmarkData.document(shape, i));
+        }
+        page = new DocumentPage(documents, size, "id,asc", "eyJpZCI6ICIwMDAwMDAwMDAwMDAwMDAwMDAwMDAwNjMifQ");
+    }
+
+    @Benchmark
+    public byte[] encodePage(EncodedSize encodedSize) throws IOException {
+        byte[] encoded = encode();
+        encodedSize.bytes = encoded.length;
+        return encoded;
+    }
+
+    // Assigned rather than accumulated, so each iteration reports the size of one page
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+        public long bytes;
+    }
+
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes) {
+            if (objectMapper != null) {
+                objectMapper.writeValue(out, page);
+            } else {
+                MockHttpOutputMessage message = new MockHttpOutputMessage();
+                bsonConverter.write(page, BsonHttpMessageConverter.APPLICATION_BSON, message);
+                out.write(message.getBodyAsBytes());
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
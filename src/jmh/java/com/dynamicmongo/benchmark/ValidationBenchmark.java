@@ -0,0 +1,54 @@
+package com.dynamicmongo.benchmark;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.service.DataValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"small", "wide", "nested"})
+    private String shape;
+
+    private DataValidationService validationService;
+    private CollectionSchema schema;
+    private Map<String, Object> validDocument;
+    private Map<String, Object> invalidDocument;
+
+    @Setup
+    public void setUp() {
+        validationService = new DataValidationService();
+        schema = BenchmarkData.schema(shape);
+        validDocument = BenchmarkData.data(shape, 42);
+        invalidDocument = BenchmarkData.data(shape, 42);
+        invalidDocument.replaceAll((field, value) -> value instanceof String ? 12345 : "not a " + field);
+    }
+
+    @Benchmark
+    public List<String> validDocument() {
+        return validationService.validateDocument(validDocument, schema);
+    }
+
+    @Benchmark
+    public List<String> invalidDocument() {
+        return validationService.validateDocument(invalidDocument, schema);
+    }
+}
@@ -0,0 +1,101 @@
+package com.dynamicmongo.config;
+
+import com.dynamicmongo.model.DocumentPage;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.repository.DynamicDocumentCodec;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes documents, document pages and error bodies as a single BSON document for clients that
+ * send Accept: application/bson. Documents are encoded by {@link DynamicDocumentCodec}, so the
+ * layout matches what is stored: _id, data, collectionName, createdAt, updatedAt and version.
+ * Request bodies are never read as BSON.
+ */
+public class BsonHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_BSON = MediaType.parseMediaType("application/bson");
+
+    private final CodecRegistry registry = MongoClientSettings.getDefaultCodecRegistry();
+    private final DynamicDocumentCodec documentCodec = new DynamicDocumentCodec(registry);
+
+    public BsonHttpMessageConverter() {
+        super(APPLICATION_BSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return DynamicDocument.class.isAssignableFrom(clazz)
+                || DocumentPage.class.isAssignableFrom(clazz)
+                || Map.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("BSON request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            EncoderContext context = EncoderContext.builder().build();
+            if (body instanceof DynamicDocument) {
+                documentCodec.encode(writer, (DynamicDocument) body, context);
+            } else if (body instanceof DocumentPage) {
+                writePage(writer, (DocumentPage) body, context);
+            } else {
+                writeMap(writer, (Map<?, ?>) body, context);
+            }
+        }
+        outputMessage.getHeaders().setContentLength(buffer.getSize());
+        buffer.pipe(outputMessage.getBody());
+    }
+
+    private void writePage(BsonWriter writer, DocumentPage page, EncoderContext context) {
+        writer.writeStartDocument();
+        writer.writeStartArray("items");
+        if (page.getItems() != null) {
+            for (DynamicDocument document : page.getItems()) {
+                context.encodeWithChildContext(documentCodec, writer, document);
+            }
+        }
+        writer.writeEndArray();
+        writer.writeInt32("limit", page.getLimit());
+        writeNullableString(writer, "sort", page.getSort());
+        writeNullableString(writer, "nextCursor", page.getNextCursor());
+        writer.writeBoolean("hasMore", page.isHasMore());
+        writer.writeEndDocument();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void writeMap(BsonWriter writer, Map<?, ?> map, EncoderContext context) {
+        Codec codec = registry.get(Map.class);
+        codec.encode(writer, map, context);
+    }
+
+    private static void writeNullableString(BsonWriter writer, String name, String value) {
+        if (value == null) {
+            writer.writeNull(name);
+        } else {
+            writer.writeString(name, value);
+        }
+    }
+}
@@ -1,14 +1,59 @@
 package com.dynamicmongo.config;
 
+import com.dynamicmongo.repository.DynamicDocumentCodec;
+import com.dynamicmongo.service.MongoCommandMetrics;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
     
+    @Value("${spring.data.mongodb.uri:mongodb://localhost:27017/dynamic_db}")
+    private String uri;
+    
+    @Value("${spring.data.mongodb.database:}")
+    private String database;
+    
+    @Autowired
+    private MongoCommandMetrics commandMetrics;
+    
     @Override
     protected String getDatabaseName() {
-        return "dynamic_db";
+        if (!database.isBlank()) {
+            return database;
+        }
+        String fromUri = new ConnectionString(uri).getDatabase();
+        return fromUri != null ? fromUri : "dynamic_db";
+    }
+    
+    @Override
+    protected void configureClientSettings(MongoClientSettings.Builder builder) {
+        builder.applyConnectionString(new ConnectionString(uri));
+        builder.addCommandListener(commandMetrics);
+        // Schema-less fallback; DynamicDocumentStore layers a schema-aware codec on top per collection
+        builder.codecRegistry(CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new DynamicDocumentCodec(MongoClientSettings.getDefaultCodecRegistry())),
+                MongoClientSettings.getDefaultCodecRegistry()));
+    }
+    
+    @Override
+    public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory databaseFactory,
+                                                       MongoCustomConversions customConversions,
+                                                       MongoMappingContext mappingContext) {
+        MappingMongoConverter converter = super.mappingMongoConverter(databaseFactory, customConversions, mappingContext);
+        // Entities are never polymorphic, so documents written through the converter carry no _class either
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+        return converter;
     }
     
     @Override
@@ -0,0 +1,48 @@
+package com.dynamicmongo.config;
+
+import com.dynamicmongo.service.CollectionSchemaCache;
+import com.dynamicmongo.service.DocumentChangeStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Guards the inbound STOMP channel. The broker only relays server-pushed changes, so clients
+ * may not SEND (a forged frame on /topic would reach every subscriber unfiltered), and may only
+ * SUBSCRIBE to {@value DocumentChangeStreamService#DESTINATION_PREFIX}{collection} for a
+ * collection that has a schema. A rejected frame is answered with a STOMP ERROR.
+ */
+@Component
+public class StompDestinationInterceptor implements ChannelInterceptor {
+
+    @Autowired
+    private CollectionSchemaCache schemaCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor headers = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (headers == null || headers.getCommand() == null) {
+            return message;
+        }
+        if (headers.getCommand() == StompCommand.SEND) {
+            throw new MessageDeliveryException(message, "Sending to " + headers.getDestination() + " is not allowed");
+        }
+        if (headers.getCommand() == StompCommand.SUBSCRIBE) {
+            String destination = headers.getDestination();
+            if (destination == null || !destination.startsWith(DocumentChangeStreamService.DESTINATION_PREFIX)) {
+                throw new MessageDeliveryException(message, "Unknown destination: " + destination);
+            }
+            String collectionName = destination.substring(DocumentChangeStreamService.DESTINATION_PREFIX.length());
+            if (collectionName.isEmpty() || schemaCache.find(collectionName).isEmpty()) {
+                throw new MessageDeliveryException(message, "Collection schema not found: " + collectionName);
+            }
+        }
+        return message;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dynamicmongo.controller;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.IndexBuildStatus;
+import com.dynamicmongo.service.DynamicCrudService;
+import com.dynamicmongo.service.SchemaIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/dynamic")
+@CrossOrigin(origins = "*")
+@Tag(name = "Dynamic MongoDB Indexes", description = "APIs for schema-managed indexes and index usage")
+public class CollectionIndexController {
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private SchemaIndexService indexService;
+
+    @Operation(
+        summary = "Get collection indexes",
+        description = "Lists the indexes on a collection together with the status of the latest schema index build"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Indexes retrieved successfully",
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"build\": {\"state\": \"READY\", \"created\": [\"schema_pk\"]}, " +
+                    "\"indexes\": [{\"name\": \"schema_pk\", \"keys\": {\"data.sku\": 1}, \"unique\": true, \"managed\": true}]}"))),
+        @ApiResponse(responseCode = "404", description = "Schema not found")
+    })
+    @GetMapping("/schemas/{collectionName}/indexes")
+    public ResponseEntity<?> getIndexes(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName) {
+        if (crudService.getSchema(collectionName).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("build", indexService.getStatus(collectionName).orElse(null));
+            response.put("indexes", indexService.listIndexes(collectionName));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Rebuild schema indexes",
+        description = "Re-runs index reconciliation for a collection in the background, e.g. after fixing duplicate " +
+                      "primary keys that made a unique index build fail"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Index build scheduled"),
+        @ApiResponse(responseCode = "404", description = "Schema not found")
+    })
+    @PostMapping("/schemas/{collectionName}/indexes/reconcile")
+    public ResponseEntity<?> reconcileIndexes(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName) {
+        Optional<CollectionSchema> schema = crudService.getSchema(collectionName);
+        if (schema.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            IndexBuildStatus status = indexService.reconcileAsync(schema.get());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Get index usage statistics",
+        description = "Returns per-index access counts from MongoDB's $indexStats since the last server restart"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Index statistics retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Statistics could not be read")
+    })
+    @GetMapping("/collections/{collectionName}/indexes/stats")
+    public ResponseEntity<?> getIndexStats(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName) {
+        try {
+            return ResponseEntity.ok(indexService.indexUsage(collectionName));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.dynamicmongo.controller;
+
+import com.dynamicmongo.model.AggregationRequest;
+import com.dynamicmongo.model.DocumentCount;
+import com.dynamicmongo.model.FacetCount;
+import com.dynamicmongo.service.DocumentAggregationService;
+import com.dynamicmongo.service.DocumentFacetService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dynamic")
+@CrossOrigin(origins = "*")
+@Tag(name = "Dynamic MongoDB Aggregation", description = "APIs for computing grouped totals inside MongoDB")
+public class DocumentAggregationController {
+
+    private static final List<String> FACET_PARAMS = List.of("fields", "limit");
+
+    @Autowired
+    private DocumentAggregationService aggregationService;
+
+    @Autowired
+    private DocumentFacetService facetService;
+
+    @Operation(
+        summary = "Aggregate a collection",
+        description = "Groups the documents matching an optional filter by schema fields and computes count, sum, " +
+                      "avg, min or max per group. Results are cached until the collection is next written to."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "One row per group with the group-by fields and metrics",
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "[{\"category\": \"electronics\", \"count\": 42, \"totalPrice\": 41999.58}]"))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection or field, non-numeric sum/avg field, or invalid sort or limit")
+    })
+    @PostMapping("/collections/{collectionName}/aggregate")
+    public ResponseEntity<?> aggregate(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Filter, group-by fields, metrics, sort and limit",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "filter": {"field": "price", "op": "gt", "value": 0},
+                      "groupBy": ["category"],
+                      "metrics": [
+                        {"op": "count"},
+                        {"op": "sum", "field": "price", "as": "totalPrice"},
+                        {"op": "avg", "field": "price", "as": "averagePrice"}
+                      ],
+                      "sort": "totalPrice,desc",
+                      "limit": 10
+                    }
+                    """
+                )
+            )
+        )
+        @RequestBody AggregationRequest request) {
+        try {
+            List<Document> rows = aggregationService.aggregate(collectionName, request);
+            return ResponseEntity.ok(rows);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Count documents",
+        description = "Counts the documents matching optional field=value filters, like the list endpoint. Without " +
+                      "filters the count is estimated from collection metadata and returned immediately; with " +
+                      "filters it is counted by MongoDB, using an index on the filtered fields when there is one. " +
+                      "Counts are cached for a few seconds."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Document count",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentCount.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection or invalid filter")
+    })
+    @GetMapping("/collections/{collectionName}/count")
+    public ResponseEntity<?> count(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @Parameter(description = "Filter criteria (optional)", example = "category=electronics")
+        @RequestParam(required = false) Map<String, Object> filter) {
+        try {
+            return ResponseEntity.ok(facetService.count(collectionName, filter));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Count distinct field values",
+        description = "Returns the most frequent values of each requested schema field with their document counts, " +
+                      "among the documents matching optional field=value filters. All fields are computed in one " +
+                      "$facet aggregation; ARRAY fields count each element. Results are cached for a few seconds."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Top values per field, most frequent first",
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"category\": [{\"value\": \"electronics\", \"count\": 42}, " +
+                                                  "{\"value\": \"office\", \"count\": 17}]}"))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection or field, too many fields, or invalid limit")
+    })
+    @GetMapping("/collections/{collectionName}/facets")
+    public ResponseEntity<?> facets(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @Parameter(description = "Schema fields to count values of (up to " + DocumentFacetService.MAX_FACET_FIELDS + ")",
+            example = "category,brand")
+        @RequestParam List<String> fields,
+        @Parameter(description = "Values returned per field (1-" + DocumentFacetService.MAX_FACET_LIMIT + ")",
+            example = "10")
+        @RequestParam(required = false) Integer limit,
+        @Parameter(description = "Filter criteria (optional)", example = "active=true")
+        @RequestParam(required = false) Map<String, Object> filter) {
+        try {
+            Map<String, Object> criteria = filter == null ? new HashMap<>() : new HashMap<>(filter);
+            FACET_PARAMS.forEach(criteria::remove);
+            Map<String, List<FacetCount>> facets = facetService.facets(collectionName, fields, criteria, limit);
+            return ResponseEntity.ok(facets);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
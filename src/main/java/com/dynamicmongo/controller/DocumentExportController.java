@@ -0,0 +1,85 @@
+package com.dynamicmongo.controller;
+
+import com.dynamicmongo.service.DocumentExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dynamic")
+@CrossOrigin(origins = "*")
+@Tag(name = "Dynamic MongoDB Export", description = "APIs for streaming whole collections out of MongoDB")
+public class DocumentExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+    private static final MediaType BSON = MediaType.parseMediaType("application/bson");
+
+    @Autowired
+    private DocumentExportService exportService;
+
+    @Operation(
+        summary = "Export a collection",
+        description = "Streams every document of a collection straight from a MongoDB cursor, one record at a time, " +
+                      "as NDJSON, as CSV with columns in schema field order, or as the stored BSON documents " +
+                      "back to back (mongorestore-compatible). Responses are compressed when the client accepts gzip"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export stream started",
+            content = {
+                @Content(mediaType = "application/x-ndjson"),
+                @Content(mediaType = "text/csv"),
+                @Content(mediaType = "application/bson")
+            }),
+        @ApiResponse(responseCode = "400", description = "Unknown collection or unsupported format")
+    })
+    @GetMapping("/collections/{collectionName}/export")
+    public ResponseEntity<?> exportDocuments(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @Parameter(description = "Export format: ndjson, csv or bson", example = "ndjson")
+        @RequestParam(defaultValue = DocumentExportService.FORMAT_NDJSON) String format) {
+        try {
+            exportService.requireSchema(collectionName);
+
+            StreamingResponseBody body;
+            MediaType mediaType;
+            switch (format.toLowerCase()) {
+                case DocumentExportService.FORMAT_NDJSON:
+                    body = out -> exportService.exportNdjson(collectionName, out);
+                    mediaType = NDJSON;
+                    break;
+                case DocumentExportService.FORMAT_CSV:
+                    body = out -> exportService.exportCsv(collectionName, out);
+                    mediaType = CSV;
+                    break;
+                case DocumentExportService.FORMAT_BSON:
+                    body = out -> exportService.exportBson(collectionName, out);
+                    mediaType = BSON;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported export format: " + format);
+            }
+
+            String filename = collectionName + "." + format.toLowerCase();
+            return ResponseEntity.ok()
+                    .contentType(mediaType)
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename(filename).build().toString())
+                    .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
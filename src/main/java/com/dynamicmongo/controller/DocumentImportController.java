@@ -0,0 +1,133 @@
+package com.dynamicmongo.controller;
+
+import com.dynamicmongo.model.ImportJob;
+import com.dynamicmongo.service.BulkDocumentService;
+import com.dynamicmongo.service.DocumentImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/dynamic")
+@CrossOrigin(origins = "*")
+@Tag(name = "Dynamic MongoDB Import", description = "APIs for importing files into collections as background jobs")
+public class DocumentImportController {
+
+    @Autowired
+    private DocumentImportService importService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Operation(
+        summary = "Start a CSV import",
+        description = "Uploads a CSV file and imports it in the background: rows are streamed, coerced to the " +
+                      "schema field types, validated and inserted in batches. Poll the returned job for progress."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import job started",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportJob.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection, empty file or invalid options"),
+        @ApiResponse(responseCode = "429", description = "Too many imports are already running")
+    })
+    @PostMapping(value = "/collections/{collectionName}/imports", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> startImport(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @Parameter(description = "CSV file whose first line is a header row")
+        @RequestParam("file") MultipartFile file,
+        @Parameter(description = "Rows per bulk insert (1-" + BulkDocumentService.MAX_BATCH_SIZE + ")", example = "1000")
+        @RequestParam(required = false) Integer batchSize,
+        @Parameter(description = "Data rows to skip after the header, e.g. 1 for a data-type row", example = "0")
+        @RequestParam(defaultValue = "0") int skipRows,
+        @Parameter(description = "Field names overriding the header, as a JSON array or comma-separated; leave an entry " +
+                                 "blank to drop that column. Use the JSON form when a name contains a comma.",
+            example = "[\"name\",\"price\",\"\",\"category\"]")
+        @RequestParam(required = false) String columns) {
+        try {
+            List<String> columnNames = parseColumns(columns);
+            ImportJob job = importService.startCsvImport(collectionName, file, batchSize, skipRows, columnNames);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Get import jobs",
+        description = "Lists running imports and imports finished within the retention window, newest first"
+    )
+    @ApiResponse(responseCode = "200", description = "Import jobs retrieved successfully")
+    @GetMapping("/imports")
+    public ResponseEntity<List<ImportJob>> getImports() {
+        return ResponseEntity.ok(importService.getJobs());
+    }
+
+    @Operation(
+        summary = "Get an import job",
+        description = "Retrieves the progress (rows read/accepted/rejected) and status of an import job"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import job found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImportJob.class))),
+        @ApiResponse(responseCode = "404", description = "Import job not found")
+    })
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<?> getImport(
+        @Parameter(description = "Import job ID")
+        @PathVariable String jobId) {
+        Optional<ImportJob> job = importService.getJob(jobId);
+        if (job.isPresent()) {
+            return ResponseEntity.ok(job.get());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+        summary = "Cancel an import job",
+        description = "Stops a running import after the batch in flight; rows already inserted are kept"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cancellation requested"),
+        @ApiResponse(responseCode = "404", description = "Import job not found")
+    })
+    @DeleteMapping("/imports/{jobId}")
+    public ResponseEntity<?> cancelImport(
+        @Parameter(description = "Import job ID")
+        @PathVariable String jobId) {
+        if (importService.getJob(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(importService.cancel(jobId));
+    }
+
+    private List<String> parseColumns(String columns) throws JsonProcessingException {
+        if (columns == null) {
+            return null;
+        }
+        if (columns.trim().startsWith("[")) {
+            List<String> names = objectMapper.readValue(columns, new TypeReference<List<String>>() {});
+            return names.stream().map(name -> name == null ? "" : name).toList();
+        }
+        return Arrays.asList(columns.split(",", -1));
+    }
+}
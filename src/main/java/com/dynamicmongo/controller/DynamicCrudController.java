@@ -1,23 +1,38 @@
 package com.dynamicmongo.controller;
 
+import com.dynamicmongo.model.BulkWriteReport;
 import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentLookupResult;
+import com.dynamicmongo.model.DocumentPage;
+import com.dynamicmongo.model.DocumentQuery;
 import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.SearchPage;
+import com.dynamicmongo.model.SearchRequest;
+import com.dynamicmongo.service.BulkDocumentService;
+import com.dynamicmongo.service.CollectionVersionService;
 import com.dynamicmongo.service.DynamicCrudService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api/dynamic")
@@ -25,9 +40,17 @@ import java.util.Optional;
 @Tag(name = "Dynamic MongoDB CRUD", description = "APIs for managing dynamic MongoDB collections and documents")
 public class DynamicCrudController {
     
+    private static final List<String> PAGING_PARAMS = List.of("limit", "sort", "cursor");
+    
     @Autowired
     private DynamicCrudService crudService;
     
+    @Autowired
+    private BulkDocumentService bulkService;
+    
+    @Autowired
+    private CollectionVersionService collectionVersions;
+    
     @Operation(
         summary = "Create a new collection schema",
         description = "Creates a new MongoDB collection with a dynamic schema definition"
@@ -109,7 +132,10 @@ public class DynamicCrudController {
     
     @Operation(
         summary = "Update a collection schema",
-        description = "Updates an existing collection schema"
+        description = "Updates an existing collection schema. Existing documents are migrated in the background: " +
+                      "values of fields whose type changed are converted, new defaults are filled in and documents " +
+                      "missing new required fields are reported. Progress is available under " +
+                      "/schemas/{collectionName}/migrations."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Schema updated successfully"),
@@ -119,9 +145,11 @@ public class DynamicCrudController {
     public ResponseEntity<?> updateSchema(
         @Parameter(description = "Name of the collection", example = "products")
         @PathVariable String collectionName, 
+        @Parameter(description = "Also remove fields that are no longer in the schema from existing documents")
+        @RequestParam(defaultValue = "false") boolean dropRemovedFields,
         @RequestBody CollectionSchema schema) {
         try {
-            CollectionSchema updated = crudService.updateSchema(collectionName, schema);
+            CollectionSchema updated = crudService.updateSchema(collectionName, schema, dropRemovedFields);
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
@@ -207,27 +235,231 @@ public class DynamicCrudController {
     }
     
     @Operation(
-        summary = "Get all documents",
-        description = "Retrieves all documents from a collection, optionally filtered"
+        summary = "Create documents in bulk",
+        description = "Validates each row against the collection schema and inserts valid rows in unordered " +
+                      "batches. Accepts a JSON array or NDJSON (one object per line) and reports errors per row index."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bulk write completed, possibly with rejected rows",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkWriteReport.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection, invalid batch size or unreadable body")
+    })
+    @PostMapping(value = "/collections/{collectionName}/documents/bulk",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> createDocuments(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @Parameter(description = "Rows per bulk insert (1-" + BulkDocumentService.MAX_BATCH_SIZE + ")", example = "1000")
+        @RequestParam(required = false) Integer batchSize,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "JSON array of documents, or NDJSON with one document per line",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    [
+                      {"name": "Laptop", "price": 999.99, "category": "electronics"},
+                      {"name": "Desk", "price": 249.00, "category": "furniture"}
+                    ]
+                    """
+                )
+            )
+        )
+        HttpServletRequest request) {
+        try {
+            BulkWriteReport report = bulkService.insertStream(collectionName, request.getInputStream(), batchSize);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @Operation(
+        summary = "Upsert documents in bulk",
+        description = "Inserts or updates rows matched on the schema's primary-key fields, so re-sending the same " +
+                      "records is idempotent. Fields in a row are set on the existing document; fields not sent are " +
+                      "kept. Accepts a JSON array or NDJSON and reports inserted, updated and unchanged counts."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Documents retrieved successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid filter criteria")
+        @ApiResponse(responseCode = "200", description = "Bulk upsert completed, possibly with rejected rows",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkWriteReport.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection, no primary key, invalid batch size or unreadable body")
+    })
+    @PostMapping(value = "/collections/{collectionName}/documents/upsert",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> upsertDocuments(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @Parameter(description = "Rows per bulk write (1-" + BulkDocumentService.MAX_BATCH_SIZE + ")", example = "1000")
+        @RequestParam(required = false) Integer batchSize,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "JSON array of documents, or NDJSON with one document per line; each must carry the primary-key fields",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    [
+                      {"sku": "LAP-001", "name": "Laptop", "price": 999.99},
+                      {"sku": "DSK-002", "name": "Desk", "price": 249.00}
+                    ]
+                    """
+                )
+            )
+        )
+        HttpServletRequest request) {
+        try {
+            BulkWriteReport report = bulkService.upsertStream(collectionName, request.getInputStream(), batchSize);
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @Operation(
+        summary = "Get a page of documents",
+        description = "Retrieves documents from a collection one keyset page at a time, optionally filtered. " +
+                      "Pass the returned nextCursor as 'cursor' to fetch the following page. The ETag changes " +
+                      "whenever the collection is written to; send it as If-None-Match to get 304 while it has not. " +
+                      "Send Accept: application/x-jackson-smile, application/cbor or application/bson for a " +
+                      "compact binary page instead of JSON."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documents retrieved successfully",
+            content = {
+                @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentPage.class)),
+                @Content(mediaType = "application/x-jackson-smile"),
+                @Content(mediaType = "application/cbor"),
+                @Content(mediaType = "application/bson")
+            }),
+        @ApiResponse(responseCode = "304", description = "The collection has not changed since If-None-Match was issued"),
+        @ApiResponse(responseCode = "400", description = "Invalid filter criteria, sort, limit or cursor")
     })
     @GetMapping("/collections/{collectionName}/documents")
     public ResponseEntity<?> getAllDocuments(
         @Parameter(description = "Name of the collection", example = "products")
         @PathVariable String collectionName,
+        @Parameter(description = "Maximum number of documents per page (1-" + DynamicCrudService.MAX_PAGE_LIMIT + ")",
+            example = "100")
+        @RequestParam(required = false) Integer limit,
+        @Parameter(description = "Sort field and direction; 'id', 'createdAt', 'updatedAt' or a data field",
+            example = "price,desc")
+        @RequestParam(required = false) String sort,
+        @Parameter(description = "Opaque cursor returned as nextCursor by the previous page")
+        @RequestParam(required = false) String cursor,
         @Parameter(description = "Filter criteria (optional)", example = "name=Laptop")
-        @RequestParam(required = false) Map<String, Object> filter) {
+        @RequestParam(required = false) Map<String, Object> filter,
+        @Parameter(description = "ETag of a previous response for the same request")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            // Every request parameter, paging included, is part of the tag
+            String tag = collectionVersions.listTag(collectionName, filter == null ? Map.of() : new TreeMap<>(filter));
+            if (matchesAny(ifNoneMatch, tag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            Map<String, Object> criteria = filter == null ? new HashMap<>() : new HashMap<>(filter);
+            PAGING_PARAMS.forEach(criteria::remove);
+            DocumentPage page = crudService.getDocumentsPage(collectionName, criteria, limit, sort, cursor);
+            return ResponseEntity.ok().eTag(tag).varyBy(HttpHeaders.ACCEPT).body(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @Operation(
+        summary = "Query documents",
+        description = "Finds documents matching a typed filter tree. Conditions use eq, ne, gt, gte, lt, lte, in, " +
+                      "exists or prefix and can be combined with 'and' / 'or'. Operands are converted to the field " +
+                      "types declared in the schema. Results are keyset-paged like the list endpoint and can be " +
+                      "limited to a projection of data fields. Like the list endpoint, it answers If-None-Match " +
+                      "with 304 while the collection is unchanged."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Documents retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DocumentPage.class))),
+        @ApiResponse(responseCode = "304", description = "The collection has not changed since If-None-Match was issued"),
+        @ApiResponse(responseCode = "400", description = "Unknown collection or invalid filter, sort, limit or cursor",
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"error\": \"Unknown operator: between\"}")))
+    })
+    @PostMapping("/collections/{collectionName}/documents/query")
+    public ResponseEntity<?> queryDocuments(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Filter, sort, limit, cursor and projection",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "filter": {
+                        "and": [
+                          {"field": "category", "op": "in", "value": ["electronics", "office"]},
+                          {"field": "price", "op": "gte", "value": 100},
+                          {"or": [
+                            {"field": "name", "op": "prefix", "value": "Lap"},
+                            {"field": "discontinued", "op": "exists", "value": false}
+                          ]}
+                        ]
+                      },
+                      "sort": "price,desc",
+                      "limit": 50,
+                      "projection": ["name", "price"]
+                    }
+                    """
+                )
+            )
+        )
+        @RequestBody DocumentQuery query,
+        @Parameter(description = "ETag of a previous response for the same query")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            List<DynamicDocument> documents;
-            if (filter != null && !filter.isEmpty()) {
-                documents = crudService.findDocuments(collectionName, filter);
-            } else {
-                documents = crudService.getAllDocuments(collectionName);
+            String tag = collectionVersions.listTag(collectionName, query);
+            if (matchesAny(ifNoneMatch, tag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).varyBy(HttpHeaders.ACCEPT).build();
             }
-            return ResponseEntity.ok(documents);
+            DocumentPage page = crudService.queryDocuments(collectionName, query);
+            return ResponseEntity.ok().eTag(tag).varyBy(HttpHeaders.ACCEPT).body(page);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @Operation(
+        summary = "Search documents",
+        description = "Full-text search over the schema fields marked searchable, using the collection's text index. " +
+                      "Results are ranked by MongoDB's text score, weighted by each field's searchWeight, and paged " +
+                      "with nextCursor. An optional filter tree and projection work as in the query endpoint."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Matching documents, most relevant first",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SearchPage.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown collection, no searchable fields, empty text, " +
+                                                         "or invalid filter, limit or cursor")
+    })
+    @PostMapping("/collections/{collectionName}/documents/search")
+    public ResponseEntity<?> searchDocuments(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Search text, optional filter, limit, cursor and projection",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(
+                    value = """
+                    {
+                      "text": "wireless headphones",
+                      "filter": {"field": "price", "op": "lt", "value": 200},
+                      "limit": 20,
+                      "projection": ["name", "description", "price"]
+                    }
+                    """
+                )
+            )
+        )
+        @RequestBody SearchRequest request) {
+        try {
+            return ResponseEntity.ok(crudService.searchDocuments(collectionName, request));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -238,8 +470,9 @@ public class DynamicCrudController {
         description = "Retrieves a document by its ID from the specified collection"
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Document found",
+        @ApiResponse(responseCode = "200", description = "Document found; the ETag header carries its version",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = DynamicDocument.class))),
+        @ApiResponse(responseCode = "304", description = "The document still has the version sent as If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Document not found")
     })
     @GetMapping("/collections/{collectionName}/documents/{id}")
@@ -247,22 +480,61 @@ public class DynamicCrudController {
         @Parameter(description = "Name of the collection", example = "products")
         @PathVariable String collectionName,
         @Parameter(description = "Document ID", example = "507f1f77bcf86cd799439011")
-        @PathVariable String id) {
+        @PathVariable String id,
+        @Parameter(description = "ETag of the version the client already has", example = "W/\"3\"")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Optional<DynamicDocument> document = crudService.getDocument(collectionName, id);
         if (document.isPresent()) {
-            return ResponseEntity.ok(document.get());
+            String tag = versionTag(document.get());
+            if (matchesAny(ifNoneMatch, tag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+            return ResponseEntity.ok().eTag(tag).varyBy(HttpHeaders.ACCEPT).body(document.get());
         }
         return ResponseEntity.notFound().build();
     }
     
+    @Operation(
+        summary = "Get many documents by id",
+        description = "Fetches up to " + DynamicCrudService.MAX_LOOKUP_IDS + " documents in one request. Results are " +
+                      "returned in request order, with found=false for ids that do not exist."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup completed",
+            content = @Content(mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = DocumentLookupResult.class)))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized id list")
+    })
+    @PostMapping("/collections/{collectionName}/documents/lookup")
+    public ResponseEntity<?> getDocumentsByIds(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName,
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Document ids to fetch",
+            content = @Content(
+                mediaType = "application/json",
+                examples = @ExampleObject(value = "[\"507f1f77bcf86cd799439011\", \"507f191e810c19729de860ea\"]")
+            )
+        )
+        @RequestBody List<String> ids) {
+        try {
+            List<DocumentLookupResult> results = crudService.getDocumentsByIds(collectionName, ids);
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @Operation(
         summary = "Update a document",
-        description = "Updates an existing document with new data"
+        description = "Partially updates a document: the given fields are set, fields sent as null are removed, " +
+                      "and only the changed fields are validated. Send the ETag of the document as If-Match to " +
+                      "reject the update when someone else has modified the document in the meantime."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Document updated successfully"),
-        @ApiResponse(responseCode = "400", description = "Invalid update data or validation error"),
-        @ApiResponse(responseCode = "404", description = "Document not found")
+        @ApiResponse(responseCode = "200", description = "Document updated successfully; the ETag header carries its new version"),
+        @ApiResponse(responseCode = "400", description = "Invalid update data, validation error or unknown document"),
+        @ApiResponse(responseCode = "412", description = "The document version no longer matches If-Match")
     })
     @PutMapping("/collections/{collectionName}/documents/{id}")
     public ResponseEntity<?> updateDocument(
@@ -284,10 +556,14 @@ public class DynamicCrudController {
                 )
             )
         )
-        @RequestBody Map<String, Object> updates) {
+        @RequestBody Map<String, Object> updates,
+        @Parameter(description = "ETag of the version being updated", example = "W/\"3\"")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            DynamicDocument updated = crudService.updateDocument(collectionName, id, updates);
-            return ResponseEntity.ok(updated);
+            DynamicDocument updated = crudService.updateDocument(collectionName, id, updates, parseIfMatch(ifMatch));
+            return ResponseEntity.ok().eTag(versionTag(updated)).body(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -313,4 +589,48 @@ public class DynamicCrudController {
         }
         return ResponseEntity.notFound().build();
     }
+    
+    // Weak: the same version is served as JSON, Smile, CBOR or BSON, gzipped or not
+    private static String versionTag(DynamicDocument document) {
+        return "W/\"" + document.getVersion() + "\"";
+    }
+    
+    // If-None-Match uses weak comparison: W/ prefixes are ignored, and "*" matches any current representation
+    private static boolean matchesAny(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Accepts a single strong or weak entity tag; "*" means any version
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match header: " + ifMatch);
+        }
+    }
 }
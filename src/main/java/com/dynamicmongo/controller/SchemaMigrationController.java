@@ -0,0 +1,121 @@
+package com.dynamicmongo.controller;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.SchemaMigration;
+import com.dynamicmongo.service.DynamicCrudService;
+import com.dynamicmongo.service.SchemaMigrationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/dynamic")
+@CrossOrigin(origins = "*")
+@Tag(name = "Dynamic MongoDB Schema Migrations", description = "APIs for tracking the rewrite of existing documents after schema updates")
+public class SchemaMigrationController {
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private SchemaMigrationService migrationService;
+
+    @Operation(
+        summary = "List schema migrations",
+        description = "Lists the migrations queued by updates of a collection's schema, newest first"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Migrations retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Schema not found")
+    })
+    @GetMapping("/schemas/{collectionName}/migrations")
+    public ResponseEntity<?> getMigrations(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName) {
+        if (crudService.getSchema(collectionName).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(migrationService.getMigrations(collectionName));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Normalize stored values",
+        description = "Queues a migration that converts every stored value of the schema's fields to its canonical " +
+                      "type, e.g. \"42\" to 42 for INTEGER or ISO-8601 text to a date for DATE. New writes are " +
+                      "normalized already; this is for documents written before that."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Normalization queued",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SchemaMigration.class))),
+        @ApiResponse(responseCode = "400", description = "A migration is already in progress for the collection"),
+        @ApiResponse(responseCode = "404", description = "Schema not found")
+    })
+    @PostMapping("/schemas/{collectionName}/migrations/normalize")
+    public ResponseEntity<?> normalize(
+        @Parameter(description = "Name of the collection", example = "products")
+        @PathVariable String collectionName) {
+        Optional<CollectionSchema> schema = crudService.getSchema(collectionName);
+        if (schema.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(migrationService.startNormalization(schema.get()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @Operation(
+        summary = "Get schema migration progress",
+        description = "Returns the status, checkpoint and counters of a schema migration"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Migration found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SchemaMigration.class))),
+        @ApiResponse(responseCode = "404", description = "Migration not found")
+    })
+    @GetMapping("/migrations/{migrationId}")
+    public ResponseEntity<?> getMigration(
+        @Parameter(description = "Migration identifier")
+        @PathVariable String migrationId) {
+        Optional<SchemaMigration> migration = migrationService.getMigration(migrationId);
+        if (migration.isPresent()) {
+            return ResponseEntity.ok(migration.get());
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    @Operation(
+        summary = "Cancel a schema migration",
+        description = "Stops a queued or running migration after its current batch. Documents already migrated keep their changes."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cancellation recorded",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SchemaMigration.class))),
+        @ApiResponse(responseCode = "400", description = "Migration not found")
+    })
+    @DeleteMapping("/migrations/{migrationId}")
+    public ResponseEntity<?> cancelMigration(
+        @Parameter(description = "Migration identifier")
+        @PathVariable String migrationId) {
+        try {
+            return ResponseEntity.ok(migrationService.cancel(migrationId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
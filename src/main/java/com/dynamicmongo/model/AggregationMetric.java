@@ -0,0 +1,33 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A value computed for every group of an aggregation")
+public class AggregationMetric {
+    @Schema(description = "Accumulator", example = "sum", allowableValues = {"count", "sum", "avg", "min", "max"})
+    private String op;
+    
+    @Schema(description = "Data field to accumulate; not used by count", example = "price")
+    private String field;
+    
+    @Schema(description = "Name of the metric in the result rows; defaults to op_field, or count", example = "totalPrice")
+    private String as;
+    
+    public AggregationMetric() {}
+    
+    public AggregationMetric(String op, String field, String as) {
+        this.op = op;
+        this.field = field;
+        this.as = as;
+    }
+    
+    // Getters and Setters
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    
+    public String getField() { return field; }
+    public void setField(String field) { this.field = field; }
+    
+    public String getAs() { return as; }
+    public void setAs(String as) { this.as = as; }
+}
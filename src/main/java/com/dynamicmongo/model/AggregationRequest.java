@@ -0,0 +1,42 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Group-by aggregation over the data fields of a collection")
+public class AggregationRequest {
+    @Schema(description = "Filter applied before grouping; same format as the query endpoint")
+    private QueryFilter filter;
+    
+    @Schema(description = "Schema fields to group by; omit to aggregate the whole collection into one row",
+            example = "[\"category\"]")
+    private List<String> groupBy;
+    
+    @Schema(description = "Values to compute per group")
+    private List<AggregationMetric> metrics;
+    
+    @Schema(description = "Result column and direction to sort by; defaults to the group-by fields ascending",
+            example = "totalPrice,desc")
+    private String sort;
+    
+    @Schema(description = "Maximum number of result rows", example = "100")
+    private Integer limit;
+    
+    public AggregationRequest() {}
+    
+    // Getters and Setters
+    public QueryFilter getFilter() { return filter; }
+    public void setFilter(QueryFilter filter) { this.filter = filter; }
+    
+    public List<String> getGroupBy() { return groupBy; }
+    public void setGroupBy(List<String> groupBy) { this.groupBy = groupBy; }
+    
+    public List<AggregationMetric> getMetrics() { return metrics; }
+    public void setMetrics(List<AggregationMetric> metrics) { this.metrics = metrics; }
+    
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+}
@@ -0,0 +1,91 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk write, with per-row errors for rejected rows")
+public class BulkWriteReport {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Schema(description = "Number of rows received", example = "1000")
+    private long received;
+
+    @Schema(description = "Number of rows inserted", example = "998")
+    private long inserted;
+
+    @Schema(description = "Number of existing documents changed by an upsert", example = "0")
+    private long updated;
+
+    @Schema(description = "Number of upserted rows identical to the existing document", example = "0")
+    private long unchanged;
+
+    @Schema(description = "Number of rows rejected by validation or by MongoDB", example = "2")
+    private long rejected;
+
+    @Schema(description = "Errors for rejected rows, by zero-based row index (capped at " + MAX_REPORTED_ERRORS + ")")
+    private List<RowError> errors = new ArrayList<>();
+
+    @Schema(description = "Whether some row errors were left out of the errors list", example = "false")
+    private boolean errorsTruncated;
+
+    public BulkWriteReport() {}
+
+    public void addReceived(long count) { received += count; }
+    public void addInserted(long count) { inserted += count; }
+    public void addUpdated(long count) { updated += count; }
+    public void addUnchanged(long count) { unchanged += count; }
+
+    public void reject(long index, List<String> messages) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(index, messages));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    // Getters and Setters
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+
+    public long getInserted() { return inserted; }
+    public void setInserted(long inserted) { this.inserted = inserted; }
+
+    public long getUpdated() { return updated; }
+    public void setUpdated(long updated) { this.updated = updated; }
+
+    public long getUnchanged() { return unchanged; }
+    public void setUnchanged(long unchanged) { this.unchanged = unchanged; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    @Schema(description = "Errors for a single rejected row")
+    public static class RowError {
+        @Schema(description = "Zero-based index of the row in the request body", example = "17")
+        private long index;
+
+        @Schema(description = "Reasons the row was rejected", example = "[\"Field 'name' is required\"]")
+        private List<String> messages;
+
+        public RowError() {}
+
+        public RowError(long index, List<String> messages) {
+            this.index = index;
+            this.messages = messages;
+        }
+
+        public long getIndex() { return index; }
+        public void setIndex(long index) { this.index = index; }
+
+        public List<String> getMessages() { return messages; }
+        public void setMessages(List<String> messages) { this.messages = messages; }
+    }
+}
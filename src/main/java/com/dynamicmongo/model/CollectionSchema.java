@@ -21,6 +21,12 @@ public class CollectionSchema {
     @Schema(description = "List of field definitions for the collection", required = true)
     private List<FieldDefinition> fields;
     
+    @Schema(description = "Secondary indexes to maintain on the collection, in addition to primary-key and indexed fields")
+    private List<IndexDefinition> indexes;
+    
+    @Schema(description = "Opt-in read-through cache for this collection's documents")
+    private DocumentCachePolicy cache;
+    
     @CreatedDate
     @Schema(description = "Timestamp when the schema was created", example = "2025-07-22T23:21:01.932")
     private LocalDateTime createdAt;
@@ -49,6 +55,12 @@ public class CollectionSchema {
     public List<FieldDefinition> getFields() { return fields; }
     public void setFields(List<FieldDefinition> fields) { this.fields = fields; }
     
+    public List<IndexDefinition> getIndexes() { return indexes; }
+    public void setIndexes(List<IndexDefinition> indexes) { this.indexes = indexes; }
+    
+    public DocumentCachePolicy getCache() { return cache; }
+    public void setCache(DocumentCachePolicy cache) { this.cache = cache; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,32 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Read-through cache for documents of a collection, meant for small, rarely written reference data")
+public class DocumentCachePolicy {
+    @Schema(description = "Whether reads by id and equality finds are cached", example = "true")
+    private boolean enabled = true;
+    
+    @Schema(description = "Maximum cached documents, counted separately for id lookups and for find results", example = "10000")
+    private long maxSize = 10000;
+    
+    @Schema(description = "Seconds after which a cached entry is reloaded even if no invalidation arrived", example = "60")
+    private long ttlSeconds = 60;
+    
+    public DocumentCachePolicy() {}
+    
+    public DocumentCachePolicy(long maxSize, long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlSeconds = ttlSeconds;
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public long getMaxSize() { return maxSize; }
+    public void setMaxSize(long maxSize) { this.maxSize = maxSize; }
+    
+    public long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
@@ -0,0 +1,56 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Delta describing a document change, pushed to WebSocket subscribers and published to Kafka")
+public class DocumentChange {
+    @Schema(description = "Collection the document belongs to", example = "products")
+    private String collectionName;
+    
+    @Schema(description = "Kind of change", example = "update", allowableValues = {"insert", "update", "replace", "delete"})
+    private String operation;
+    
+    @Schema(description = "Id of the changed document", example = "507f1f77bcf86cd799439011")
+    private String id;
+    
+    @Schema(description = "Data fields that were set, with their new values; all fields for insert and replace",
+            example = "{\"price\": 899.99}")
+    private Map<String, Object> fields;
+    
+    @Schema(description = "Data fields that were removed", example = "[\"description\"]")
+    private List<String> removedFields;
+    
+    @Schema(description = "Version of the document after the change, when known", example = "4")
+    private Long version;
+    
+    public DocumentChange() {}
+    
+    public DocumentChange(String collectionName, String operation, String id) {
+        this.collectionName = collectionName;
+        this.operation = operation;
+        this.id = id;
+        this.fields = Map.of();
+        this.removedFields = List.of();
+    }
+    
+    // Getters and Setters
+    public String getCollectionName() { return collectionName; }
+    public void setCollectionName(String collectionName) { this.collectionName = collectionName; }
+    
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+    
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public Map<String, Object> getFields() { return fields; }
+    public void setFields(Map<String, Object> fields) { this.fields = fields; }
+    
+    public List<String> getRemovedFields() { return removedFields; }
+    public void setRemovedFields(List<String> removedFields) { this.removedFields = removedFields; }
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,27 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Number of documents in a collection, optionally filtered")
+public class DocumentCount {
+    @Schema(description = "Number of matching documents", example = "1250000")
+    private long count;
+    
+    @Schema(description = "True when the count comes from collection metadata rather than a query; " +
+                          "only unfiltered counts are estimated", example = "true")
+    private boolean estimated;
+    
+    public DocumentCount() {}
+    
+    public DocumentCount(long count, boolean estimated) {
+        this.count = count;
+        this.estimated = estimated;
+    }
+    
+    // Getters and Setters
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    
+    public boolean isEstimated() { return estimated; }
+    public void setEstimated(boolean estimated) { this.estimated = estimated; }
+}
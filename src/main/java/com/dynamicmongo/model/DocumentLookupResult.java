@@ -0,0 +1,33 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of looking up one requested id in a multi-get")
+public class DocumentLookupResult {
+    @Schema(description = "Requested document id", example = "507f1f77bcf86cd799439011")
+    private String id;
+
+    @Schema(description = "Whether a document with this id exists", example = "true")
+    private boolean found;
+
+    @Schema(description = "The document; null when not found")
+    private DynamicDocument document;
+
+    public DocumentLookupResult() {}
+
+    public DocumentLookupResult(String id, DynamicDocument document) {
+        this.id = id;
+        this.found = document != null;
+        this.document = document;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public DynamicDocument getDocument() { return document; }
+    public void setDocument(DynamicDocument document) { this.document = document; }
+}
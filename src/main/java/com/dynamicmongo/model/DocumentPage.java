@@ -0,0 +1,49 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "A single page of documents from a keyset-paginated listing")
+public class DocumentPage {
+    @Schema(description = "Documents on this page, in sort order")
+    private List<DynamicDocument> items;
+
+    @Schema(description = "Maximum number of documents requested for this page", example = "100")
+    private int limit;
+
+    @Schema(description = "Sort applied to the listing", example = "price,desc")
+    private String sort;
+
+    @Schema(description = "Opaque token to pass as 'cursor' to fetch the next page; null on the last page",
+            example = "eyJ2IjogOTk5Ljk5LCAiaWQiOiAiNTA3ZjFmNzdiY2Y4NmNkNzk5NDM5MDExIn0")
+    private String nextCursor;
+
+    @Schema(description = "Whether more documents are available after this page", example = "true")
+    private boolean hasMore;
+
+    public DocumentPage() {}
+
+    public DocumentPage(List<DynamicDocument> items, int limit, String sort, String nextCursor) {
+        this.items = items;
+        this.limit = limit;
+        this.sort = sort;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<DynamicDocument> getItems() { return items; }
+    public void setItems(List<DynamicDocument> items) { this.items = items; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
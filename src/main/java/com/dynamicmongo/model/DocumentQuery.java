@@ -0,0 +1,40 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Typed document query with sorting, keyset paging and projection")
+public class DocumentQuery {
+    @Schema(description = "Filter tree; omit to match every document")
+    private QueryFilter filter;
+    
+    @Schema(description = "Sort field and direction; 'id', 'createdAt', 'updatedAt' or a data field", example = "price,desc")
+    private String sort;
+    
+    @Schema(description = "Maximum number of documents per page", example = "100")
+    private Integer limit;
+    
+    @Schema(description = "Opaque cursor returned as nextCursor by the previous page")
+    private String cursor;
+    
+    @Schema(description = "Data fields to return; omit to return whole documents", example = "[\"name\", \"price\"]")
+    private List<String> projection;
+    
+    public DocumentQuery() {}
+    
+    // Getters and Setters
+    public QueryFilter getFilter() { return filter; }
+    public void setFilter(QueryFilter filter) { this.filter = filter; }
+    
+    public String getSort() { return sort; }
+    public void setSort(String sort) { this.sort = sort; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+    
+    public List<String> getProjection() { return projection; }
+    public void setProjection(List<String> projection) { this.projection = projection; }
+}
@@ -28,6 +28,9 @@ public class DynamicDocument {
     @Schema(description = "Timestamp when the document was last updated", example = "2025-07-22T23:21:29.815")
     private LocalDateTime updatedAt;
     
+    @Schema(description = "Incremented on every update; sent as the ETag and checked against If-Match", example = "3")
+    private long version;
+    
     public DynamicDocument() {}
     
     public DynamicDocument(Map<String, Object> data, String collectionName) {
@@ -50,4 +53,7 @@ public class DynamicDocument {
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
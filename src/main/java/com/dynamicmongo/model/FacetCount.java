@@ -0,0 +1,26 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A distinct value of a field and the number of documents that have it")
+public class FacetCount {
+    @Schema(description = "Field value; null counts documents without the field", example = "electronics")
+    private Object value;
+    
+    @Schema(description = "Number of matching documents with this value", example = "42")
+    private long count;
+    
+    public FacetCount() {}
+    
+    public FacetCount(Object value, long count) {
+        this.value = value;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public Object getValue() { return value; }
+    public void setValue(Object value) { this.value = value; }
+    
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
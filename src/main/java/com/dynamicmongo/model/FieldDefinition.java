@@ -20,6 +20,16 @@ public class FieldDefinition {
     @Schema(description = "Whether the field is a primary key", example = "false")
     private boolean primaryKey;
     
+    @Schema(description = "Whether to maintain a single-field index on the field", example = "false")
+    private boolean indexed;
+    
+    @Schema(description = "Whether the field is part of the collection's full-text index; STRING fields only",
+            example = "false")
+    private boolean searchable;
+    
+    @Schema(description = "Relative weight of the field in text search relevance (1-100); defaults to 1", example = "5")
+    private Integer searchWeight;
+    
     @Schema(description = "Default value for the field", example = "default value")
     private Object defaultValue;
     
@@ -59,6 +69,15 @@ public class FieldDefinition {
     public boolean isPrimaryKey() { return primaryKey; }
     public void setPrimaryKey(boolean primaryKey) { this.primaryKey = primaryKey; }
     
+    public boolean isIndexed() { return indexed; }
+    public void setIndexed(boolean indexed) { this.indexed = indexed; }
+    
+    public boolean isSearchable() { return searchable; }
+    public void setSearchable(boolean searchable) { this.searchable = searchable; }
+    
+    public Integer getSearchWeight() { return searchWeight; }
+    public void setSearchWeight(Integer searchWeight) { this.searchWeight = searchWeight; }
+    
     public Object getDefaultValue() { return defaultValue; }
     public void setDefaultValue(Object defaultValue) { this.defaultValue = defaultValue; }
     
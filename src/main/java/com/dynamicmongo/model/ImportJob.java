@@ -0,0 +1,99 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Schema(description = "Progress of an asynchronous file import into a collection")
+public class ImportJob {
+    public enum Status { RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    @Schema(description = "Import job identifier", example = "3f6c1a9e-8a1b-4c55-9d1e-2f0c8f0f6b21")
+    private final String id;
+
+    @Schema(description = "Target collection", example = "products")
+    private final String collectionName;
+
+    @Schema(description = "Name of the uploaded file", example = "products.csv")
+    private final String fileName;
+
+    @Schema(description = "Current job status", example = "RUNNING")
+    private volatile Status status = Status.RUNNING;
+
+    @Schema(description = "Failure or cancellation reason, if any")
+    private volatile String message;
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsAccepted = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final List<BulkWriteReport.RowError> errors = new ArrayList<>();
+    private volatile boolean errorsTruncated;
+
+    @Schema(description = "Timestamp when the import started", example = "2025-07-22T23:21:01.932")
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    @Schema(description = "Timestamp when the import finished", example = "2025-07-22T23:25:44.107")
+    private volatile LocalDateTime finishedAt;
+
+    public ImportJob(String id, String collectionName, String fileName) {
+        this.id = id;
+        this.collectionName = collectionName;
+        this.fileName = fileName;
+    }
+
+    public void incrementRowsRead() { rowsRead.incrementAndGet(); }
+
+    // Folds the outcome of one written batch into the job totals
+    public void record(BulkWriteReport batch) {
+        rowsAccepted.addAndGet(batch.getInserted());
+        rowsRejected.addAndGet(batch.getRejected());
+        synchronized (errors) {
+            for (BulkWriteReport.RowError error : batch.getErrors()) {
+                if (errors.size() < BulkWriteReport.MAX_REPORTED_ERRORS) {
+                    errors.add(error);
+                } else {
+                    errorsTruncated = true;
+                }
+            }
+        }
+        if (batch.isErrorsTruncated()) {
+            errorsTruncated = true;
+        }
+    }
+
+    public void finish(Status status, String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.status = status;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getCollectionName() { return collectionName; }
+    public String getFileName() { return fileName; }
+    public Status getStatus() { return status; }
+    public String getMessage() { return message; }
+
+    @Schema(description = "Data rows parsed from the file so far", example = "250000")
+    public long getRowsRead() { return rowsRead.get(); }
+
+    @Schema(description = "Rows inserted so far", example = "249990")
+    public long getRowsAccepted() { return rowsAccepted.get(); }
+
+    @Schema(description = "Rows rejected so far", example = "10")
+    public long getRowsRejected() { return rowsRejected.get(); }
+
+    @Schema(description = "Errors for rejected rows, by zero-based data row index (capped at "
+            + BulkWriteReport.MAX_REPORTED_ERRORS + ")")
+    public List<BulkWriteReport.RowError> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+}
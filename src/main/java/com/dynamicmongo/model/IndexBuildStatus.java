@@ -0,0 +1,59 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Status of the latest index reconciliation for a collection")
+public class IndexBuildStatus {
+    public enum State { PENDING, BUILDING, READY, FAILED }
+
+    @Schema(description = "Collection the indexes belong to", example = "products")
+    private String collectionName;
+
+    @Schema(description = "Reconciliation state", example = "READY")
+    private volatile State state = State.PENDING;
+
+    @Schema(description = "Failure reason when state is FAILED")
+    private volatile String message;
+
+    @Schema(description = "Schema-managed indexes created by this reconciliation", example = "[\"schema_pk\"]")
+    private final List<String> created = new ArrayList<>();
+
+    @Schema(description = "Schema-managed indexes dropped by this reconciliation", example = "[]")
+    private final List<String> dropped = new ArrayList<>();
+
+    @Schema(description = "Timestamp when the reconciliation was requested", example = "2025-07-22T23:21:01.932")
+    private final LocalDateTime requestedAt = LocalDateTime.now();
+
+    @Schema(description = "Timestamp when the reconciliation finished", example = "2025-07-22T23:21:03.410")
+    private volatile LocalDateTime finishedAt;
+
+    public IndexBuildStatus(String collectionName) {
+        this.collectionName = collectionName;
+    }
+
+    public synchronized void addCreated(String indexName) { created.add(indexName); }
+    public synchronized void addDropped(String indexName) { dropped.add(indexName); }
+
+    public void finish(State state, String message) {
+        this.message = message;
+        this.finishedAt = LocalDateTime.now();
+        this.state = state;
+    }
+
+    // Getters and Setters
+    public String getCollectionName() { return collectionName; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public String getMessage() { return message; }
+
+    public synchronized List<String> getCreated() { return new ArrayList<>(created); }
+    public synchronized List<String> getDropped() { return new ArrayList<>(dropped); }
+
+    public LocalDateTime getRequestedAt() { return requestedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+}
@@ -0,0 +1,36 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Schema(description = "Secondary index declared by a collection schema")
+public class IndexDefinition {
+    @Schema(description = "Index name (defaults to one derived from the keys)", example = "category_price")
+    private String name;
+    
+    @Schema(description = "Indexed data fields in key order, with 1 for ascending or -1 for descending",
+            example = "{\"category\": 1, \"price\": -1}", required = true)
+    private Map<String, Integer> keys = new LinkedHashMap<>();
+    
+    @Schema(description = "Whether the index enforces unique values", example = "false")
+    private boolean unique;
+    
+    public IndexDefinition() {}
+    
+    public IndexDefinition(String name, Map<String, Integer> keys, boolean unique) {
+        this.name = name;
+        this.keys = keys;
+        this.unique = unique;
+    }
+    
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public Map<String, Integer> getKeys() { return keys; }
+    public void setKeys(Map<String, Integer> keys) { this.keys = keys; }
+    
+    public boolean isUnique() { return unique; }
+    public void setUnique(boolean unique) { this.unique = unique; }
+}
@@ -0,0 +1,38 @@
+package com.dynamicmongo.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Document(collection = "outbox_events")
+public class OutboxEvent {
+    @Id
+    private String id;
+
+    private DocumentChange change;
+
+    private LocalDateTime createdAt;
+
+    // Set once the relay has handed the event to Kafka; published events expire through a TTL index
+    private LocalDateTime publishedAt;
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(DocumentChange change) {
+        this.change = change;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public DocumentChange getChange() { return change; }
+    public void setChange(DocumentChange change) { this.change = change; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+}
@@ -0,0 +1,49 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Filter node: either a condition (field, op, value) or a combination of nested nodes (and / or)")
+public class QueryFilter {
+    @Schema(description = "Data field the condition applies to; 'id', 'createdAt' and 'updatedAt' are also accepted",
+            example = "price")
+    private String field;
+    
+    @Schema(description = "Comparison operator", example = "gte",
+            allowableValues = {"eq", "ne", "gt", "gte", "lt", "lte", "in", "exists", "prefix"})
+    private String op;
+    
+    @Schema(description = "Operand, coerced to the schema type of the field; a list for 'in', a boolean for 'exists'",
+            example = "100")
+    private Object value;
+    
+    @Schema(description = "Nodes that must all match")
+    private List<QueryFilter> and;
+    
+    @Schema(description = "Nodes of which at least one must match")
+    private List<QueryFilter> or;
+    
+    public QueryFilter() {}
+    
+    public QueryFilter(String field, String op, Object value) {
+        this.field = field;
+        this.op = op;
+        this.value = value;
+    }
+    
+    // Getters and Setters
+    public String getField() { return field; }
+    public void setField(String field) { this.field = field; }
+    
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+    
+    public Object getValue() { return value; }
+    public void setValue(Object value) { this.value = value; }
+    
+    public List<QueryFilter> getAnd() { return and; }
+    public void setAnd(List<QueryFilter> and) { this.and = and; }
+    
+    public List<QueryFilter> getOr() { return or; }
+    public void setOr(List<QueryFilter> or) { this.or = or; }
+}
@@ -0,0 +1,242 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "schema_migrations")
+@Schema(description = "Background rewrite of existing documents after a schema update")
+public class SchemaMigration {
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Id
+    @Schema(description = "Migration identifier", example = "66a1f0c2e4b0a1b2c3d4e5f6")
+    private String id;
+
+    @Schema(description = "Migrated collection", example = "products")
+    private String collectionName;
+
+    @Schema(description = "Current migration status", example = "RUNNING")
+    private Status status = Status.PENDING;
+
+    @Schema(description = "Failure or cancellation reason, if any")
+    private String message;
+
+    @Schema(description = "Per-field changes applied to each document")
+    private List<Step> steps = new ArrayList<>();
+
+    // Fields of the schema before the update, so a superseding migration can be planned from the original state
+    @Schema(hidden = true)
+    private List<FieldDefinition> previousFields = new ArrayList<>();
+
+    // _id of the last document processed; documents are migrated in ascending _id order
+    @Schema(description = "_id of the last document processed; a resumed migration continues after it")
+    private Object checkpoint;
+
+    @Schema(description = "Estimated number of documents in the collection when the migration was created", example = "250000")
+    private long collectionSize;
+
+    @Schema(description = "Documents examined that needed at least one change", example = "12000")
+    private long documentsScanned;
+
+    @Schema(description = "Documents rewritten", example = "11990")
+    private long documentsUpdated;
+
+    @Schema(description = "Documents skipped because live writes kept changing them", example = "0")
+    private long documentsConflicted;
+
+    @Schema(description = "Values that could not be converted to their new type and were left as they are", example = "10")
+    private long conversionFailures;
+
+    @Schema(description = "Documents missing a required field that has no default", example = "0")
+    private long missingRequired;
+
+    @Schema(description = "Failed conversions and missing required fields by document (capped at " + MAX_REPORTED_ERRORS + ")")
+    private List<MigrationError> errors = new ArrayList<>();
+
+    @Schema(description = "Whether some errors were left out of the errors list", example = "false")
+    private boolean errorsTruncated;
+
+    // Instance running the migration and its last sign of life; a stale heartbeat lets another instance take over
+    @Schema(hidden = true)
+    private String owner;
+
+    @Schema(hidden = true)
+    private LocalDateTime heartbeatAt;
+
+    @Schema(description = "Timestamp when the migration was created", example = "2025-07-22T23:21:01.932")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Timestamp when the migration first started running", example = "2025-07-22T23:21:02.104")
+    private LocalDateTime startedAt;
+
+    @Schema(description = "Timestamp when the migration finished", example = "2025-07-22T23:25:44.107")
+    private LocalDateTime finishedAt;
+
+    public SchemaMigration() {}
+
+    public SchemaMigration(String collectionName, List<Step> steps, List<FieldDefinition> previousFields) {
+        this.collectionName = collectionName;
+        this.steps = steps;
+        this.previousFields = previousFields;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public void addError(Object documentId, String field, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new MigrationError(documentId == null ? null : documentId.toString(), field, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    public void addScanned(long count) { documentsScanned += count; }
+    public void addUpdated(long count) { documentsUpdated += count; }
+    public void addConflicted(long count) { documentsConflicted += count; }
+    public void addConversionFailure() { conversionFailures++; }
+    public void addMissingRequired() { missingRequired++; }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getCollectionName() { return collectionName; }
+    public void setCollectionName(String collectionName) { this.collectionName = collectionName; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public List<Step> getSteps() { return steps; }
+    public void setSteps(List<Step> steps) { this.steps = steps; }
+
+    public List<FieldDefinition> getPreviousFields() { return previousFields; }
+    public void setPreviousFields(List<FieldDefinition> previousFields) { this.previousFields = previousFields; }
+
+    public Object getCheckpoint() { return checkpoint; }
+    public void setCheckpoint(Object checkpoint) { this.checkpoint = checkpoint; }
+
+    public long getCollectionSize() { return collectionSize; }
+    public void setCollectionSize(long collectionSize) { this.collectionSize = collectionSize; }
+
+    public long getDocumentsScanned() { return documentsScanned; }
+    public void setDocumentsScanned(long documentsScanned) { this.documentsScanned = documentsScanned; }
+
+    public long getDocumentsUpdated() { return documentsUpdated; }
+    public void setDocumentsUpdated(long documentsUpdated) { this.documentsUpdated = documentsUpdated; }
+
+    public long getDocumentsConflicted() { return documentsConflicted; }
+    public void setDocumentsConflicted(long documentsConflicted) { this.documentsConflicted = documentsConflicted; }
+
+    public long getConversionFailures() { return conversionFailures; }
+    public void setConversionFailures(long conversionFailures) { this.conversionFailures = conversionFailures; }
+
+    public long getMissingRequired() { return missingRequired; }
+    public void setMissingRequired(long missingRequired) { this.missingRequired = missingRequired; }
+
+    public List<MigrationError> getErrors() { return errors; }
+    public void setErrors(List<MigrationError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getHeartbeatAt() { return heartbeatAt; }
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) { this.heartbeatAt = heartbeatAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    @Schema(description = "One change to a top-level field")
+    public static class Step {
+        public enum Action { CONVERT, DEFAULT, UNSET, REQUIRE }
+
+        @Schema(description = "Field name", example = "price")
+        private String field;
+
+        @Schema(description = "CONVERT values to type, set DEFAULT where missing, UNSET a removed field, " +
+                              "or report documents missing a REQUIREd field", example = "CONVERT")
+        private Action action;
+
+        @Schema(description = "Target type for CONVERT", example = "DOUBLE")
+        private String type;
+
+        @Schema(description = "Value set by DEFAULT", example = "0")
+        private Object value;
+
+        @Schema(description = "Nested field definitions a CONVERT of an OBJECT field applies")
+        private List<FieldDefinition> nestedFields;
+
+        public Step() {}
+
+        public Step(String field, Action action, String type, Object value) {
+            this.field = field;
+            this.action = action;
+            this.type = type;
+            this.value = value;
+        }
+
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+
+        public Action getAction() { return action; }
+        public void setAction(Action action) { this.action = action; }
+
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+
+        public Object getValue() { return value; }
+        public void setValue(Object value) { this.value = value; }
+
+        public List<FieldDefinition> getNestedFields() { return nestedFields; }
+        public void setNestedFields(List<FieldDefinition> nestedFields) { this.nestedFields = nestedFields; }
+    }
+
+    @Schema(description = "A value the migration could not fix")
+    public static class MigrationError {
+        @Schema(description = "Document id", example = "66a1f0c2e4b0a1b2c3d4e5f7")
+        private String documentId;
+
+        @Schema(description = "Field name", example = "price")
+        private String field;
+
+        @Schema(description = "What went wrong", example = "Cannot convert \"n/a\" to DOUBLE")
+        private String message;
+
+        public MigrationError() {}
+
+        public MigrationError(String documentId, String field, String message) {
+            this.documentId = documentId;
+            this.field = field;
+            this.message = message;
+        }
+
+        public String getDocumentId() { return documentId; }
+        public void setDocumentId(String documentId) { this.documentId = documentId; }
+
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
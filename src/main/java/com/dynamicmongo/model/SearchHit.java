@@ -0,0 +1,26 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A document matching a text search, with its relevance")
+public class SearchHit {
+    @Schema(description = "MongoDB text score; higher is more relevant", example = "1.75")
+    private double textScore;
+
+    @Schema(description = "The matching document, limited to the requested projection")
+    private DynamicDocument document;
+
+    public SearchHit() {}
+
+    public SearchHit(double textScore, DynamicDocument document) {
+        this.textScore = textScore;
+        this.document = document;
+    }
+
+    // Getters and Setters
+    public double getTextScore() { return textScore; }
+    public void setTextScore(double textScore) { this.textScore = textScore; }
+
+    public DynamicDocument getDocument() { return document; }
+    public void setDocument(DynamicDocument document) { this.document = document; }
+}
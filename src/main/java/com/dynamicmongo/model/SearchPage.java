@@ -0,0 +1,41 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "A single page of text search results, most relevant first")
+public class SearchPage {
+    @Schema(description = "Matching documents on this page, by descending text score")
+    private List<SearchHit> items;
+
+    @Schema(description = "Maximum number of results requested for this page", example = "20")
+    private int limit;
+
+    @Schema(description = "Opaque token to pass as 'cursor' to fetch the next page; null on the last page")
+    private String nextCursor;
+
+    @Schema(description = "Whether more results are available after this page", example = "true")
+    private boolean hasMore;
+
+    public SearchPage() {}
+
+    public SearchPage(List<SearchHit> items, int limit, String nextCursor) {
+        this.items = items;
+        this.limit = limit;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    // Getters and Setters
+    public List<SearchHit> getItems() { return items; }
+    public void setItems(List<SearchHit> items) { this.items = items; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
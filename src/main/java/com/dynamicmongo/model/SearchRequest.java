@@ -0,0 +1,47 @@
+package com.dynamicmongo.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "Full-text search over the searchable fields of a collection, ranked by relevance")
+public class SearchRequest {
+    @Schema(description = "Words to search for; \"quoted phrases\" must match exactly and -words exclude documents",
+            example = "wireless \"noise cancelling\" -refurbished", required = true)
+    private String text;
+    
+    @Schema(description = "Language for stemming and stop words; defaults to english", example = "english")
+    private String language;
+    
+    @Schema(description = "Additional filter tree; same format as the query endpoint")
+    private QueryFilter filter;
+    
+    @Schema(description = "Maximum number of results per page", example = "20")
+    private Integer limit;
+    
+    @Schema(description = "Opaque cursor returned as nextCursor by the previous page")
+    private String cursor;
+    
+    @Schema(description = "Data fields to return; omit to return whole documents", example = "[\"name\", \"price\"]")
+    private List<String> projection;
+    
+    public SearchRequest() {}
+    
+    // Getters and Setters
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+    
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+    
+    public QueryFilter getFilter() { return filter; }
+    public void setFilter(QueryFilter filter) { this.filter = filter; }
+    
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+    
+    public String getCursor() { return cursor; }
+    public void setCursor(String cursor) { this.cursor = cursor; }
+    
+    public List<String> getProjection() { return projection; }
+    public void setProjection(List<String> projection) { this.projection = projection; }
+}
@@ -0,0 +1,360 @@
+package com.dynamicmongo.repository;
+
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.BsonTypeCodecMap;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.Encoder;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams {@link DynamicDocument} to and from BSON without going through MappingMongoConverter
+ * and without a _class field. The stored layout matches what the converter writes: _id as an
+ * ObjectId when the id is one, data as a sub-document, dates as BSON dates in the system zone
+ * and version as an int64. When built for a schema, top-level data fields are written and read
+ * as their declared type: INTEGER as int32/int64, DOUBLE as double, DATE as a BSON date and
+ * OBJECT with its nested field definitions. Values of other types are left as they are.
+ */
+public class DynamicDocumentCodec implements CollectibleCodec<DynamicDocument> {
+
+    private static final String ID = "_id";
+
+    private final CodecRegistry registry;
+    private final BsonTypeCodecMap bsonTypeCodecs;
+    private final Map<String, Declared> fields;
+
+    public DynamicDocumentCodec(CodecRegistry registry) {
+        this(registry, null);
+    }
+
+    public DynamicDocumentCodec(CodecRegistry registry, List<FieldDefinition> fields) {
+        this.registry = registry;
+        this.bsonTypeCodecs = new BsonTypeCodecMap(new BsonTypeClassMap(), registry);
+        this.fields = byName(fields);
+    }
+
+    @Override
+    public Class<DynamicDocument> getEncoderClass() {
+        return DynamicDocument.class;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, DynamicDocument document, EncoderContext context) {
+        writer.writeStartDocument();
+        if (document.getId() != null) {
+            writer.writeName(ID);
+            writeId(writer, document.getId());
+        }
+        if (document.getData() != null) {
+            writer.writeName("data");
+            writeDocument(writer, document.getData(), fields, context);
+        }
+        if (document.getCollectionName() != null) {
+            writer.writeString("collectionName", document.getCollectionName());
+        }
+        if (document.getCreatedAt() != null) {
+            writer.writeDateTime("createdAt", toMillis(document.getCreatedAt()));
+        }
+        if (document.getUpdatedAt() != null) {
+            writer.writeDateTime("updatedAt", toMillis(document.getUpdatedAt()));
+        }
+        writer.writeInt64("version", document.getVersion());
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public DynamicDocument decode(BsonReader reader, DecoderContext context) {
+        DynamicDocument document = new DynamicDocument();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            switch (name) {
+                case ID:
+                    document.setId(readId(reader, context));
+                    break;
+                case "data":
+                    if (reader.getCurrentBsonType() == BsonType.DOCUMENT) {
+                        document.setData(readDocument(reader, fields, context));
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "collectionName":
+                    document.setCollectionName(reader.getCurrentBsonType() == BsonType.STRING ? reader.readString() : skip(reader));
+                    break;
+                case "createdAt":
+                    document.setCreatedAt(readLocalDateTime(reader));
+                    break;
+                case "updatedAt":
+                    document.setUpdatedAt(readLocalDateTime(reader));
+                    break;
+                case "version":
+                    Object version = readValue(reader, null, context);
+                    document.setVersion(version instanceof Number ? ((Number) version).longValue() : 0L);
+                    break;
+                default:
+                    // _class written by earlier versions, and anything else outside the model
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return document;
+    }
+
+    @Override
+    public DynamicDocument generateIdIfAbsentFromDocument(DynamicDocument document) {
+        if (document.getId() == null) {
+            document.setId(new ObjectId().toHexString());
+        }
+        return document;
+    }
+
+    @Override
+    public boolean documentHasId(DynamicDocument document) {
+        return document.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(DynamicDocument document) {
+        if (document.getId() == null) {
+            throw new IllegalStateException("The document does not contain an _id");
+        }
+        return ObjectId.isValid(document.getId())
+                ? new BsonObjectId(new ObjectId(document.getId()))
+                : new BsonString(document.getId());
+    }
+
+    private void writeDocument(BsonWriter writer, Map<?, ?> map, Map<String, Declared> definitions,
+                               EncoderContext context) {
+        writer.writeStartDocument();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            String name = String.valueOf(entry.getKey());
+            writer.writeName(name);
+            writeValue(writer, entry.getValue(), definitions == null ? null : definitions.get(name), context);
+        }
+        writer.writeEndDocument();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void writeValue(BsonWriter writer, Object value, Declared definition, EncoderContext context) {
+        if (value == null) {
+            writer.writeNull();
+            return;
+        }
+        if (definition != null && writeDeclared(writer, value, definition, context)) {
+            return;
+        }
+        if (value instanceof String) {
+            writer.writeString((String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writer.writeInt32(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            writer.writeInt64((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            writer.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            writer.writeBoolean((Boolean) value);
+        } else if (value instanceof BigDecimal) {
+            writer.writeDecimal128(new Decimal128((BigDecimal) value));
+        } else if (value instanceof BigInteger) {
+            BigInteger integer = (BigInteger) value;
+            if (integer.bitLength() < 64) {
+                writer.writeInt64(integer.longValue());
+            } else {
+                writer.writeDecimal128(new Decimal128(new BigDecimal(integer)));
+            }
+        } else if (value instanceof Map) {
+            writeDocument(writer, (Map<?, ?>) value, null, context);
+        } else if (value instanceof Collection) {
+            writer.writeStartArray();
+            for (Object element : (Collection<?>) value) {
+                writeValue(writer, element, null, context);
+            }
+            writer.writeEndArray();
+        } else if (value instanceof Date) {
+            writer.writeDateTime(((Date) value).getTime());
+        } else if (value instanceof Instant) {
+            writer.writeDateTime(((Instant) value).toEpochMilli());
+        } else if (value instanceof LocalDateTime) {
+            writer.writeDateTime(toMillis((LocalDateTime) value));
+        } else if (value instanceof LocalDate) {
+            writer.writeDateTime(toMillis(((LocalDate) value).atStartOfDay()));
+        } else if (value instanceof ObjectId) {
+            writer.writeObjectId((ObjectId) value);
+        } else {
+            Encoder encoder = registry.get(value.getClass());
+            context.encodeWithChildContext(encoder, writer, value);
+        }
+    }
+
+    // Writes the value as its declared type; returns false if it cannot be represented that way
+    private boolean writeDeclared(BsonWriter writer, Object value, Declared definition, EncoderContext context) {
+        switch (definition.type()) {
+            case "INTEGER":
+                if (value instanceof Number && isIntegral((Number) value)) {
+                    long number = ((Number) value).longValue();
+                    if (number == (int) number) {
+                        writer.writeInt32((int) number);
+                    } else {
+                        writer.writeInt64(number);
+                    }
+                    return true;
+                }
+                return false;
+            case "DOUBLE":
+                if (value instanceof Number) {
+                    writer.writeDouble(((Number) value).doubleValue());
+                    return true;
+                }
+                return false;
+            case "OBJECT":
+                if (value instanceof Map && definition.nested() != null) {
+                    writeDocument(writer, (Map<?, ?>) value, definition.nested(), context);
+                    return true;
+                }
+                return false;
+            default:
+                // DATE values are already written as BSON dates when they are temporal
+                return false;
+        }
+    }
+
+    private Map<String, Object> readDocument(BsonReader reader, Map<String, Declared> definitions,
+                                             DecoderContext context) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+            map.put(name, readValue(reader, definitions == null ? null : definitions.get(name), context));
+        }
+        reader.readEndDocument();
+        return map;
+    }
+
+    private Object readValue(BsonReader reader, Declared definition, DecoderContext context) {
+        String type = definition == null ? "" : definition.type();
+        switch (reader.getCurrentBsonType()) {
+            case NULL:
+                reader.readNull();
+                return null;
+            case STRING:
+                return reader.readString();
+            case INT32:
+                int int32 = reader.readInt32();
+                return type.equals("DOUBLE") ? (Object) (double) int32 : (Object) int32;
+            case INT64:
+                long int64 = reader.readInt64();
+                return type.equals("DOUBLE") ? (Object) (double) int64 : (Object) int64;
+            case DOUBLE:
+                double number = reader.readDouble();
+                if (type.equals("INTEGER") && number == Math.rint(number) && !Double.isInfinite(number)) {
+                    long integral = (long) number;
+                    return integral == (int) integral ? (Object) (int) integral : (Object) integral;
+                }
+                return number;
+            case DECIMAL128:
+                BigDecimal decimal = reader.readDecimal128().bigDecimalValue();
+                return type.equals("DOUBLE") ? (Object) decimal.doubleValue() : decimal;
+            case BOOLEAN:
+                return reader.readBoolean();
+            case DATE_TIME:
+                return new Date(reader.readDateTime());
+            case OBJECT_ID:
+                return reader.readObjectId();
+            case DOCUMENT:
+                return readDocument(reader, definition == null ? null : definition.nested(), context);
+            case ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.readStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    list.add(readValue(reader, null, context));
+                }
+                reader.readEndArray();
+                return list;
+            default:
+                return bsonTypeCodecs.get(reader.getCurrentBsonType()).decode(reader, context);
+        }
+    }
+
+    private String readId(BsonReader reader, DecoderContext context) {
+        if (reader.getCurrentBsonType() == BsonType.OBJECT_ID) {
+            return reader.readObjectId().toHexString();
+        }
+        Object id = readValue(reader, null, context);
+        return id == null ? null : id.toString();
+    }
+
+    private static LocalDateTime readLocalDateTime(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DATE_TIME) {
+            reader.skipValue();
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(reader.readDateTime()), ZoneId.systemDefault());
+    }
+
+    private static String skip(BsonReader reader) {
+        reader.skipValue();
+        return null;
+    }
+
+    private static void writeId(BsonWriter writer, String id) {
+        if (ObjectId.isValid(id)) {
+            writer.writeObjectId(new ObjectId(id));
+        } else {
+            writer.writeString(id);
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof Double || number instanceof Float) {
+            double value = number.doubleValue();
+            return value == Math.rint(value) && !Double.isInfinite(value)
+                    && value >= Long.MIN_VALUE && value <= Long.MAX_VALUE;
+        }
+        return !(number instanceof BigDecimal) && !(number instanceof BigInteger && ((BigInteger) number).bitLength() >= 64);
+    }
+
+    private static Map<String, Declared> byName(List<FieldDefinition> definitions) {
+        if (definitions == null || definitions.isEmpty()) {
+            return null;
+        }
+        Map<String, Declared> byName = new HashMap<>();
+        for (FieldDefinition field : definitions) {
+            String type = field.getType() == null ? "" : field.getType().toUpperCase();
+            byName.put(field.getName(), new Declared(type, type.equals("OBJECT") ? byName(field.getNestedFields()) : null));
+        }
+        return byName;
+    }
+
+    // A field definition resolved once when the codec is built
+    private record Declared(String type, Map<String, Declared> nested) {
+    }
+}
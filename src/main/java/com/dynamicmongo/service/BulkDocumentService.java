@@ -0,0 +1,425 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.BulkWriteReport;
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class BulkDocumentService {
+
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private DataValidationService validationService;
+
+    @Autowired
+    private FieldTypeCoercer coercer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${bulk.batch-size:1000}")
+    private int defaultBatchSize;
+
+    @Value("${bulk.fail-fast-validation:false}")
+    private boolean failFastValidation;
+
+    public BulkWriteReport insertStream(String collectionName, InputStream body, Integer batchSize) throws IOException {
+        return writeStream(collectionName, body, batchSize, this::insertBatch);
+    }
+
+    public BulkWriteReport upsertStream(String collectionName, InputStream body, Integer batchSize) throws IOException {
+        CollectionSchema schema = requireSchema(collectionName);
+        if (!schema.hasPrimaryKeys()) {
+            throw new IllegalArgumentException("Collection has no primary key fields to upsert on: " + collectionName);
+        }
+        return writeStream(collectionName, body, batchSize, this::upsertBatch);
+    }
+
+    // Reads a JSON array or NDJSON stream row by row, so only one batch is held in memory at a time
+    private BulkWriteReport writeStream(String collectionName, InputStream body, Integer batchSize,
+                                        BatchWriter writer) throws IOException {
+        CollectionSchema schema = requireSchema(collectionName);
+        int size = resolveBatchSize(batchSize);
+
+        BulkWriteReport report = new BulkWriteReport();
+        ObjectReader reader = objectMapper.readerForMapOf(Object.class);
+        List<Map<String, Object>> batch = new ArrayList<>(size);
+        long index = 0;
+
+        MappingIterator<Map<String, Object>> rows;
+        try {
+            rows = reader.readValues(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Request body is not a JSON array or NDJSON stream: " + e.getMessage());
+        }
+
+        try (rows) {
+            while (true) {
+                Map<String, Object> row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (IOException e) {
+                    report.addReceived(1);
+                    report.reject(index, List.of("Malformed row, remaining input skipped: " + e.getMessage()));
+                    break;
+                }
+
+                batch.add(row);
+                index++;
+                if (batch.size() == size) {
+                    writer.write(collectionName, schema, batch, index - batch.size(), report);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            writer.write(collectionName, schema, batch, index - batch.size(), report);
+        }
+        return report;
+    }
+
+    // Validates every row once and writes the valid ones in a single unordered bulk insert
+    public void insertBatch(String collectionName, CollectionSchema schema, List<Map<String, Object>> rows,
+                            long firstIndex, BulkWriteReport report) {
+        report.addReceived(rows.size());
+
+        List<DynamicDocument> documents = new ArrayList<>(rows.size());
+        List<Long> documentIndexes = new ArrayList<>(rows.size());
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> data = rows.get(i);
+            if (data == null) {
+                report.reject(firstIndex + i, List.of("Row must be a JSON object"));
+                continue;
+            }
+
+            List<String> validationErrors = validationService.validateDocument(data, schema, failFastValidation);
+            if (!validationErrors.isEmpty()) {
+                report.reject(firstIndex + i, validationErrors);
+                continue;
+            }
+
+            crudService.applyDefaultValues(data, schema.getFields());
+            DynamicDocument document = new DynamicDocument(coercer.normalize(data, schema.getFields()), collectionName);
+            // Assigned here so the outbox events can name the inserted documents
+            document.setId(new ObjectId().toHexString());
+            document.setCreatedAt(now);
+            document.setUpdatedAt(now);
+            documents.add(document);
+            documentIndexes.add(firstIndex + i);
+        }
+
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeInserts(collectionName, documents, documentIndexes, report);
+        } finally {
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionName));
+        }
+    }
+
+    /**
+     * Inserts the documents and records one outbox event per inserted document, with a single
+     * outbox write for the batch. In an outbox transaction a failed row rolls back the whole
+     * batch, so the batch is retried without the rows that failed.
+     */
+    private void writeInserts(String collectionName, List<DynamicDocument> documents, List<Long> documentIndexes,
+                              BulkWriteReport report) {
+        List<DynamicDocument> pending = documents;
+        List<Long> pendingIndexes = documentIndexes;
+        while (!pending.isEmpty()) {
+            List<DynamicDocument> attempt = pending;
+            try {
+                int inserted = outboxService.write(() -> {
+                    BulkOperations operations = mongoTemplate.bulkOps(
+                            BulkOperations.BulkMode.UNORDERED, DynamicDocument.class, collectionName);
+                    operations.insert(attempt);
+                    int count = operations.execute().getInsertedCount();
+                    outboxService.recordAll(insertChanges(collectionName, attempt));
+                    return count;
+                });
+                report.addInserted(inserted);
+                return;
+            } catch (BulkOperationException e) {
+                Set<Integer> failed = new HashSet<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    failed.add(error.getIndex());
+                    report.reject(pendingIndexes.get(error.getIndex()), List.of(error.getMessage()));
+                }
+                List<DynamicDocument> remaining = new ArrayList<>(pending.size());
+                List<Long> remainingIndexes = new ArrayList<>(pending.size());
+                for (int i = 0; i < pending.size(); i++) {
+                    if (!failed.contains(i)) {
+                        remaining.add(pending.get(i));
+                        remainingIndexes.add(pendingIndexes.get(i));
+                    }
+                }
+                if (!outboxService.isTransactional()) {
+                    // Unordered: every row that did not fail was inserted
+                    report.addInserted(e.getResult().getInsertedCount());
+                    outboxService.recordAll(insertChanges(collectionName, remaining));
+                    return;
+                }
+                if (failed.isEmpty()) {
+                    throw e;
+                }
+                pending = remaining;
+                pendingIndexes = remainingIndexes;
+            }
+        }
+    }
+
+    private List<DocumentChange> insertChanges(String collectionName, List<DynamicDocument> documents) {
+        if (!outboxService.isEnabled()) {
+            return List.of();
+        }
+        List<DocumentChange> changes = new ArrayList<>(documents.size());
+        for (DynamicDocument document : documents) {
+            DocumentChange change = new DocumentChange(collectionName, "insert", document.getId());
+            change.setFields(document.getData());
+            change.setVersion(document.getVersion());
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    /**
+     * Upserts every valid row keyed on the schema's primary-key fields, in one unordered bulk
+     * write. Each row becomes two operations: an update that $sets the payload fields only when
+     * at least one of them differs from the stored document, and an upsert that writes the
+     * document with $setOnInsert when no document with that key exists. Whichever order the server runs
+     * them in, a row is either inserted, updated or left unchanged.
+     */
+    public void upsertBatch(String collectionName, CollectionSchema schema, List<Map<String, Object>> rows,
+                            long firstIndex, BulkWriteReport report) {
+        report.addReceived(rows.size());
+
+        List<FieldDefinition> primaryKeys = schema.getPrimaryKeyFields();
+        List<UpsertRow> upserts = new ArrayList<>(rows.size());
+        // Stored with millisecond precision; the outbox read-back finds this batch's writes by it
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> data = rows.get(i);
+            if (data == null) {
+                report.reject(firstIndex + i, List.of("Row must be a JSON object"));
+                continue;
+            }
+
+            List<String> validationErrors = validationService.validateDocument(data, schema, failFastValidation);
+            for (FieldDefinition key : primaryKeys) {
+                if (data.get(key.getName()) == null) {
+                    validationErrors = new ArrayList<>(validationErrors);
+                    validationErrors.add("Primary key field '" + key.getName() + "' is required for upsert");
+                }
+            }
+            if (!validationErrors.isEmpty()) {
+                report.reject(firstIndex + i, validationErrors);
+                continue;
+            }
+            // Stored values are canonical, so compare and write the canonical form
+            data = coercer.normalize(data, schema.getFields());
+
+            Criteria byKey = new Criteria();
+            for (FieldDefinition key : primaryKeys) {
+                byKey = byKey.and("data." + key.getName()).is(data.get(key.getName()));
+            }
+
+            List<Criteria> unchanged = new ArrayList<>(data.size());
+            Update update = new Update();
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                unchanged.add(sameValue("data." + entry.getKey(), entry.getValue()));
+                update.set("data." + entry.getKey(), entry.getValue());
+            }
+            update.set("updatedAt", now);
+            update.inc("version", 1);
+            Criteria changed = new Criteria().andOperator(
+                    byKey, new Criteria().norOperator(new Criteria().andOperator(unchanged.toArray(new Criteria[0]))));
+
+            Map<String, Object> inserted = new LinkedHashMap<>(data);
+            crudService.applyDefaultValues(inserted, schema.getFields());
+            Update insert = new Update()
+                    .setOnInsert("collectionName", collectionName)
+                    .setOnInsert("createdAt", now)
+                    .setOnInsert("updatedAt", now)
+                    .setOnInsert("version", 0L);
+            inserted.forEach((field, value) -> insert.setOnInsert("data." + field, value));
+
+            upserts.add(new UpsertRow(firstIndex + i, byKey, Query.query(changed), update, insert));
+        }
+
+        if (upserts.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeUpserts(collectionName, upserts, now, report);
+        } finally {
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionName));
+        }
+    }
+
+    // Like writeInserts: an outbox transaction that fails on some rows is retried without them
+    private void writeUpserts(String collectionName, List<UpsertRow> upserts, LocalDateTime now,
+                              BulkWriteReport report) {
+        List<UpsertRow> pending = upserts;
+        int failedCount = 0;
+        while (!pending.isEmpty()) {
+            List<UpsertRow> attempt = pending;
+            BulkWriteResult result;
+            try {
+                result = outboxService.write(() -> {
+                    BulkWriteResult written = upsertOperations(collectionName, attempt).execute();
+                    outboxService.recordAll(upsertChanges(collectionName, attempt, now));
+                    return written;
+                });
+            } catch (BulkOperationException e) {
+                Set<Integer> failed = new HashSet<>();
+                for (BulkWriteError error : e.getErrors()) {
+                    UpsertRow row = attempt.get(error.getIndex() / 2);
+                    if (failed.add(error.getIndex() / 2)) {
+                        report.reject(row.index(), List.of(error.getMessage()));
+                    }
+                }
+                failedCount += failed.size();
+                List<UpsertRow> remaining = new ArrayList<>(attempt.size());
+                for (int i = 0; i < attempt.size(); i++) {
+                    if (!failed.contains(i)) {
+                        remaining.add(attempt.get(i));
+                    }
+                }
+                if (outboxService.isTransactional()) {
+                    if (failed.isEmpty()) {
+                        throw e;
+                    }
+                    pending = remaining;
+                    continue;
+                }
+                result = e.getResult();
+                outboxService.recordAll(upsertChanges(collectionName, remaining, now));
+            }
+            int insertedCount = result.getUpserts().size();
+            int updatedCount = result.getModifiedCount();
+            report.addInserted(insertedCount);
+            report.addUpdated(updatedCount);
+            report.addUnchanged(Math.max(0, upserts.size() - failedCount - insertedCount - updatedCount));
+            return;
+        }
+    }
+
+    private BulkOperations upsertOperations(String collectionName, List<UpsertRow> rows) {
+        BulkOperations operations = mongoTemplate.bulkOps(
+                BulkOperations.BulkMode.UNORDERED, DynamicDocument.class, collectionName);
+        for (UpsertRow row : rows) {
+            operations.updateOne(row.changed(), row.update());
+            operations.upsert(Query.query(row.byKey()), row.insert());
+        }
+        return operations;
+    }
+
+    /**
+     * The bulk result only counts updates, so the documents this batch wrote are read back by key
+     * and by the batch's updatedAt. Each becomes an insert or update event carrying its stored data.
+     */
+    private List<DocumentChange> upsertChanges(String collectionName, List<UpsertRow> rows, LocalDateTime now) {
+        if (!outboxService.isEnabled() || rows.isEmpty()) {
+            return List.of();
+        }
+        Criteria anyKey = new Criteria().orOperator(rows.stream().map(UpsertRow::byKey).toArray(Criteria[]::new));
+        Query written = Query.query(new Criteria().andOperator(Criteria.where("updatedAt").is(now), anyKey));
+        List<DocumentChange> changes = new ArrayList<>();
+        for (DynamicDocument document : mongoTemplate.find(written, DynamicDocument.class, collectionName)) {
+            String operation = now.equals(document.getCreatedAt()) ? "insert" : "update";
+            DocumentChange change = new DocumentChange(collectionName, operation, document.getId());
+            change.setFields(document.getData());
+            change.setVersion(document.getVersion());
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    // Exact match of a stored field: scalars must not match inside arrays and null must not match a missing field
+    private static Criteria sameValue(String path, Object value) {
+        if (value == null) {
+            return Criteria.where(path).type(JsonSchemaObject.Type.NULL);
+        }
+        if (value instanceof Map || value instanceof Collection) {
+            return Criteria.where(path).is(value);
+        }
+        return new Criteria().andOperator(
+                Criteria.where(path).is(value), Criteria.where(path).not().type(JsonSchemaObject.Type.ARRAY));
+    }
+
+    // The two operations of one upsert row, kept so a rolled-back batch can be rebuilt without failed rows
+    private record UpsertRow(long index, Criteria byKey, Query changed, Update update, Update insert) {
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(String collectionName, CollectionSchema schema, List<Map<String, Object>> rows,
+                   long firstIndex, BulkWriteReport report);
+    }
+
+    public CollectionSchema requireSchema(String collectionName) {
+        return crudService.getSchema(collectionName)
+                .orElseThrow(() -> new IllegalArgumentException("Collection schema not found: " + collectionName));
+    }
+
+    public int resolveBatchSize(Integer batchSize) {
+        int size = batchSize == null ? defaultBatchSize : batchSize;
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        return size;
+    }
+}
@@ -0,0 +1,20 @@
+package com.dynamicmongo.service;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Delivers document changes made by any instance to {@link DocumentCacheService}, so caches on
+ * every replica drop what another replica wrote. Implementations only need to be at-least-once:
+ * an invalidation for a document that is not cached is harmless.
+ */
+public interface CacheInvalidationChannel {
+
+    // Replaces the watched collections; an empty set stops delivery
+    void watch(Set<String> collectionNames, Listener listener);
+
+    interface Listener {
+        // documentId is null when the whole collection may have changed; writtenAt is null when unknown
+        void changed(String collectionName, String documentId, Instant writtenAt);
+    }
+}
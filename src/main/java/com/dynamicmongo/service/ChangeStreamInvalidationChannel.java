@@ -0,0 +1,189 @@
+package com.dynamicmongo.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheInvalidationChannel} backed by a single database-level change stream filtered to
+ * the watched collections. MongoDB is the broadcast medium, so writes need no extra publishing
+ * and every instance sees every write, its own included. Events are projected down to their
+ * key and timestamps. Whenever the stream starts without a resume token, events may have been
+ * missed and every watched collection is reported as changed. Change streams need a replica
+ * set; without one the stream keeps retrying and caches rely on their TTL.
+ */
+@Component
+public class ChangeStreamInvalidationChannel implements CacheInvalidationChannel {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamInvalidationChannel.class);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private volatile Set<String> collectionNames = Set.of();
+    private volatile Listener listener;
+    // Bumped on every watch() so the running stream reopens with the new filter
+    private volatile long revision;
+    private volatile boolean closed;
+    private boolean started;
+    private ExecutorService executor;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${document-cache.change-stream.enabled:true}")
+    private boolean enabled;
+
+    @Value("${document-cache.change-stream.retry-delay:5s}")
+    private Duration retryDelay;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("cache-invalidation-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public synchronized void watch(Set<String> collectionNames, Listener listener) {
+        if (!enabled) {
+            return;
+        }
+        this.listener = listener;
+        this.collectionNames = Set.copyOf(collectionNames);
+        revision++;
+        if (!started && !collectionNames.isEmpty()) {
+            started = true;
+            executor.execute(this::run);
+        }
+    }
+
+    private void run() {
+        BsonDocument resumeToken = null;
+        while (!closed) {
+            long watchedRevision = revision;
+            Set<String> names = collectionNames;
+            if (names.isEmpty()) {
+                // Nothing is cached: drop the position so the next stream starts with a full reset
+                resumeToken = null;
+                if (!pause(Duration.ofSeconds(1))) {
+                    return;
+                }
+                continue;
+            }
+            ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                    .watch(pipeline(names))
+                    .maxAwaitTime(1, TimeUnit.SECONDS);
+            if (resumeToken != null) {
+                stream = stream.resumeAfter(resumeToken);
+            }
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                if (resumeToken == null) {
+                    names.forEach(name -> listener.changed(name, null, null));
+                }
+                while (!closed && revision == watchedRevision) {
+                    ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event == null) {
+                        // Post-batch token: resuming from here skips nothing we have not seen
+                        resumeToken = cursor.getResumeToken() != null ? cursor.getResumeToken() : resumeToken;
+                        continue;
+                    }
+                    resumeToken = event.getResumeToken();
+                    if (!deliver(names, event)) {
+                        resumeToken = null;
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                if (closed) {
+                    return;
+                }
+                if (e instanceof MongoCommandException && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    resumeToken = null;
+                }
+                log.warn("Cache invalidation stream failed, retrying in {}: {}", retryDelay, e.getMessage());
+                if (!pause(retryDelay)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Returns false when the stream was invalidated and must be reopened without a resume token
+    private boolean deliver(Set<String> names, ChangeStreamDocument<Document> event) {
+        Instant writtenAt = event.getWallTime() != null
+                ? Instant.ofEpochMilli(event.getWallTime().getValue())
+                : event.getClusterTime() != null ? Instant.ofEpochSecond(event.getClusterTime().getTime()) : null;
+        String collectionName = event.getNamespace() == null ? null : event.getNamespace().getCollectionName();
+        switch (event.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+            case DELETE:
+                listener.changed(collectionName, documentId(event.getDocumentKey()), writtenAt);
+                return true;
+            case DROP:
+            case RENAME:
+                listener.changed(collectionName, null, writtenAt);
+                return true;
+            case INVALIDATE:
+                names.forEach(name -> listener.changed(name, null, writtenAt));
+                return false;
+            default:
+                // dropDatabase is followed by invalidate
+                return true;
+        }
+    }
+
+    private static List<Bson> pipeline(Set<String> names) {
+        return List.of(
+                Aggregates.match(Filters.or(
+                        Filters.in("ns.coll", names),
+                        Filters.in("operationType", "dropDatabase", "invalidate"))),
+                Aggregates.project(Projections.exclude("fullDocument", "fullDocumentBeforeChange", "updateDescription")));
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        BsonValue key = documentKey == null ? null : documentKey.get("_id");
+        return key == null ? null
+                : key.isObjectId() ? key.asObjectId().getValue().toHexString()
+                : key.isString() ? key.asString().getValue()
+                : key.toString();
+    }
+
+    private static boolean pause(Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dynamicmongo.service;
+
+/**
+ * Published after documents of a collection were written or the collection was dropped.
+ * Listeners use it to invalidate anything derived from the collection's contents. The
+ * document id is set when exactly one document changed and null otherwise.
+ */
+public class CollectionChangedEvent {
+
+    private final String collectionName;
+    private final String documentId;
+
+    public CollectionChangedEvent(String collectionName) {
+        this(collectionName, null);
+    }
+
+    public CollectionChangedEvent(String collectionName, String documentId) {
+        this.collectionName = collectionName;
+        this.documentId = documentId;
+    }
+
+    public String getCollectionName() { return collectionName; }
+
+    public String getDocumentId() { return documentId; }
+}
@@ -0,0 +1,113 @@
+package com.dynamicmongo.service;
+
+import com.mongodb.MongoClientSettings;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-collection meters for the CRUD path. Collection names come from request paths, so only
+ * collections with a schema can get their own tag value, and only the first
+ * {@code metrics.max-collection-tags} of them; unknown names and every later collection are
+ * reported as {@value #OTHER_COLLECTION}. {@link CollectionSchemaCache} registers a collection
+ * when it loads its schema, which every CRUD request does first, so tagging never queries MongoDB
+ * and this bean needs nothing from the MongoDB side (MongoCommandMetrics depends on it).
+ */
+@Component
+public class CollectionMetrics {
+
+    public static final String OTHER_COLLECTION = "other";
+
+    private static final Codec<Document> DOCUMENT_CODEC = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    private final Set<String> taggedCollections = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${metrics.max-collection-tags:50}")
+    private int maxCollectionTags;
+
+    // Share of writes whose data is encoded a second time to record its size
+    @Value("${metrics.document-size-sample-rate:0.01}")
+    private double documentSizeSampleRate;
+
+    // Gives a collection whose schema was found its own tag value, while slots are left
+    public void registerCollection(String collectionName) {
+        if (taggedCollections.contains(collectionName) || taggedCollections.size() >= maxCollectionTags) {
+            return;
+        }
+        synchronized (taggedCollections) {
+            if (taggedCollections.size() < maxCollectionTags) {
+                taggedCollections.add(collectionName);
+            }
+        }
+    }
+
+    public String collectionTag(String collectionName) {
+        return collectionName != null && taggedCollections.contains(collectionName) ? collectionName : OTHER_COLLECTION;
+    }
+
+    public void recordOperation(String collectionName, String operation, boolean success, long elapsedNanos) {
+        Timer.builder("crud.operation")
+                .description("Latency of document operations")
+                .tag("collection", collectionTag(collectionName))
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Times one phase of an operation: schema_lookup, validation, mongo_read or mongo_write
+    public <T> T phase(String collectionName, String phase, Supplier<T> work) {
+        Timer timer = Timer.builder("crud.phase")
+                .description("Latency of each phase of a document operation")
+                .tag("collection", collectionTag(collectionName))
+                .tag("phase", phase)
+                .register(meterRegistry);
+        return timer.record(work);
+    }
+
+    public void resultCount(String collectionName, String operation, int count) {
+        DistributionSummary.builder("crud.result.count")
+                .description("Documents returned per read")
+                .tag("collection", collectionTag(collectionName))
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(count);
+    }
+
+    // Records the BSON size of the document data written, for a sample of the writes
+    public void documentSize(String collectionName, Map<String, Object> data) {
+        if (data == null || ThreadLocalRandom.current().nextDouble() >= documentSizeSampleRate) {
+            return;
+        }
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            DOCUMENT_CODEC.encode(writer, new Document(data), EncoderContext.builder().build());
+        } catch (RuntimeException e) {
+            // Values without a default codec are not measured
+            return;
+        }
+        DistributionSummary.builder("crud.document.size")
+                .description("BSON size of written document data")
+                .baseUnit("bytes")
+                .tag("collection", collectionTag(collectionName))
+                .register(meterRegistry)
+                .record(buffer.getPosition());
+    }
+}
@@ -0,0 +1,37 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.repository.CollectionSchemaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import java.util.Optional;
+
+// Separate bean so the cache proxy also applies to lookups made from inside DynamicCrudService.
+// Cached instances are shared: callers must not mutate them.
+@Component
+public class CollectionSchemaCache {
+
+    public static final String CACHE_NAME = "schemas";
+
+    @Autowired
+    private CollectionSchemaRepository schemaRepository;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    @Cacheable(cacheNames = CACHE_NAME, key = "#collectionName", unless = "#result == null")
+    public Optional<CollectionSchema> find(String collectionName) {
+        Optional<CollectionSchema> schema = schemaRepository.findByCollectionName(collectionName);
+        if (schema.isPresent()) {
+            collectionMetrics.registerCollection(collectionName);
+        }
+        return schema;
+    }
+
+    @CacheEvict(cacheNames = CACHE_NAME, key = "#collectionName")
+    public void evict(String collectionName) {
+        // eviction is performed by the cache interceptor
+    }
+}
@@ -0,0 +1,141 @@
+package com.dynamicmongo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a modification counter per collection in {@value #COLLECTION}, incremented after every
+ * {@link CollectionChangedEvent}, and derives entity tags for list responses from it. The counter
+ * is read before the query runs, so a tag never claims to be newer than the data it came with.
+ * Reads are cached for etag.version-cache-ttl; local writes invalidate the cache immediately,
+ * writes made by other instances are seen once the entry expires. The increment is stored before
+ * the write returns and the cached counter is dropped only after it, so a list read that follows
+ * the write never gets the previous tag. A failed increment does not fail a write that already
+ * happened: it is retried in the background every etag.version-retry-delay until it is stored.
+ */
+@Service
+public class CollectionVersionService {
+
+    public static final String COLLECTION = "collection_versions";
+
+    private static final Logger log = LoggerFactory.getLogger(CollectionVersionService.class);
+
+    // Collections with a failed increment waiting for its retry; further failures until it runs share it
+    private final Set<String> pendingRetries = ConcurrentHashMap.newKeySet();
+    private LoadingCache<String, Long> versions;
+    private ObjectWriter requestWriter;
+    private ScheduledExecutorService retryExecutor;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${etag.version-cache-ttl:1s}")
+    private Duration versionCacheTtl;
+
+    @Value("${etag.version-retry-delay:1s}")
+    private Duration retryDelay;
+
+    @PostConstruct
+    void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(versionCacheTtl)
+                .build(this::load);
+        requestWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("collection-version-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        retryExecutor.shutdownNow();
+    }
+
+    public long currentVersion(String collectionName) {
+        return versions.get(collectionName);
+    }
+
+    // Weak tag for a list response: the collection's counter plus a digest of everything that shapes the result.
+    // Weak because the bytes differ per negotiated format and compression, and Tomcat only gzips weak-tagged responses
+    public String listTag(String collectionName, Object request) {
+        long version = currentVersion(collectionName);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(collectionName.getBytes(StandardCharsets.UTF_8));
+            digest.update(requestWriter.writeValueAsBytes(request));
+            return "W/\"" + version + "-" + HexFormat.of().formatHex(digest.digest(), 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        String collectionName = event.getCollectionName();
+        if (!increment(collectionName)) {
+            scheduleRetry(collectionName);
+        }
+    }
+
+    // Stores the increment, then drops the cached counter so the next tag is read after it
+    private boolean increment(String collectionName) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(collectionName)),
+                    new Update().inc("version", 1L), COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Could not increment the version counter of {}, retrying in {}: {}",
+                    collectionName, retryDelay, e.getMessage());
+            return false;
+        }
+        versions.invalidate(collectionName);
+        return true;
+    }
+
+    private void scheduleRetry(String collectionName) {
+        if (!retryExecutor.isShutdown() && pendingRetries.add(collectionName)) {
+            retryExecutor.schedule(() -> retry(collectionName), retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void retry(String collectionName) {
+        pendingRetries.remove(collectionName);
+        if (!increment(collectionName)) {
+            scheduleRetry(collectionName);
+        }
+    }
+
+    private Long load(String collectionName) {
+        Document counter = mongoTemplate.findById(collectionName, Document.class, COLLECTION);
+        return counter == null ? 0L : ((Number) counter.get("version")).longValue();
+    }
+}
@@ -0,0 +1,33 @@
+package com.dynamicmongo.service;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records crud.operation for every public document method of {@link DynamicCrudService}, tagged
+ * with the collection (first argument) and the method name. Calls the service makes to itself
+ * bypass the proxy and are not counted twice.
+ */
+@Aspect
+@Component
+public class CrudMetricsAspect {
+
+    @Autowired
+    private CollectionMetrics metrics;
+
+    @Around("execution(public * com.dynamicmongo.service.DynamicCrudService.*Document*(String, ..)) && args(collectionName, ..)")
+    public Object timeOperation(ProceedingJoinPoint joinPoint, String collectionName) throws Throwable {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            metrics.recordOperation(collectionName, joinPoint.getSignature().getName(), success, System.nanoTime() - start);
+        }
+    }
+}
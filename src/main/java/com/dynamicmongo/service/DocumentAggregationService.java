@@ -0,0 +1,243 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.AggregationMetric;
+import com.dynamicmongo.model.AggregationRequest;
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Runs schema-validated group-by aggregations inside MongoDB. Results are cached per pipeline
+ * and stop being served as soon as the collection is written to: every {@link CollectionChangedEvent}
+ * bumps the collection's generation, which is part of the cache key, so a result computed
+ * concurrently with a write is never served afterwards.
+ */
+@Service
+public class DocumentAggregationService {
+
+    public static final int DEFAULT_LIMIT = 1000;
+    public static final int MAX_LIMIT = 10000;
+    public static final String CACHE_NAME = "aggregations";
+
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private Cache<CacheKey, List<Document>> results;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private QueryCriteriaBuilder criteriaBuilder;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Total number of cached result rows across all entries
+    @Value("${aggregation.cache.max-rows:100000}")
+    private long maxCachedRows;
+
+    @Value("${aggregation.cache.ttl:5m}")
+    private Duration cacheTtl;
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumWeight(maxCachedRows)
+                .weigher((CacheKey key, List<Document> rows) -> Math.max(1, rows.size()))
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+        }
+    }
+
+    public List<Document> aggregate(String collectionName, AggregationRequest request) {
+        CollectionSchema schema = crudService.getSchema(collectionName)
+                .orElseThrow(() -> new IllegalArgumentException("Collection schema not found: " + collectionName));
+
+        Criteria criteria = request.getFilter() == null ? null : criteriaBuilder.build(request.getFilter(), schema);
+        List<Document> stages = buildStages(schema, request);
+
+        // Read the generation before running the pipeline so a concurrent write invalidates the result
+        long generation = generation(collectionName).get();
+        String pipelineHash = hash(criteria, stages);
+        return results.get(new CacheKey(collectionName, generation, pipelineHash), key -> run(collectionName, criteria, stages));
+    }
+
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        String collectionName = event.getCollectionName();
+        // No scan of the cache: results keyed by the old generation are unreachable and expire on their own
+        generation(collectionName).incrementAndGet();
+    }
+
+    List<Document> buildStages(CollectionSchema schema, AggregationRequest request) {
+        Map<String, FieldDefinition> fields = new HashMap<>();
+        if (schema.getFields() != null) {
+            schema.getFields().forEach(field -> fields.put(field.getName(), field));
+        }
+
+        List<String> groupBy = request.getGroupBy() == null ? List.of() : request.getGroupBy();
+        Set<String> columns = new HashSet<>();
+        Document groupId = new Document();
+        Document project = new Document("_id", 0);
+        for (String field : groupBy) {
+            requireField(fields, field);
+            if (!columns.add(field)) {
+                throw new IllegalArgumentException("Duplicate group-by field: " + field);
+            }
+            groupId.append(field, "$data." + field);
+            project.append(field, "$_id." + field);
+        }
+
+        List<AggregationMetric> metrics = request.getMetrics() == null || request.getMetrics().isEmpty()
+                ? List.of(new AggregationMetric("count", null, null))
+                : request.getMetrics();
+        Document group = new Document("_id", groupBy.isEmpty() ? null : groupId);
+        for (AggregationMetric metric : metrics) {
+            String op = metric.getOp() == null ? "" : metric.getOp().toLowerCase();
+            Object accumulator;
+            switch (op) {
+                case "count":
+                    accumulator = new Document("$sum", 1);
+                    break;
+                case "sum":
+                case "avg":
+                    requireNumeric(requireField(fields, metric.getField()), op);
+                    accumulator = new Document("$" + op, "$data." + metric.getField());
+                    break;
+                case "min":
+                case "max":
+                    requireField(fields, metric.getField());
+                    accumulator = new Document("$" + op, "$data." + metric.getField());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown aggregation: " + metric.getOp());
+            }
+
+            String column = metric.getAs() != null && !metric.getAs().isBlank()
+                    ? metric.getAs()
+                    : "count".equals(op) ? "count" : op + "_" + metric.getField();
+            if (!COLUMN_NAME.matcher(column).matches()) {
+                throw new IllegalArgumentException("Invalid result column name: " + column);
+            }
+            if (!columns.add(column)) {
+                throw new IllegalArgumentException("Duplicate result column: " + column);
+            }
+            group.append(column, accumulator);
+            project.append(column, 1);
+        }
+
+        List<Document> stages = new ArrayList<>();
+        stages.add(new Document("$group", group));
+        stages.add(new Document("$project", project));
+
+        Document sort = new Document();
+        if (request.getSort() != null && !request.getSort().isBlank()) {
+            String[] sortParts = request.getSort().split(",");
+            String column = sortParts[0].trim();
+            if (!columns.contains(column)) {
+                throw new IllegalArgumentException("Sort must refer to a result column: " + column);
+            }
+            Sort.Direction direction = sortParts.length > 1
+                    ? Sort.Direction.fromString(sortParts[1].trim())
+                    : Sort.Direction.ASC;
+            sort.append(column, direction.isAscending() ? 1 : -1);
+        } else {
+            groupBy.forEach(field -> sort.append(field, 1));
+        }
+        if (!sort.isEmpty()) {
+            stages.add(new Document("$sort", sort));
+        }
+
+        int limit = request.getLimit() == null ? DEFAULT_LIMIT : request.getLimit();
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        stages.add(new Document("$limit", limit));
+        return stages;
+    }
+
+    private List<Document> run(String collectionName, Criteria criteria, List<Document> stages) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (criteria != null) {
+            operations.add(Aggregation.match(criteria));
+        }
+        for (Document stage : stages) {
+            operations.add(context -> stage);
+        }
+        TypedAggregation<DynamicDocument> aggregation = Aggregation.newAggregation(DynamicDocument.class, operations)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        return List.copyOf(mongoTemplate.aggregate(aggregation, collectionName, Document.class).getMappedResults());
+    }
+
+    private AtomicLong generation(String collectionName) {
+        return generations.computeIfAbsent(collectionName, name -> new AtomicLong());
+    }
+
+    private static FieldDefinition requireField(Map<String, FieldDefinition> fields, String name) {
+        FieldDefinition field = name == null ? null : fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field: " + name);
+        }
+        return field;
+    }
+
+    private static void requireNumeric(FieldDefinition field, String op) {
+        String type = field.getType() == null ? "" : field.getType().toUpperCase();
+        if (!type.equals("INTEGER") && !type.equals("DOUBLE")) {
+            throw new IllegalArgumentException("Aggregation '" + op + "' requires a numeric field: " + field.getName());
+        }
+    }
+
+    private static String hash(Criteria criteria, List<Document> stages) {
+        StringBuilder pipeline = new StringBuilder();
+        pipeline.append(criteria == null ? "{}" : criteria.getCriteriaObject().toJson());
+        stages.forEach(stage -> pipeline.append(stage.toJson()));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(pipeline.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CacheKey(String collectionName, long generation, String pipelineHash) {
+    }
+}
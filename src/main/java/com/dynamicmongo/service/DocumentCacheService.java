@@ -0,0 +1,215 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentCachePolicy;
+import com.dynamicmongo.model.DynamicDocument;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through caches for collections whose schema declares a {@link DocumentCachePolicy}: one
+ * for documents by id and one for equality finds keyed by their normalized criteria. Local writes
+ * invalidate through {@link CollectionChangedEvent}; writes made by other instances arrive over
+ * the {@link CacheInvalidationChannel}. Find results, and documents after a collection-wide
+ * change, are keyed by a generation read before loading, so a result loaded concurrently with a
+ * write is never served afterwards. Cached instances are shared: callers must not mutate them.
+ */
+@Service
+public class DocumentCacheService {
+
+    private final Map<String, CollectionCache> caches = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CollectionSchemaCache schemaCache;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private CacheInvalidationChannel invalidationChannel;
+
+    public void validate(CollectionSchema schema) {
+        DocumentCachePolicy policy = schema.getCache();
+        if (policy == null) {
+            return;
+        }
+        if (policy.getMaxSize() < 1) {
+            throw new IllegalArgumentException("Cache maxSize must be at least 1");
+        }
+        if (policy.getTtlSeconds() < 1) {
+            throw new IllegalArgumentException("Cache ttlSeconds must be at least 1");
+        }
+    }
+
+    // Null results are not cached
+    public DynamicDocument document(String collectionName, String id, Supplier<DynamicDocument> loader) {
+        CollectionCache cache = cacheFor(collectionName);
+        if (cache == null) {
+            return loader.get();
+        }
+        boolean[] loaded = {false};
+        DynamicDocument document = cache.documents.get(new DocumentKey(cache.documentGeneration.get(), id), key -> {
+            loaded[0] = true;
+            return loader.get();
+        });
+        recordRequest(collectionName, "document", !loaded[0]);
+        return document;
+    }
+
+    public List<DynamicDocument> find(String collectionName, Map<String, Object> criteria,
+                                      Supplier<List<DynamicDocument>> loader) {
+        CollectionCache cache = cacheFor(collectionName);
+        if (cache == null) {
+            return loader.get();
+        }
+        boolean[] loaded = {false};
+        QueryKey queryKey = new QueryKey(cache.queryGeneration.get(), new TreeMap<>(criteria));
+        List<DynamicDocument> documents = cache.queries.get(queryKey, key -> {
+            loaded[0] = true;
+            return List.copyOf(loader.get());
+        });
+        recordRequest(collectionName, "query", !loaded[0]);
+        return documents;
+    }
+
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        invalidate(event.getCollectionName(), event.getDocumentId());
+    }
+
+    // Invalidation from the channel; writtenAt is when the write happened, so the delay is how long this instance could serve stale data
+    void onRemoteChange(String collectionName, String documentId, Instant writtenAt) {
+        if (collectionName == null || !caches.containsKey(collectionName)) {
+            return;
+        }
+        invalidate(collectionName, documentId);
+        if (writtenAt != null) {
+            Timer.builder("document.cache.staleness")
+                    .description("Time from a write to the invalidation of this instance's cached copies")
+                    .tag("collection", collectionMetrics.collectionTag(collectionName))
+                    .register(meterRegistry)
+                    .record(Duration.between(writtenAt, Instant.now()).abs());
+        }
+    }
+
+    private void invalidate(String collectionName, String documentId) {
+        CollectionCache cache = caches.get(collectionName);
+        if (cache == null) {
+            return;
+        }
+        cache.queryGeneration.incrementAndGet();
+        cache.queries.invalidateAll();
+        if (documentId == null) {
+            cache.documentGeneration.incrementAndGet();
+            cache.documents.invalidateAll();
+        } else {
+            // Blocks until a concurrent load of the same key finished, then removes what it loaded
+            cache.documents.invalidate(new DocumentKey(cache.documentGeneration.get(), documentId));
+        }
+    }
+
+    private CollectionCache cacheFor(String collectionName) {
+        CollectionSchema schema = schemaCache.find(collectionName).orElse(null);
+        DocumentCachePolicy policy = schema == null ? null : schema.getCache();
+        if (policy == null || !policy.isEnabled()) {
+            if (caches.containsKey(collectionName)) {
+                synchronized (this) {
+                    if (caches.remove(collectionName) != null) {
+                        watchCachedCollections();
+                    }
+                }
+            }
+            return null;
+        }
+        CollectionCache cache = caches.get(collectionName);
+        if (cache != null && cache.matches(schema)) {
+            return cache;
+        }
+        synchronized (this) {
+            cache = caches.get(collectionName);
+            if (cache == null || !cache.matches(schema)) {
+                boolean added = cache == null;
+                cache = new CollectionCache(schema);
+                caches.put(collectionName, cache);
+                if (added) {
+                    watchCachedCollections();
+                }
+            }
+            return cache;
+        }
+    }
+
+    // Caller holds the lock
+    private void watchCachedCollections() {
+        if (invalidationChannel != null) {
+            invalidationChannel.watch(caches.keySet(), this::onRemoteChange);
+        }
+    }
+
+    private void recordRequest(String collectionName, String cache, boolean hit) {
+        Counter.builder("document.cache.requests")
+                .description("Reads answered by the document cache (hit) or loaded from MongoDB (miss)")
+                .tag("collection", collectionMetrics.collectionTag(collectionName))
+                .tag("cache", cache)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Rebuilt, and so emptied, whenever the schema is saved: field types shape how find criteria are converted
+    private static final class CollectionCache {
+        final LocalDateTime schemaUpdatedAt;
+        final long maxSize;
+        final long ttlSeconds;
+        final AtomicLong documentGeneration = new AtomicLong();
+        final AtomicLong queryGeneration = new AtomicLong();
+        final Cache<DocumentKey, DynamicDocument> documents;
+        final Cache<QueryKey, List<DynamicDocument>> queries;
+
+        CollectionCache(CollectionSchema schema) {
+            this.schemaUpdatedAt = schema.getUpdatedAt();
+            this.maxSize = schema.getCache().getMaxSize();
+            this.ttlSeconds = schema.getCache().getTtlSeconds();
+            documents = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                    .build();
+            queries = Caffeine.newBuilder()
+                    .maximumWeight(maxSize)
+                    .weigher((QueryKey key, List<DynamicDocument> documents) -> Math.max(1, documents.size()))
+                    .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                    .build();
+        }
+
+        boolean matches(CollectionSchema schema) {
+            DocumentCachePolicy policy = schema.getCache();
+            return Objects.equals(schemaUpdatedAt, schema.getUpdatedAt())
+                    && maxSize == policy.getMaxSize() && ttlSeconds == policy.getTtlSeconds();
+        }
+    }
+
+    private record DocumentKey(long generation, String id) {
+    }
+
+    private record QueryKey(long generation, Map<String, Object> criteria) {
+    }
+}
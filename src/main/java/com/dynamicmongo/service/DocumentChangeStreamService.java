@@ -0,0 +1,399 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes document changes to STOMP subscribers of {@value #DESTINATION_PREFIX}{collection}.
+ * Each collection with at least one subscriber gets a single change-stream cursor, opened on
+ * the first subscription and closed with the last one, whose events are serialized once and
+ * sent to every matching subscription. Subscribers may pass a "filter" header holding a JSON
+ * object of data-field equalities; deletes carry no document and reach every subscriber.
+ * Change streams need a replica set, so nothing connects until someone subscribes.
+ */
+@Service
+public class DocumentChangeStreamService {
+
+    public static final String DESTINATION_PREFIX = "/topic/collections/";
+    public static final String FILTER_HEADER = "filter";
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentChangeStreamService.class);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final Codec<Document> DOCUMENT_CODEC = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    // Guarded by this
+    private final Map<String, CollectionFeed> feeds = new HashMap<>();
+    private final Map<String, Map<String, Subscription>> sessions = new HashMap<>();
+    private ExecutorService executor;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private FieldTypeCoercer coercer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("clientOutboundChannel")
+    private MessageChannel outboundChannel;
+
+    @Value("${changes.max-subscriptions-per-session:20}")
+    private int maxSubscriptionsPerSession;
+
+    @Value("${changes.retry-delay:5s}")
+    private Duration retryDelay;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("change-stream-"));
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        feeds.values().forEach(CollectionFeed::close);
+        feeds.clear();
+        sessions.clear();
+        executor.shutdownNow();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX)) {
+            return;
+        }
+        String collectionName = destination.substring(DESTINATION_PREFIX.length());
+        Subscription subscription = new Subscription(headers.getSessionId(), headers.getSubscriptionId(), destination);
+        try {
+            subscribe(collectionName, subscription, parseFilter(collectionName, headers.getFirstNativeHeader(FILTER_HEADER)));
+        } catch (IllegalArgumentException e) {
+            send(subscription, serialize(Map.of("error", e.getMessage())));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        unsubscribe(headers.getSessionId(), headers.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        disconnect(event.getSessionId());
+    }
+
+    synchronized void subscribe(String collectionName, Subscription subscription, Map<String, Object> filter) {
+        Map<String, Subscription> own = sessions.computeIfAbsent(subscription.sessionId, id -> new HashMap<>());
+        if (own.size() >= maxSubscriptionsPerSession && !own.containsKey(subscription.subscriptionId)) {
+            throw new IllegalArgumentException("At most " + maxSubscriptionsPerSession + " subscriptions per session");
+        }
+        subscription.collectionName = collectionName;
+        subscription.filter = filter;
+        Subscription replaced = own.put(subscription.subscriptionId, subscription);
+        if (replaced != null) {
+            remove(replaced);
+        }
+
+        CollectionFeed feed = feeds.get(collectionName);
+        if (feed == null) {
+            feed = new CollectionFeed(collectionName);
+            feeds.put(collectionName, feed);
+            executor.execute(feed);
+        }
+        feed.subscriptions.add(subscription);
+    }
+
+    synchronized void unsubscribe(String sessionId, String subscriptionId) {
+        Map<String, Subscription> own = sessions.get(sessionId);
+        Subscription subscription = own == null ? null : own.remove(subscriptionId);
+        if (subscription != null) {
+            remove(subscription);
+            if (own.isEmpty()) {
+                sessions.remove(sessionId);
+            }
+        }
+    }
+
+    synchronized void disconnect(String sessionId) {
+        Map<String, Subscription> own = sessions.remove(sessionId);
+        if (own != null) {
+            own.values().forEach(this::remove);
+        }
+    }
+
+    // Caller holds the lock
+    private void remove(Subscription subscription) {
+        CollectionFeed feed = feeds.get(subscription.collectionName);
+        if (feed != null && feed.subscriptions.remove(subscription) && feed.subscriptions.isEmpty()) {
+            feed.close();
+            feeds.remove(subscription.collectionName);
+        }
+    }
+
+    private Map<String, Object> parseFilter(String collectionName, String json) {
+        CollectionSchema schema = crudService.getSchema(collectionName)
+                .orElseThrow(() -> new IllegalArgumentException("Collection schema not found: " + collectionName));
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+
+        Map<String, Object> raw;
+        try {
+            raw = objectMapper.readerForMapOf(Object.class).readValue(json);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Filter must be a JSON object of field values: " + e.getMessage());
+        }
+        Map<String, FieldDefinition> fields = new HashMap<>();
+        schema.getFields().forEach(field -> fields.put(field.getName(), field));
+        Map<String, Object> filter = new LinkedHashMap<>();
+        raw.forEach((field, value) -> filter.put(field, coercer.coerce(value, fields.get(field))));
+        return filter;
+    }
+
+    private void dispatch(String collectionName, List<Subscription> subscriptions, ChangeStreamDocument<Document> event) {
+        DocumentChange change = toChange(collectionName, event);
+        if (change == null) {
+            return;
+        }
+        byte[] payload = serialize(change);
+        if (payload == null) {
+            return;
+        }
+        Document fullDocument = event.getFullDocument();
+        boolean deleted = event.getOperationType() == OperationType.DELETE;
+        for (Subscription subscription : subscriptions) {
+            if (deleted || subscription.filter.isEmpty() || matches(subscription.filter, fullDocument)) {
+                send(subscription, payload);
+            }
+        }
+    }
+
+    private byte[] serialize(Object payload) {
+        try {
+            return objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize change notification", e);
+            return null;
+        }
+    }
+
+    private void send(Subscription subscription, byte[] payload) {
+        if (payload == null) {
+            return;
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(subscription.sessionId);
+        headers.setSubscriptionId(subscription.subscriptionId);
+        headers.setDestination(subscription.destination);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setLeaveMutable(true);
+        outboundChannel.send(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+    }
+
+    // Converts a raw change event into the delta sent to clients; null for events that are not document changes
+    @SuppressWarnings("unchecked")
+    static DocumentChange toChange(String collectionName, ChangeStreamDocument<Document> event) {
+        String operation;
+        switch (event.getOperationType()) {
+            case INSERT: operation = "insert"; break;
+            case UPDATE: operation = "update"; break;
+            case REPLACE: operation = "replace"; break;
+            case DELETE: operation = "delete"; break;
+            default: return null;
+        }
+
+        BsonValue key = event.getDocumentKey() == null ? null : event.getDocumentKey().get("_id");
+        String id = key == null ? null
+                : key.isObjectId() ? key.asObjectId().getValue().toHexString()
+                : key.isString() ? key.asString().getValue()
+                : key.toString();
+        DocumentChange change = new DocumentChange(collectionName, operation, id);
+
+        Document fullDocument = event.getFullDocument();
+        UpdateDescription update = event.getUpdateDescription();
+        if (event.getOperationType() == OperationType.UPDATE && update != null) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            if (update.getUpdatedFields() != null) {
+                for (Map.Entry<String, BsonValue> entry : update.getUpdatedFields().entrySet()) {
+                    if (entry.getKey().equals("data") && entry.getValue().isDocument()) {
+                        fields.putAll((Map<String, Object>) toJava(entry.getValue()));
+                    } else if (entry.getKey().startsWith("data.")) {
+                        fields.put(entry.getKey().substring("data.".length()), toJava(entry.getValue()));
+                    }
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            if (update.getRemovedFields() != null) {
+                for (String field : update.getRemovedFields()) {
+                    if (field.startsWith("data.")) {
+                        removed.add(field.substring("data.".length()));
+                    }
+                }
+            }
+            change.setFields(fields);
+            change.setRemovedFields(removed);
+        } else if (fullDocument != null && fullDocument.get("data") instanceof Map) {
+            change.setFields(new LinkedHashMap<>((Map<String, Object>) fullDocument.get("data")));
+        }
+
+        if (fullDocument != null && fullDocument.get("version") instanceof Number) {
+            change.setVersion(((Number) fullDocument.get("version")).longValue());
+        }
+        return change;
+    }
+
+    @SuppressWarnings("unchecked")
+    static boolean matches(Map<String, Object> filter, Document fullDocument) {
+        if (fullDocument == null || !(fullDocument.get("data") instanceof Map)) {
+            return false;
+        }
+        Map<String, Object> data = (Map<String, Object>) fullDocument.get("data");
+        for (Map.Entry<String, Object> condition : filter.entrySet()) {
+            Object actual = data;
+            for (String key : condition.getKey().split("\\.")) {
+                actual = actual instanceof Map ? ((Map<String, Object>) actual).get(key) : null;
+            }
+            Object expected = condition.getValue();
+            boolean equal = actual instanceof Number && expected instanceof Number
+                    ? ((Number) actual).doubleValue() == ((Number) expected).doubleValue()
+                    : Objects.equals(actual, expected);
+            if (!equal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object toJava(BsonValue value) {
+        BsonDocument wrapper = new BsonDocument("v", value);
+        return DOCUMENT_CODEC.decode(new BsonDocumentReader(wrapper), DecoderContext.builder().build()).get("v");
+    }
+
+    static final class Subscription {
+        final String sessionId;
+        final String subscriptionId;
+        final String destination;
+        String collectionName;
+        Map<String, Object> filter = Map.of();
+
+        Subscription(String sessionId, String subscriptionId, String destination) {
+            this.sessionId = sessionId;
+            this.subscriptionId = subscriptionId;
+            this.destination = destination;
+        }
+    }
+
+    // One change-stream cursor per collection; resumes after transient errors from the last seen event
+    private final class CollectionFeed implements Runnable {
+        final String collectionName;
+        final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        private BsonDocument resumeToken;
+
+        CollectionFeed(String collectionName) {
+            this.collectionName = collectionName;
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        @Override
+        public void run() {
+            while (!closed) {
+                ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collectionName)
+                        .watch()
+                        .fullDocument(FullDocument.UPDATE_LOOKUP)
+                        .maxAwaitTime(1, TimeUnit.SECONDS);
+                if (resumeToken != null) {
+                    stream = stream.resumeAfter(resumeToken);
+                }
+                try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+                    log.debug("Change stream opened for {}", collectionName);
+                    while (!closed) {
+                        ChangeStreamDocument<Document> event = cursor.tryNext();
+                        if (event == null) {
+                            continue;
+                        }
+                        if (event.getOperationType() == OperationType.INVALIDATE) {
+                            // Collection dropped or renamed: start over on whatever is created next
+                            resumeToken = null;
+                            break;
+                        }
+                        resumeToken = event.getResumeToken();
+                        dispatch(collectionName, subscriptions, event);
+                    }
+                } catch (Exception e) {
+                    if (closed) {
+                        break;
+                    }
+                    if (e instanceof MongoCommandException && ((MongoCommandException) e).getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                        resumeToken = null;
+                    }
+                    log.warn("Change stream for {} failed, retrying in {}: {}", collectionName, retryDelay, e.getMessage());
+                    try {
+                        Thread.sleep(retryDelay.toMillis());
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            log.debug("Change stream closed for {}", collectionName);
+        }
+    }
+}
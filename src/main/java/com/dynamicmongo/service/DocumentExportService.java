@@ -0,0 +1,155 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Service
+public class DocumentExportService {
+
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_BSON = "bson";
+
+    private static final int CURSOR_BATCH_SIZE = 1000;
+    private static final int FLUSH_INTERVAL = 1000;
+    /** CSV column names used for document metadata; schema fields may not use them. */
+    public static final Set<String> METADATA_COLUMNS = Set.of("_id", "_createdAt", "_updatedAt");
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    @Autowired
+    private DynamicDocumentStore store;
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void exportNdjson(String collectionName, OutputStream out) throws IOException {
+        requireSchema(collectionName);
+
+        try (Stream<DynamicDocument> documents = streamDocuments(collectionName);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            long written = 0;
+            Iterator<DynamicDocument> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                generator.writeRaw('\n');
+                if (++written == 1 || written % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    public void exportCsv(String collectionName, OutputStream out) throws IOException {
+        CollectionSchema schema = requireSchema(collectionName);
+        // Metadata columns are prefixed with '_' so schema fields named id, createdAt or updatedAt don't clash with
+        // them; the prefixed names themselves are rejected when the schema is saved
+        List<FieldDefinition> fields = schema.getFields();
+
+        CsvSchema.Builder columns = CsvSchema.builder().addColumn("_id");
+        for (FieldDefinition field : fields) {
+            columns.addColumn(field.getName());
+        }
+        columns.addColumn("_createdAt").addColumn("_updatedAt");
+
+        try (Stream<DynamicDocument> documents = streamDocuments(collectionName);
+             SequenceWriter writer = csvMapper.writer(columns.setUseHeader(true).build())
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .writeValues(out)) {
+            long written = 0;
+            Iterator<DynamicDocument> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                DynamicDocument document = iterator.next();
+                Map<String, Object> data = document.getData() == null ? Map.of() : document.getData();
+
+                List<String> row = new ArrayList<>(fields.size() + 3);
+                row.add(document.getId());
+                for (FieldDefinition field : fields) {
+                    row.add(toCsvValue(data.get(field.getName())));
+                }
+                row.add(toCsvValue(document.getCreatedAt()));
+                row.add(toCsvValue(document.getUpdatedAt()));
+                writer.write(row);
+
+                if (++written == 1 || written % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    // Concatenated BSON documents as stored, like mongodump writes them; the driver's bytes are copied without decoding
+    public void exportBson(String collectionName, OutputStream out) throws IOException {
+        requireSchema(collectionName);
+
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(CURSOR_BATCH_SIZE);
+        // Not closed: that would close the response stream
+        WritableByteChannel channel = Channels.newChannel(out);
+        try (Stream<RawBsonDocument> documents = store.streamRaw(collectionName, query)) {
+            long written = 0;
+            Iterator<RawBsonDocument> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                ByteBuffer bytes = iterator.next().getByteBuffer().asNIO();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                if (++written == 1 || written % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public CollectionSchema requireSchema(String collectionName) {
+        return crudService.getSchema(collectionName)
+                .orElseThrow(() -> new IllegalArgumentException("Collection schema not found: " + collectionName));
+    }
+
+    private Stream<DynamicDocument> streamDocuments(String collectionName) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(CURSOR_BATCH_SIZE);
+        return store.stream(collectionName, query);
+    }
+
+    private String toCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Map || value instanceof Iterable) {
+            return objectMapper.writeValueAsString(value);
+        }
+        if (value instanceof Date) {
+            return DateTimeFormatter.ISO_INSTANT.format(((Date) value).toInstant());
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,203 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentCount;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FacetCount;
+import com.dynamicmongo.model.FieldDefinition;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts and top-N value counts for filter panels, computed in MongoDB instead of by downloading
+ * documents. Unfiltered counts come from collection metadata; filtered counts run countDocuments
+ * with the same equality criteria as the list endpoint. Facets for several fields are computed
+ * in one $facet aggregation. Results are cached briefly, and like {@link DocumentAggregationService}
+ * a write to the collection moves it to a new generation so local writes show up immediately.
+ */
+@Service
+public class DocumentFacetService {
+
+    public static final int DEFAULT_FACET_LIMIT = 10;
+    public static final int MAX_FACET_LIMIT = 100;
+    public static final int MAX_FACET_FIELDS = 20;
+    public static final String CACHE_NAME = "facets";
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private Cache<CacheKey, Object> results;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DynamicCrudService crudService;
+
+    @Autowired
+    private QueryCriteriaBuilder criteriaBuilder;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${facets.cache.max-entries:10000}")
+    private long maxCachedEntries;
+
+    @Value("${facets.cache.ttl:10s}")
+    private Duration cacheTtl;
+
+    @PostConstruct
+    void init() {
+        results = Caffeine.newBuilder()
+                .maximumSize(maxCachedEntries)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+        }
+    }
+
+    public DocumentCount count(String collectionName, Map<String, Object> criteria) {
+        CollectionSchema schema = requireSchema(collectionName);
+        Map<String, Object> filter = criteria == null ? Map.of() : new TreeMap<>(criteria);
+        List<Criteria> conditions = criteriaBuilder.equalities(filter, schema);
+
+        long generation = generation(collectionName).get();
+        return (DocumentCount) results.get(new CacheKey(collectionName, generation, "count", filter), key -> {
+            if (conditions.isEmpty()) {
+                return new DocumentCount(mongoTemplate.estimatedCount(collectionName), true);
+            }
+            Query query = new Query(and(conditions));
+            return new DocumentCount(mongoTemplate.count(query, DynamicDocument.class, collectionName), false);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, List<FacetCount>> facets(String collectionName, List<String> fields,
+                                                Map<String, Object> criteria, Integer limit) {
+        CollectionSchema schema = requireSchema(collectionName);
+        Map<String, Object> filter = criteria == null ? Map.of() : new TreeMap<>(criteria);
+        List<Criteria> conditions = criteriaBuilder.equalities(filter, schema);
+        List<String> facetFields = new ArrayList<>(new LinkedHashSet<>(fields == null ? List.of() : fields));
+        int facetLimit = limit == null ? DEFAULT_FACET_LIMIT : limit;
+        Document facet = buildFacetStage(schema, facetFields, facetLimit);
+
+        long generation = generation(collectionName).get();
+        CacheKey cacheKey = new CacheKey(collectionName, generation, "facets:" + facet.toJson(), filter);
+        return (Map<String, List<FacetCount>>) results.get(cacheKey,
+                key -> runFacets(collectionName, conditions, facet, facetFields));
+    }
+
+    @EventListener
+    public void onCollectionChanged(CollectionChangedEvent event) {
+        String collectionName = event.getCollectionName();
+        // Entries of older generations are never looked up again and age out with the TTL and size bound
+        generation(collectionName).incrementAndGet();
+    }
+
+    // One sub-pipeline per field, named by position because field names need not be valid facet names
+    Document buildFacetStage(CollectionSchema schema, List<String> fields, int limit) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("At least one facet field is required");
+        }
+        if (fields.size() > MAX_FACET_FIELDS) {
+            throw new IllegalArgumentException("At most " + MAX_FACET_FIELDS + " facet fields are allowed");
+        }
+        if (limit < 1 || limit > MAX_FACET_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_FACET_LIMIT);
+        }
+        Map<String, FieldDefinition> definitions = new HashMap<>();
+        if (schema.getFields() != null) {
+            schema.getFields().forEach(field -> definitions.put(field.getName(), field));
+        }
+
+        Document facet = new Document();
+        for (int i = 0; i < fields.size(); i++) {
+            FieldDefinition field = definitions.get(fields.get(i));
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field: " + fields.get(i));
+            }
+            String type = field.getType() == null ? "" : field.getType().toUpperCase();
+            if (type.equals("OBJECT")) {
+                throw new IllegalArgumentException("Facets are not supported for OBJECT fields: " + field.getName());
+            }
+            String path = "$data." + field.getName();
+            List<Document> pipeline = new ArrayList<>();
+            // Array elements are counted individually, like tags
+            if (type.equals("ARRAY")) {
+                pipeline.add(new Document("$unwind", path));
+            }
+            pipeline.add(new Document("$group", new Document("_id", path).append("count", new Document("$sum", 1))));
+            pipeline.add(new Document("$sort", new Document("count", -1).append("_id", 1)));
+            pipeline.add(new Document("$limit", limit));
+            facet.append("f" + i, pipeline);
+        }
+        return new Document("$facet", facet);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<FacetCount>> runFacets(String collectionName, List<Criteria> conditions,
+                                                    Document facet, List<String> fields) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (!conditions.isEmpty()) {
+            operations.add(Aggregation.match(and(conditions)));
+        }
+        operations.add(context -> facet);
+        TypedAggregation<DynamicDocument> aggregation = Aggregation.newAggregation(DynamicDocument.class, operations);
+        Document row = mongoTemplate.aggregate(aggregation, collectionName, Document.class).getUniqueMappedResult();
+
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            List<Document> buckets = row == null ? List.of() : (List<Document>) row.get("f" + i, List.class);
+            List<FacetCount> counts = new ArrayList<>();
+            if (buckets != null) {
+                for (Document bucket : buckets) {
+                    counts.add(new FacetCount(bucket.get("_id"), ((Number) bucket.get("count")).longValue()));
+                }
+            }
+            facets.put(fields.get(i), List.copyOf(counts));
+        }
+        return facets;
+    }
+
+    private CollectionSchema requireSchema(String collectionName) {
+        return crudService.getSchema(collectionName)
+                .orElseThrow(() -> new IllegalArgumentException("Collection schema not found: " + collectionName));
+    }
+
+    private AtomicLong generation(String collectionName) {
+        return generations.computeIfAbsent(collectionName, name -> new AtomicLong());
+    }
+
+    private static Criteria and(List<Criteria> conditions) {
+        return conditions.size() == 1
+                ? conditions.get(0)
+                : new Criteria().andOperator(conditions.toArray(new Criteria[0]));
+    }
+
+    private record CacheKey(String collectionName, long generation, String request, Map<String, Object> filter) {
+    }
+}
@@ -0,0 +1,314 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.BulkWriteReport;
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.ImportJob;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Runs CSV imports as background jobs. Each job is a two-stage pipeline: a parser thread
+ * streams rows from the uploaded file, coerces them to the schema types and hands batches
+ * to a writer thread through a bounded queue, so a slow database throttles parsing and
+ * memory stays at a few batches regardless of file size.
+ */
+@Service
+public class DocumentImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentImportService.class);
+
+    private static final ImportBatch END_OF_INPUT = new ImportBatch(-1, List.of());
+    private static final long POLL_MILLIS = 200;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Map<String, ImportTask> tasks = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+    private Semaphore runningSlots;
+
+    @Autowired
+    private BulkDocumentService bulkService;
+
+    @Autowired
+    private FieldTypeCoercer coercer;
+
+    @Value("${import.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${import.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @PostConstruct
+    void init() {
+        // Two threads per job (parser + writer); the semaphore keeps the pool from ever queueing a stage
+        executor = Executors.newFixedThreadPool(maxConcurrentJobs * 2, new CustomizableThreadFactory("import-"));
+        runningSlots = new Semaphore(maxConcurrentJobs);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        tasks.values().forEach(task -> task.cancelRequested = true);
+        executor.shutdownNow();
+    }
+
+    public ImportJob startCsvImport(String collectionName, MultipartFile file, Integer batchSize,
+                                    int skipRows, List<String> columns) throws IOException {
+        CollectionSchema schema = bulkService.requireSchema(collectionName);
+        int size = bulkService.resolveBatchSize(batchSize);
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Import file is empty");
+        }
+        if (skipRows < 0) {
+            throw new IllegalArgumentException("skipRows must not be negative");
+        }
+        if (!runningSlots.tryAcquire()) {
+            throw new IllegalStateException("Too many imports running (max " + maxConcurrentJobs + "), try again later");
+        }
+
+        Path spool = null;
+        try {
+            purgeFinishedJobs();
+            // The multipart temp file disappears with the request, so keep our own copy for the job
+            spool = Files.createTempFile("import-", ".csv");
+            file.transferTo(spool);
+
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), collectionName, file.getOriginalFilename());
+            ImportTask task = new ImportTask(job, schema, spool, size, skipRows, columns, queueCapacity);
+            tasks.put(job.getId(), task);
+            executor.execute(() -> run(task));
+            return job;
+        } catch (IOException | RuntimeException e) {
+            runningSlots.release();
+            if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
+            throw e;
+        }
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(tasks.get(jobId)).map(task -> task.job);
+    }
+
+    public List<ImportJob> getJobs() {
+        return tasks.values().stream()
+                .map(task -> task.job)
+                .sorted(Comparator.comparing(ImportJob::getStartedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public ImportJob cancel(String jobId) {
+        ImportTask task = tasks.get(jobId);
+        if (task == null) {
+            throw new IllegalArgumentException("Import job not found: " + jobId);
+        }
+        task.cancelRequested = true;
+        return task.job;
+    }
+
+    // Writer stage: runs on its own thread, starts the parser and drains the queue into bulk inserts
+    private void run(ImportTask task) {
+        ImportJob job = task.job;
+        Future<?> parser = null;
+        try {
+            parser = executor.submit(() -> parse(task));
+            while (!task.cancelRequested) {
+                ImportBatch batch = task.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                if (batch == END_OF_INPUT) {
+                    break;
+                }
+                BulkWriteReport report = new BulkWriteReport();
+                bulkService.insertBatch(job.getCollectionName(), task.schema, batch.rows, batch.firstIndex, report);
+                job.record(report);
+            }
+            task.writerStopped = true;
+            parser.get();
+
+            if (task.cancelRequested) {
+                job.finish(ImportJob.Status.CANCELLED, "Cancelled by request");
+            } else if (task.parseFailure != null) {
+                job.finish(ImportJob.Status.FAILED, task.parseFailure);
+            } else {
+                job.finish(ImportJob.Status.COMPLETED, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(ImportJob.Status.CANCELLED, "Import interrupted");
+        } catch (Exception e) {
+            log.warn("Import {} into {} failed", job.getId(), job.getCollectionName(), e);
+            job.finish(ImportJob.Status.FAILED, e.getMessage());
+        } finally {
+            task.writerStopped = true;
+            if (parser != null) {
+                parser.cancel(true);
+            }
+            try {
+                Files.deleteIfExists(task.file);
+            } catch (IOException e) {
+                log.warn("Could not delete import spool file {}", task.file, e);
+            }
+            runningSlots.release();
+        }
+    }
+
+    // Parser stage: streams the CSV row by row and blocks while the queue is full
+    private void parse(ImportTask task) {
+        long index = 0;
+        try {
+            ObjectReader reader = csvMapper.readerForListOf(String.class).with(CsvParser.Feature.WRAP_AS_ARRAY);
+            try (MappingIterator<List<String>> rows = reader.readValues(task.file.toFile())) {
+                if (!rows.hasNextValue()) {
+                    return;
+                }
+                List<String> header = rows.nextValue();
+                List<String> names = task.columns != null ? task.columns : header.stream()
+                        .map(name -> name == null ? null : name.replace("\uFEFF", "").trim())
+                        .collect(Collectors.toList());
+
+                long skipped = 0;
+                List<Map<String, Object>> batch = new ArrayList<>(task.batchSize);
+                while (!task.shouldStop() && rows.hasNextValue()) {
+                    List<String> cells = rows.nextValue();
+                    if (skipped < task.skipRows) {
+                        skipped++;
+                        continue;
+                    }
+
+                    batch.add(toDocument(cells, names, task.fields));
+                    task.job.incrementRowsRead();
+                    index++;
+                    if (batch.size() == task.batchSize) {
+                        if (!offer(task, new ImportBatch(index - batch.size(), batch))) {
+                            return;
+                        }
+                        batch = new ArrayList<>(task.batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    offer(task, new ImportBatch(index - batch.size(), batch));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            task.parseFailure = "Unreadable CSV at data row " + index + ": " + e.getMessage();
+        } finally {
+            try {
+                offer(task, END_OF_INPUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Map<String, Object> toDocument(List<String> cells, List<String> names, Map<String, FieldDefinition> fields) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        int columns = Math.min(cells.size(), names.size());
+        for (int i = 0; i < columns; i++) {
+            String name = names.get(i);
+            String value = cells.get(i);
+            // Blank column names drop the column; empty cells are treated as absent so defaults apply
+            if (name == null || name.isBlank() || value == null || value.isEmpty()) {
+                continue;
+            }
+            data.put(name, coercer.coerce(value, fields.get(name)));
+        }
+        return data;
+    }
+
+    private boolean offer(ImportTask task, ImportBatch batch) throws InterruptedException {
+        while (!task.queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (task.shouldStop()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        tasks.values().removeIf(task -> task.job.getFinishedAt() != null && task.job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static final class ImportBatch {
+        final long firstIndex;
+        final List<Map<String, Object>> rows;
+
+        ImportBatch(long firstIndex, List<Map<String, Object>> rows) {
+            this.firstIndex = firstIndex;
+            this.rows = rows;
+        }
+    }
+
+    private static final class ImportTask {
+        final ImportJob job;
+        final CollectionSchema schema;
+        final Map<String, FieldDefinition> fields = new HashMap<>();
+        final Path file;
+        final int batchSize;
+        final int skipRows;
+        final List<String> columns;
+        final BlockingQueue<ImportBatch> queue;
+
+        volatile boolean cancelRequested;
+        volatile boolean writerStopped;
+        volatile String parseFailure;
+
+        ImportTask(ImportJob job, CollectionSchema schema, Path file, int batchSize, int skipRows,
+                   List<String> columns, int queueCapacity) {
+            this.job = job;
+            this.schema = schema;
+            this.file = file;
+            this.batchSize = batchSize;
+            this.skipRows = skipRows;
+            this.columns = columns;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            for (FieldDefinition field : schema.getFields()) {
+                fields.put(field.getName(), field);
+            }
+        }
+
+        boolean shouldStop() {
+            return cancelRequested || writerStopped;
+        }
+    }
+}
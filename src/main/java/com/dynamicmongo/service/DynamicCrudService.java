@@ -1,16 +1,35 @@
 package com.dynamicmongo.service;
 
 import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.DocumentLookupResult;
+import com.dynamicmongo.model.DocumentPage;
+import com.dynamicmongo.model.DocumentQuery;
 import com.dynamicmongo.model.DynamicDocument;
 import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.SearchHit;
+import com.dynamicmongo.model.SearchPage;
+import com.dynamicmongo.model.SearchRequest;
 import com.dynamicmongo.repository.CollectionSchemaRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,6 +37,13 @@ import java.util.Optional;
 @Service
 public class DynamicCrudService {
     
+    public static final int DEFAULT_PAGE_LIMIT = 100;
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final int MAX_LOOKUP_IDS = 5000;
+    static final int LOOKUP_CHUNK_SIZE = 500;
+    private static final String TEXT_SCORE = "textScore";
+    private static final String SEARCH_SORT = TEXT_SCORE + ",desc";
+    
     @Autowired
     private MongoTemplate mongoTemplate;
     
@@ -27,33 +53,107 @@ public class DynamicCrudService {
     @Autowired
     private DataValidationService validationService;
     
+    @Autowired
+    private CollectionSchemaCache schemaCache;
+    
+    @Autowired
+    private SchemaIndexService indexService;
+    
+    @Autowired
+    private QueryCriteriaBuilder criteriaBuilder;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private CollectionMetrics metrics;
+    
+    @Autowired
+    private DynamicDocumentStore store;
+    
+    @Autowired
+    private DocumentCacheService documentCache;
+    
+    @Autowired
+    private SchemaMigrationService migrationService;
+    
+    @Autowired
+    private FieldTypeCoercer coercer;
+    
     public CollectionSchema createSchema(CollectionSchema schema) {
         if (schemaRepository.existsByCollectionName(schema.getCollectionName())) {
             throw new IllegalArgumentException("Collection schema already exists: " + schema.getCollectionName());
         }
-        return schemaRepository.save(schema);
+        validateFieldNames(schema);
+        indexService.validate(schema);
+        documentCache.validate(schema);
+        CollectionSchema saved = schemaRepository.save(schema);
+        schemaCache.evict(saved.getCollectionName());
+        indexService.reconcileAsync(saved);
+        return saved;
+    }
+    
+    private void validateFieldNames(CollectionSchema schema) {
+        if (schema.getFields() == null) {
+            return;
+        }
+        for (FieldDefinition field : schema.getFields()) {
+            if (DocumentExportService.METADATA_COLUMNS.contains(field.getName())) {
+                throw new IllegalArgumentException("Field name is reserved: " + field.getName());
+            }
+        }
     }
     
     public Optional<CollectionSchema> getSchema(String collectionName) {
-        return schemaRepository.findByCollectionName(collectionName);
+        return metrics.phase(collectionName, "schema_lookup", () -> schemaCache.find(collectionName));
     }
     
     public CollectionSchema updateSchema(String collectionName, CollectionSchema updatedSchema) {
+        return updateSchema(collectionName, updatedSchema, false);
+    }
+    
+    /**
+     * Replaces the schema's fields (and indexes and cache policy when given) and queues a
+     * background migration that brings existing documents in line with the new fields.
+     * Fields removed from the schema are only unset from documents when dropRemovedFields is set.
+     */
+    public CollectionSchema updateSchema(String collectionName, CollectionSchema updatedSchema,
+                                         boolean dropRemovedFields) {
         Optional<CollectionSchema> existingSchema = schemaRepository.findByCollectionName(collectionName);
         if (existingSchema.isEmpty()) {
             throw new IllegalArgumentException("Collection schema not found: " + collectionName);
         }
         
         CollectionSchema schema = existingSchema.get();
+        List<FieldDefinition> previousFields = schema.getFields();
         schema.setFields(updatedSchema.getFields());
-        return schemaRepository.save(schema);
+        if (updatedSchema.getIndexes() != null) {
+            schema.setIndexes(updatedSchema.getIndexes());
+        }
+        if (updatedSchema.getCache() != null) {
+            schema.setCache(updatedSchema.getCache());
+        }
+        validateFieldNames(schema);
+        indexService.validate(schema);
+        documentCache.validate(schema);
+        CollectionSchema saved = schemaRepository.save(schema);
+        schemaCache.evict(collectionName);
+        indexService.reconcileAsync(saved);
+        migrationService.start(saved, previousFields, dropRemovedFields);
+        return saved;
     }
     
     public void deleteSchema(String collectionName) {
         Optional<CollectionSchema> schema = schemaRepository.findByCollectionName(collectionName);
         if (schema.isPresent()) {
             schemaRepository.delete(schema.get());
+            schemaCache.evict(collectionName);
+            indexService.forget(collectionName);
             mongoTemplate.dropCollection(collectionName);
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionName));
         }
     }
     
@@ -64,79 +164,392 @@ public class DynamicCrudService {
         }
         
         CollectionSchema schema = schemaOpt.get();
-        List<String> validationErrors = validationService.validateDocument(data, schema);
+        List<String> validationErrors = metrics.phase(collectionName, "validation",
+                () -> validationService.validateDocument(data, schema));
         if (!validationErrors.isEmpty()) {
             throw new IllegalArgumentException("Validation errors: " + String.join(", ", validationErrors));
         }
         
         applyDefaultValues(data, schema.getFields());
+        Map<String, Object> normalized = coercer.normalize(data, schema.getFields());
         
-        DynamicDocument document = new DynamicDocument(data, collectionName);
-        return mongoTemplate.save(document, collectionName);
+        DynamicDocument document = new DynamicDocument(normalized, collectionName);
+        metrics.documentSize(collectionName, normalized);
+        DynamicDocument saved = metrics.phase(collectionName, "mongo_write", () -> outboxService.write(() -> {
+            DynamicDocument inserted = store.insert(collectionName, document);
+            DocumentChange change = new DocumentChange(collectionName, "insert", inserted.getId());
+            change.setFields(inserted.getData());
+            change.setVersion(inserted.getVersion());
+            outboxService.record(change);
+            return inserted;
+        }));
+        eventPublisher.publishEvent(new CollectionChangedEvent(collectionName, saved.getId()));
+        return saved;
     }
     
     public Optional<DynamicDocument> getDocument(String collectionName, String id) {
-        return Optional.ofNullable(mongoTemplate.findById(id, DynamicDocument.class, collectionName));
+        return Optional.ofNullable(documentCache.document(collectionName, id, () -> metrics.phase(collectionName, "mongo_read",
+                () -> store.findById(collectionName, id).orElse(null))));
+    }
+    
+    // Resolves many ids with one $in query per chunk; results follow the request order
+    public List<DocumentLookupResult> getDocumentsByIds(String collectionName, List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " ids can be fetched at once");
+        }
+        
+        if (ids.stream().anyMatch(id -> id == null || id.isBlank())) {
+            throw new IllegalArgumentException("Ids must not be empty");
+        }
+        
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<String, DynamicDocument> byId = new HashMap<>(distinctIds.size() * 2);
+        for (int start = 0; start < distinctIds.size(); start += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = distinctIds.subList(start, Math.min(start + LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            Query query = Query.query(Criteria.where("id").in(chunk));
+            List<DynamicDocument> found = metrics.phase(collectionName, "mongo_read",
+                    () -> store.find(collectionName, query));
+            for (DynamicDocument document : found) {
+                byId.put(document.getId(), document);
+            }
+        }
+        metrics.resultCount(collectionName, "lookup", byId.size());
+        
+        List<DocumentLookupResult> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            results.add(new DocumentLookupResult(id, byId.get(id)));
+        }
+        return results;
     }
     
     public List<DynamicDocument> getAllDocuments(String collectionName) {
-        return mongoTemplate.findAll(DynamicDocument.class, collectionName);
+        List<DynamicDocument> documents = metrics.phase(collectionName, "mongo_read",
+                () -> store.find(collectionName, new Query()));
+        metrics.resultCount(collectionName, "all", documents.size());
+        return documents;
     }
     
     public List<DynamicDocument> findDocuments(String collectionName, Map<String, Object> criteria) {
         Query query = new Query();
         
-        for (Map.Entry<String, Object> entry : criteria.entrySet()) {
-            query.addCriteria(Criteria.where("data." + entry.getKey()).is(entry.getValue()));
+        CollectionSchema schema = getSchema(collectionName).orElse(null);
+        for (Criteria condition : criteriaBuilder.equalities(criteria, schema)) {
+            query.addCriteria(condition);
         }
         
-        return mongoTemplate.find(query, DynamicDocument.class, collectionName);
+        List<DynamicDocument> documents = documentCache.find(collectionName, criteria, () -> metrics.phase(collectionName,
+                "mongo_read", () -> store.find(collectionName, query)));
+        metrics.resultCount(collectionName, "find", documents.size());
+        return documents;
     }
     
-    public DynamicDocument updateDocument(String collectionName, String id, Map<String, Object> updates) {
+    public DocumentPage getDocumentsPage(String collectionName, Map<String, Object> criteria,
+                                         Integer limit, String sort, String cursor) {
+        List<Criteria> conditions = new ArrayList<>();
+        if (criteria != null && !criteria.isEmpty()) {
+            CollectionSchema schema = getSchema(collectionName).orElse(null);
+            conditions.addAll(criteriaBuilder.equalities(criteria, schema));
+        }
+        return findPage(collectionName, conditions, limit, sort, cursor, null);
+    }
+    
+    public DocumentPage queryDocuments(String collectionName, DocumentQuery documentQuery) {
         Optional<CollectionSchema> schemaOpt = getSchema(collectionName);
         if (schemaOpt.isEmpty()) {
             throw new IllegalArgumentException("Collection schema not found: " + collectionName);
         }
         
-        Optional<DynamicDocument> existingDoc = getDocument(collectionName, id);
-        if (existingDoc.isEmpty()) {
-            throw new IllegalArgumentException("Document not found: " + id);
+        List<Criteria> conditions = new ArrayList<>();
+        if (documentQuery.getFilter() != null) {
+            conditions.add(criteriaBuilder.build(documentQuery.getFilter(), schemaOpt.get()));
+        }
+        return findPage(collectionName, conditions, documentQuery.getLimit(), documentQuery.getSort(),
+                documentQuery.getCursor(), documentQuery.getProjection());
+    }
+    
+    /**
+     * Full-text search over the schema's searchable fields through their text index, most relevant
+     * first. Pages are keyset-paged on (textScore desc, _id asc), so the cursor carries the score of
+     * the last hit. The optional filter and projection work as in {@link #queryDocuments}.
+     */
+    public SearchPage searchDocuments(String collectionName, SearchRequest request) {
+        CollectionSchema schema = getSchema(collectionName)
+                .orElseThrow(() -> new IllegalArgumentException("Collection schema not found: " + collectionName));
+        if (schema.getFields() == null || schema.getFields().stream().noneMatch(FieldDefinition::isSearchable)) {
+            throw new IllegalArgumentException("Collection has no searchable fields: " + collectionName);
+        }
+        if (request.getText() == null || request.getText().isBlank()) {
+            throw new IllegalArgumentException("Search text must not be empty");
+        }
+        int pageLimit = request.getLimit() == null ? DEFAULT_PAGE_LIMIT : request.getLimit();
+        if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_LIMIT);
         }
         
-        Map<String, Object> mergedData = existingDoc.get().getData();
-        mergedData.putAll(updates);
+        TextCriteria text = request.getLanguage() == null || request.getLanguage().isBlank()
+                ? TextCriteria.forDefaultLanguage()
+                : TextCriteria.forLanguage(request.getLanguage());
+        Query match = new Query(text.matching(request.getText()));
+        if (request.getFilter() != null) {
+            match.addCriteria(criteriaBuilder.build(request.getFilter(), schema));
+        }
         
-        CollectionSchema schema = schemaOpt.get();
-        List<String> validationErrors = validationService.validateDocument(mergedData, schema);
+        List<Document> stages = new ArrayList<>();
+        stages.add(new Document("$addFields", new Document(TEXT_SCORE, new Document("$meta", "textScore"))));
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            PageCursor pageCursor = PageCursor.decode(request.getCursor());
+            if (!SEARCH_SORT.equals(pageCursor.getSort()) || !(pageCursor.getSortValue() instanceof Number)) {
+                throw new IllegalArgumentException("Cursor was not issued by a search");
+            }
+            double score = ((Number) pageCursor.getSortValue()).doubleValue();
+            Object lastId = ObjectId.isValid(pageCursor.getLastId())
+                    ? new ObjectId(pageCursor.getLastId())
+                    : pageCursor.getLastId();
+            stages.add(new Document("$match", new Document("$or", List.of(
+                    new Document(TEXT_SCORE, new Document("$lt", score)),
+                    new Document(TEXT_SCORE, score).append("_id", new Document("$gt", lastId))))));
+        }
+        stages.add(new Document("$sort", new Document(TEXT_SCORE, -1).append("_id", 1)));
+        stages.add(new Document("$limit", pageLimit + 1));
+        if (request.getProjection() != null && !request.getProjection().isEmpty()) {
+            Document fields = new Document(TEXT_SCORE, 1);
+            request.getProjection().forEach(field -> fields.append(criteriaBuilder.resolvePath(field), 1));
+            stages.add(new Document("$project", fields));
+        }
+        
+        List<SearchHit> hits = metrics.phase(collectionName, "mongo_read", () -> store.aggregate(collectionName, match,
+                stages, (document, raw) -> new SearchHit(raw.getNumber(TEXT_SCORE).doubleValue(), document)));
+        metrics.resultCount(collectionName, "search", Math.min(hits.size(), pageLimit));
+        String nextCursor = null;
+        if (hits.size() > pageLimit) {
+            hits = new ArrayList<>(hits.subList(0, pageLimit));
+            SearchHit last = hits.get(pageLimit - 1);
+            nextCursor = new PageCursor(SEARCH_SORT, last.getTextScore(), last.getDocument().getId()).encode();
+        }
+        return new SearchPage(hits, pageLimit, nextCursor);
+    }
+    
+    private DocumentPage findPage(String collectionName, List<Criteria> conditions, Integer limit, String sort,
+                                  String cursor, Collection<String> projection) {
+        int pageLimit = limit == null ? DEFAULT_PAGE_LIMIT : limit;
+        if (pageLimit < 1 || pageLimit > MAX_PAGE_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_LIMIT);
+        }
+        
+        String sortSpec = sort == null || sort.isBlank() ? "_id,asc" : sort.trim();
+        String[] sortParts = sortSpec.split(",");
+        if (sortParts[0].isBlank()) {
+            throw new IllegalArgumentException("Sort field must not be empty");
+        }
+        String sortPath = criteriaBuilder.resolvePath(sortParts[0].trim());
+        Sort.Direction direction = sortParts.length > 1
+                ? Sort.Direction.fromString(sortParts[1].trim())
+                : Sort.Direction.ASC;
+        sortSpec = sortParts[0].trim() + "," + direction.name().toLowerCase();
+        
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            if (!sortSpec.equals(pageCursor.getSort())) {
+                throw new IllegalArgumentException("Cursor was issued for sort '" + pageCursor.getSort() + "'");
+            }
+            conditions.add(keysetCriteria(sortPath, direction, pageCursor));
+        }
+        
+        Query query = new Query();
+        if (!conditions.isEmpty()) {
+            query.addCriteria(conditions.size() == 1
+                    ? conditions.get(0)
+                    : new Criteria().andOperator(conditions.toArray(new Criteria[0])));
+        }
+        if (projection != null && !projection.isEmpty()) {
+            boolean sortPathProjected = false;
+            for (String field : projection) {
+                String path = criteriaBuilder.resolvePath(field);
+                query.fields().include(path);
+                sortPathProjected |= sortPath.equals(path) || sortPath.startsWith(path + ".");
+            }
+            // The sort value is needed to build the next cursor
+            if (!sortPathProjected) {
+                query.fields().include(sortPath);
+            }
+        }
+        Sort order = Sort.by(direction, sortPath);
+        if (!"_id".equals(sortPath)) {
+            order = order.and(Sort.by(direction, "_id"));
+        }
+        query.with(order).limit(pageLimit + 1);
+        
+        List<DynamicDocument> documents = metrics.phase(collectionName, "mongo_read",
+                () -> store.find(collectionName, query));
+        metrics.resultCount(collectionName, "page", Math.min(documents.size(), pageLimit));
+        String nextCursor = null;
+        if (documents.size() > pageLimit) {
+            documents = new ArrayList<>(documents.subList(0, pageLimit));
+            DynamicDocument last = documents.get(pageLimit - 1);
+            nextCursor = new PageCursor(sortSpec, sortValueOf(last, sortPath), last.getId()).encode();
+        }
+        return new DocumentPage(documents, pageLimit, sortSpec, nextCursor);
+    }
+    
+    public DynamicDocument updateDocument(String collectionName, String id, Map<String, Object> updates) {
+        return updateDocument(collectionName, id, updates, null);
+    }
+    
+    /**
+     * Applies a partial update in a single findAndModify: non-null values are $set on
+     * data.&lt;field&gt; as their canonical type, null values are $unset, and the version is incremented. When
+     * expectedVersion is given the update only applies if the stored version still matches,
+     * otherwise an OptimisticLockingFailureException is thrown.
+     */
+    public DynamicDocument updateDocument(String collectionName, String id, Map<String, Object> updates,
+                                          Long expectedVersion) {
+        Optional<CollectionSchema> schemaOpt = getSchema(collectionName);
+        if (schemaOpt.isEmpty()) {
+            throw new IllegalArgumentException("Collection schema not found: " + collectionName);
+        }
+        
+        // Changes apply to whole top-level fields: a dotted path would reach into a nested value past the
+        // validation of its field, and an operator-like name would be read as an update operator
+        for (String field : updates.keySet()) {
+            if (field.isEmpty() || field.startsWith("$") || field.contains(".")) {
+                throw new IllegalArgumentException("Invalid field name: " + field);
+            }
+        }
+        
+        List<String> validationErrors = metrics.phase(collectionName, "validation",
+                () -> validationService.validateChanges(updates, schemaOpt.get()));
         if (!validationErrors.isEmpty()) {
             throw new IllegalArgumentException("Validation errors: " + String.join(", ", validationErrors));
         }
         
         Update update = new Update();
-        update.set("data", mergedData);
+        Map<String, Object> setFields = new LinkedHashMap<>();
+        List<String> removedFields = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : coercer.normalize(updates, schemaOpt.get().getFields()).entrySet()) {
+            String field = entry.getKey();
+            if (entry.getValue() == null) {
+                update.unset("data." + field);
+                removedFields.add(field);
+            } else {
+                update.set("data." + field, entry.getValue());
+                setFields.put(field, entry.getValue());
+            }
+        }
         update.set("updatedAt", LocalDateTime.now());
+        update.inc("version", 1);
         
-        mongoTemplate.updateFirst(
-            Query.query(Criteria.where("id").is(id)),
-            update,
-            DynamicDocument.class,
-            collectionName
-        );
+        Criteria criteria = Criteria.where("id").is(id);
+        if (expectedVersion != null) {
+            // Documents written before versioning have no version field and count as version 0
+            criteria = expectedVersion == 0
+                    ? criteria.orOperator(Criteria.where("version").is(0L), Criteria.where("version").exists(false))
+                    : criteria.and("version").is(expectedVersion);
+        }
         
-        return getDocument(collectionName, id).orElse(null);
+        Query query = Query.query(criteria);
+        DynamicDocument updated = metrics.phase(collectionName, "mongo_write", () -> outboxService.write(() -> {
+            DynamicDocument modified = mongoTemplate.findAndModify(
+                query,
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                DynamicDocument.class,
+                collectionName
+            );
+            if (modified != null) {
+                DocumentChange change = new DocumentChange(collectionName, "update", id);
+                change.setFields(setFields);
+                change.setRemovedFields(removedFields);
+                change.setVersion(modified.getVersion());
+                outboxService.record(change);
+            }
+            return modified;
+        }));
+        if (updated == null) {
+            boolean exists = expectedVersion != null
+                    && mongoTemplate.exists(Query.query(Criteria.where("id").is(id)), DynamicDocument.class, collectionName);
+            if (exists) {
+                throw new OptimisticLockingFailureException(
+                        "Document " + id + " was modified concurrently; expected version " + expectedVersion);
+            }
+            throw new IllegalArgumentException("Document not found: " + id);
+        }
+        metrics.documentSize(collectionName, updated.getData());
+        eventPublisher.publishEvent(new CollectionChangedEvent(collectionName, id));
+        return updated;
     }
     
     public boolean deleteDocument(String collectionName, String id) {
         Query query = Query.query(Criteria.where("id").is(id));
-        return mongoTemplate.remove(query, DynamicDocument.class, collectionName).getDeletedCount() > 0;
+        boolean deleted = metrics.phase(collectionName, "mongo_write", () -> outboxService.write(() -> {
+            boolean removed = mongoTemplate.remove(query, DynamicDocument.class, collectionName).getDeletedCount() > 0;
+            if (removed) {
+                outboxService.record(new DocumentChange(collectionName, "delete", id));
+            }
+            return removed;
+        }));
+        if (deleted) {
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionName, id));
+        }
+        return deleted;
     }
     
     public List<CollectionSchema> getAllSchemas() {
         return schemaRepository.findAll();
     }
     
-    private void applyDefaultValues(Map<String, Object> data, List<FieldDefinition> fields) {
+    // Documents strictly after the cursor position in (sortPath, _id) order.
+    // Missing/null sort values sort first ascending and last descending, as in MongoDB.
+    private Criteria keysetCriteria(String sortPath, Sort.Direction direction, PageCursor cursor) {
+        boolean ascending = direction.isAscending();
+        Criteria afterId = ascending
+                ? Criteria.where("_id").gt(cursor.getLastId())
+                : Criteria.where("_id").lt(cursor.getLastId());
+        if ("_id".equals(sortPath)) {
+            return afterId;
+        }
+        
+        Object value = cursor.getSortValue();
+        if (value == null) {
+            Criteria sameNullValue = new Criteria().andOperator(Criteria.where(sortPath).is(null), afterId);
+            return ascending
+                    ? new Criteria().orOperator(sameNullValue, Criteria.where(sortPath).ne(null))
+                    : sameNullValue;
+        }
+        
+        Criteria beyondValue = ascending
+                ? Criteria.where(sortPath).gt(value)
+                : Criteria.where(sortPath).lt(value);
+        Criteria sameValue = new Criteria().andOperator(Criteria.where(sortPath).is(value), afterId);
+        return ascending
+                ? new Criteria().orOperator(beyondValue, sameValue)
+                : new Criteria().orOperator(beyondValue, sameValue, Criteria.where(sortPath).is(null));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Object sortValueOf(DynamicDocument document, String sortPath) {
+        Object value;
+        switch (sortPath) {
+            case "_id":
+                return document.getId();
+            case "createdAt":
+                value = document.getCreatedAt();
+                break;
+            case "updatedAt":
+                value = document.getUpdatedAt();
+                break;
+            default:
+                value = document.getData();
+                for (String key : sortPath.substring("data.".length()).split("\\.")) {
+                    value = value instanceof Map ? ((Map<String, Object>) value).get(key) : null;
+                }
+        }
+        return value == null ? null : mongoTemplate.getConverter().convertToMongoType(value);
+    }
+    
+    void applyDefaultValues(Map<String, Object> data, List<FieldDefinition> fields) {
         for (FieldDefinition field : fields) {
             if (!data.containsKey(field.getName()) && field.getDefaultValue() != null) {
                 data.put(field.getName(), field.getDefaultValue());
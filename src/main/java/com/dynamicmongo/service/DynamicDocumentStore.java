@@ -0,0 +1,158 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.repository.DynamicDocumentCodec;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads and inserts {@link DynamicDocument}s through {@link DynamicDocumentCodec} instead of the
+ * reflective MappingMongoConverter. Queries are still built with Spring Data's {@link Query} and
+ * mapped (id to _id, string ids to ObjectIds) by its QueryMapper. The schema is resolved before
+ * the driver is called, so the codec never has to look anything up itself. Operations go through
+ * MongoTemplate#execute, which translates exceptions and joins a running transaction.
+ */
+@Component
+public class DynamicDocumentStore {
+
+    // Keyed by schema identity like DataValidationService's plans: a schema update replaces the cached instance
+    private final Cache<CollectionSchema, CodecRegistry> schemaRegistries = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+    private QueryMapper queryMapper;
+    private MongoPersistentEntity<?> entity;
+    private CodecRegistry baseRegistry;
+    private CodecRegistry schemalessRegistry;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CollectionSchemaCache schemaCache;
+
+    @PostConstruct
+    void init() {
+        queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(DynamicDocument.class);
+        baseRegistry = mongoTemplate.getDb().getCodecRegistry();
+        schemalessRegistry = withCodec(new DynamicDocumentCodec(baseRegistry));
+    }
+
+    public Optional<DynamicDocument> findById(String collectionName, String id) {
+        List<DynamicDocument> found = find(collectionName, Query.query(Criteria.where("id").is(id)).limit(1));
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    public List<DynamicDocument> find(String collectionName, Query query) {
+        return execute(collectionName, collection -> findIterable(collection, query).into(new ArrayList<>()));
+    }
+
+    // The caller must close the stream to release the cursor
+    public Stream<DynamicDocument> stream(String collectionName, Query query) {
+        MongoCursor<DynamicDocument> cursor = execute(collectionName, collection -> findIterable(collection, query).cursor());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    // Stored documents exactly as the driver returned them, for passing through without decoding; close the stream
+    public Stream<RawBsonDocument> streamRaw(String collectionName, Query query) {
+        MongoCursor<RawBsonDocument> cursor = mongoTemplate.execute(collectionName, collection ->
+                findIterable(collection.withDocumentClass(RawBsonDocument.class), query).cursor());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .onClose(cursor::close);
+    }
+
+    // Runs the stages after a $match on the query's criteria. Each result is decoded as a DynamicDocument and passed
+    // to the mapper together with its raw form, which still holds the fields the pipeline computed.
+    public <T> List<T> aggregate(String collectionName, Query match, List<Document> stages,
+                                 BiFunction<DynamicDocument, RawBsonDocument, T> mapper) {
+        List<Document> pipeline = new ArrayList<>(stages.size() + 1);
+        pipeline.add(new Document("$match", queryMapper.getMappedObject(match.getQueryObject(), entity)));
+        pipeline.addAll(stages);
+        return execute(collectionName, collection -> {
+            Codec<DynamicDocument> codec = collection.getCodecRegistry().get(DynamicDocument.class);
+            List<T> results = new ArrayList<>();
+            for (RawBsonDocument raw : collection.withDocumentClass(RawBsonDocument.class).aggregate(pipeline).allowDiskUse(true)) {
+                results.add(mapper.apply(raw.decode(codec), raw));
+            }
+            return results;
+        });
+    }
+
+    // Sets the audit timestamps like MongoTemplate#save would and assigns an id
+    public DynamicDocument insert(String collectionName, DynamicDocument document) {
+        LocalDateTime now = LocalDateTime.now();
+        if (document.getCreatedAt() == null) {
+            document.setCreatedAt(now);
+        }
+        document.setUpdatedAt(now);
+        return execute(collectionName, collection -> {
+            collection.insertOne(document);
+            return document;
+        });
+    }
+
+    private <T> FindIterable<T> findIterable(MongoCollection<T> collection, Query query) {
+        FindIterable<T> iterable = collection.find(queryMapper.getMappedObject(query.getQueryObject(), entity));
+        Document sort = query.getSortObject();
+        if (!sort.isEmpty()) {
+            iterable.sort(queryMapper.getMappedSort(sort, entity));
+        }
+        Document fields = query.getFieldsObject();
+        if (!fields.isEmpty()) {
+            iterable.projection(queryMapper.getMappedFields(fields, entity));
+        }
+        if (query.getLimit() > 0) {
+            iterable.limit(query.getLimit());
+        }
+        if (query.getSkip() > 0) {
+            iterable.skip((int) query.getSkip());
+        }
+        Integer batchSize = query.getMeta().getCursorBatchSize();
+        if (batchSize != null) {
+            iterable.batchSize(batchSize);
+        }
+        return iterable;
+    }
+
+    private <T> T execute(String collectionName, Function<MongoCollection<DynamicDocument>, T> action) {
+        CodecRegistry registry = schemaCache.find(collectionName)
+                .map(schema -> schemaRegistries.get(schema,
+                        key -> withCodec(new DynamicDocumentCodec(baseRegistry, key.getFields()))))
+                .orElse(schemalessRegistry);
+        return mongoTemplate.execute(collectionName, collection ->
+                action.apply(collection.withCodecRegistry(registry).withDocumentClass(DynamicDocument.class)));
+    }
+
+    private CodecRegistry withCodec(DynamicDocumentCodec codec) {
+        return CodecRegistries.fromRegistries(CodecRegistries.fromCodecs(codec), baseRegistry);
+    }
+}
@@ -0,0 +1,240 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts textual values (CSV cells, query-string parameters) to the Java type declared
+ * by a field definition. Values that cannot be converted are returned unchanged so that
+ * DataValidationService reports them with its usual messages. Documents are brought to their
+ * canonical stored types with {@link #normalize} before they are written, so that a field
+ * holds one BSON type that range queries, sorting and indexes can rely on; {@link #convert}
+ * does the same for a single value and fails instead of passing it through.
+ */
+@Component
+public class FieldTypeCoercer {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Object coerce(Object value, FieldDefinition field) {
+        if (!(value instanceof String) || field == null || field.getType() == null) {
+            return value;
+        }
+
+        String text = ((String) value).trim();
+        switch (field.getType().toUpperCase()) {
+            case "INTEGER":
+                try {
+                    return Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    return value;
+                }
+            case "DOUBLE":
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    return value;
+                }
+            case "BOOLEAN":
+                if (text.equalsIgnoreCase("true")) return Boolean.TRUE;
+                if (text.equalsIgnoreCase("false")) return Boolean.FALSE;
+                return value;
+            case "DATE":
+                Date date = parseDate(text);
+                return date == null ? value : date;
+            case "OBJECT":
+            case "ARRAY":
+                if (text.startsWith("{") || text.startsWith("[")) {
+                    try {
+                        return objectMapper.readValue(text, Object.class);
+                    } catch (JsonProcessingException e) {
+                        return value;
+                    }
+                }
+                return value;
+            default:
+                return value;
+        }
+    }
+
+    /**
+     * Returns the document with every schema field converted to its canonical type: INTEGER as
+     * int32/int64, DOUBLE as double, BOOLEAN as boolean, DATE as a date and OBJECT fields with
+     * their nested field definitions applied. Values that cannot be converted are kept for
+     * validation to report. The map is copied only when a value changes.
+     */
+    public Map<String, Object> normalize(Map<String, Object> data, List<FieldDefinition> fields) {
+        if (data == null || fields == null) {
+            return data;
+        }
+        Map<String, Object> normalized = data;
+        for (FieldDefinition field : fields) {
+            Object value = data.get(field.getName());
+            if (value == null) {
+                continue;
+            }
+            Object canonical;
+            try {
+                canonical = convert(value, field);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (canonical != value) {
+                if (normalized == data) {
+                    normalized = new LinkedHashMap<>(data);
+                }
+                normalized.put(field.getName(), canonical);
+            }
+        }
+        return normalized;
+    }
+
+    // Whether a stored value already has the Java type MongoDB decodes the declared type to; null always does
+    public boolean isCanonical(Object value, String type) {
+        if (value == null || type == null) {
+            return true;
+        }
+        switch (type.toUpperCase()) {
+            case "STRING": return value instanceof String;
+            case "INTEGER": return value instanceof Integer || value instanceof Long;
+            case "DOUBLE": return value instanceof Double;
+            case "BOOLEAN": return value instanceof Boolean;
+            case "OBJECT": return value instanceof Map;
+            case "ARRAY": return value instanceof List;
+            case "DATE": return value instanceof Date;
+            default: return true;
+        }
+    }
+
+    /**
+     * Converts a stored value to the declared type of the field, e.g. after the field's type
+     * was changed in the schema. Throws IllegalArgumentException when the value has no
+     * lossless representation in that type, such as 4.5 for an INTEGER field. Nested fields of
+     * an OBJECT are normalized as far as they can be.
+     */
+    @SuppressWarnings("unchecked")
+    public Object convert(Object value, FieldDefinition field) {
+        String type = field.getType() == null ? "" : field.getType().toUpperCase();
+        if (value != null && type.equals("OBJECT") && field.getNestedFields() != null) {
+            Object object = value instanceof String ? coerce(value, field) : value;
+            if (object instanceof Map) {
+                return normalize((Map<String, Object>) object, field.getNestedFields());
+            }
+        } else if (isCanonical(value, type)) {
+            return value;
+        }
+        switch (type) {
+            case "STRING":
+                if (value instanceof Number || value instanceof Boolean) {
+                    return String.valueOf(value);
+                }
+                break;
+            case "INTEGER":
+                Object number = value instanceof String ? parseNumber(((String) value).trim()) : value;
+                if (number instanceof Long) {
+                    return number;
+                }
+                if (number instanceof Number) {
+                    double d = ((Number) number).doubleValue();
+                    if (d == Math.rint(d) && d >= Long.MIN_VALUE && d <= Long.MAX_VALUE) {
+                        return (long) d;
+                    }
+                }
+                break;
+            case "DOUBLE":
+                Object parsed = value instanceof String ? parseNumber(((String) value).trim()) : value;
+                if (parsed instanceof Number) {
+                    return ((Number) parsed).doubleValue();
+                }
+                break;
+            case "DATE":
+                Date date = toDate(value);
+                if (date != null) {
+                    return date;
+                }
+                break;
+            default:
+                Object coerced = coerce(value, field);
+                if (isCanonical(coerced, type)) {
+                    return coerced;
+                }
+        }
+        throw new IllegalArgumentException("Cannot convert " + describe(value) + " to " + type);
+    }
+
+    // The instant a DATE value stands for, or null if it is not a date
+    static Date toDate(Object value) {
+        if (value instanceof Date) {
+            return (Date) value;
+        }
+        if (value instanceof String) {
+            return parseDate(((String) value).trim());
+        }
+        if (value instanceof Instant) {
+            return Date.from((Instant) value);
+        }
+        if (value instanceof OffsetDateTime) {
+            return Date.from(((OffsetDateTime) value).toInstant());
+        }
+        if (value instanceof ZonedDateTime) {
+            return Date.from(((ZonedDateTime) value).toInstant());
+        }
+        // Local values are placed in the system zone, as DynamicDocumentCodec writes them
+        if (value instanceof LocalDateTime) {
+            return Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof LocalDate) {
+            return Date.from(((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+        return null;
+    }
+
+    // ISO-8601 dates and date-times; text without an offset is read as UTC
+    private static Date parseDate(String text) {
+        try {
+            if (text.length() == 10) {
+                return Date.from(LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant());
+            }
+            TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(text, OffsetDateTime::from, LocalDateTime::from);
+            return parsed instanceof OffsetDateTime
+                    ? Date.from(((OffsetDateTime) parsed).toInstant())
+                    : Date.from(((LocalDateTime) parsed).toInstant(ZoneOffset.UTC));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Object parseNumber(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException notANumber) {
+                return null;
+            }
+        }
+    }
+
+    private static String describe(Object value) {
+        return value instanceof String ? "\"" + value + "\"" : value.getClass().getSimpleName() + " " + value;
+    }
+}
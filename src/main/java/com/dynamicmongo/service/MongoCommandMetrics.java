@@ -0,0 +1,64 @@
+package com.dynamicmongo.service;
+
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver-level latency of every MongoDB command as mongodb.driver.commands, tagged with the
+ * command name, the collection (bounded by {@link CollectionMetrics}) and the status.
+ */
+@Component
+public class MongoCommandMetrics implements CommandListener {
+
+    // Collection of each in-flight command, keyed by request id
+    private final Map<Integer, String> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CollectionMetrics collectionMetrics;
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // getMore names its collection separately; every other command names it as its value
+        BsonValue target = "getMore".equals(event.getCommandName())
+                ? event.getCommand().get("collection")
+                : event.getCommand().get(event.getCommandName());
+        if (target != null && target.isString()) {
+            inFlight.put(event.getRequestId(), target.asString().getValue());
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event, "SUCCESS", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event, "FAILED", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(CommandEvent event, String status, long elapsedNanos) {
+        String collectionName = inFlight.remove(event.getRequestId());
+        Timer.builder("mongodb.driver.commands")
+                .description("Latency of MongoDB commands")
+                .tag("command", event.getCommandName())
+                .tag("collection", collectionName == null ? "none" : collectionMetrics.collectionTag(collectionName))
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,207 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Publishes outbox events to Kafka, one topic per collection ({@code outbox.topic-prefix} plus
+ * the collection name), keyed by document id so every change to a document lands on the same
+ * partition in outbox order. A batch is sent without waiting on individual records, letting
+ * the producer's linger and compression settings group them, and is marked published up to
+ * the first failed send; the rest is retried on the next poll, so delivery is at-least-once.
+ * Only the instance holding the relay lease publishes.
+ */
+@Service
+public class OutboxRelay {
+
+    static final String LEASE_COLLECTION = "outbox_lease";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String LEASE_ID = "relay";
+    private static final Pattern ILLEGAL_TOPIC_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private final String owner = UUID.randomUUID().toString();
+    // Age of the oldest unpublished event as of the last poll
+    private final AtomicLong lagMillis = new AtomicLong();
+    private ScheduledExecutorService executor;
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Timer batchTimer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${spring.kafka.bootstrap-servers:}")
+    private String bootstrapServers;
+
+    @Value("${outbox.topic-prefix:dynamic-mongo.changes.}")
+    private String topicPrefix;
+
+    @Value("${outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.poll-interval:500ms}")
+    private Duration pollInterval;
+
+    @Value("${outbox.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    @Value("${outbox.lease-ttl:30s}")
+    private Duration leaseTtl;
+
+    @PostConstruct
+    void init() {
+        if (meterRegistry != null) {
+            publishedCounter = Counter.builder("outbox.events.published").register(meterRegistry);
+            failedCounter = Counter.builder("outbox.events.failed").register(meterRegistry);
+            batchTimer = Timer.builder("outbox.relay.batch").register(meterRegistry);
+            Gauge.builder("outbox.relay.lag", lagMillis, lag -> lag.get() / 1000.0)
+                    .baseUnit("seconds")
+                    .description("Age of the oldest outbox event not yet published")
+                    .register(meterRegistry);
+        }
+        if (!enabled) {
+            return;
+        }
+        if (bootstrapServers == null || bootstrapServers.isBlank()) {
+            log.warn("Outbox is enabled but spring.kafka.bootstrap-servers is empty; events will not be relayed");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("outbox-relay-"));
+        executor.scheduleWithFixedDelay(this::drain, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted() && relayBatch() == batchSize) {
+                // Keep going while full batches are waiting
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay failed", e);
+        }
+    }
+
+    // Publishes one batch of pending events and returns how many were marked published
+    int relayBatch() {
+        if (!acquireLease()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Query pending = Query.query(Criteria.where("publishedAt").is(null))
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(batchSize);
+        List<OutboxEvent> events = mongoTemplate.find(pending, OutboxEvent.class, OutboxService.COLLECTION);
+        if (events.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            DocumentChange change = event.getChange();
+            sends.add(kafkaTemplate.send(topicFor(change.getCollectionName()), change.getId(), change));
+        }
+
+        List<String> published = new ArrayList<>();
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                published.add(events.get(i).getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Publishing outbox event {} failed; retrying from it on the next poll", events.get(i).getId(), e);
+                if (meterRegistry != null) {
+                    failedCounter.increment();
+                }
+                break;
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!published.isEmpty()) {
+            mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(published)),
+                    Update.update("publishedAt", now), OutboxEvent.class, OutboxService.COLLECTION);
+        }
+        OutboxEvent oldest = published.size() < events.size()
+                ? events.get(published.size())
+                : mongoTemplate.findOne(Query.query(Criteria.where("publishedAt").is(null))
+                        .with(Sort.by(Sort.Direction.ASC, "id")), OutboxEvent.class, OutboxService.COLLECTION);
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest.getCreatedAt(), now).toMillis()));
+        if (meterRegistry != null) {
+            publishedCounter.increment(published.size());
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return published.size();
+    }
+
+    String topicFor(String collectionName) {
+        return topicPrefix + ILLEGAL_TOPIC_CHARS.matcher(collectionName).replaceAll("_");
+    }
+
+    // Takes or renews the relay lease; fails while another instance holds an unexpired one
+    private boolean acquireLease() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+                .orOperator(Criteria.where("owner").is(owner), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(leaseTtl));
+        try {
+            return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, LEASE_COLLECTION) != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.OutboxEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Records document changes in the {@value #COLLECTION} collection so {@link OutboxRelay} can
+ * publish them to Kafka. With outbox.transactional the document write and its outbox record
+ * commit in one MongoDB transaction, which needs a replica set; without it the record is
+ * written right after the document, so a crash in between loses that one event.
+ */
+@Service
+public class OutboxService {
+
+    public static final String COLLECTION = "outbox_events";
+
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean indexesEnsured;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoDatabaseFactory databaseFactory;
+
+    @Value("${outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${outbox.transactional:false}")
+    private boolean transactional;
+
+    // How long published events are kept before the TTL index removes them
+    @Value("${outbox.retention:7d}")
+    private Duration retention;
+
+    @PostConstruct
+    void init() {
+        if (enabled && transactional) {
+            transactionTemplate = new TransactionTemplate(new MongoTransactionManager(databaseFactory));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether write() runs in a transaction, in which case a write error rolls back everything it did
+    public boolean isTransactional() {
+        return transactionTemplate != null;
+    }
+
+    // Runs a document write together with the outbox records it adds
+    public <T> T write(Supplier<T> work) {
+        if (transactionTemplate == null) {
+            return work.get();
+        }
+        // Collections cannot be created inside a transaction before MongoDB 4.4
+        ensureIndexes();
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    public void record(DocumentChange change) {
+        if (!enabled) {
+            return;
+        }
+        ensureIndexes();
+        mongoTemplate.insert(new OutboxEvent(change), COLLECTION);
+    }
+
+    // Records the changes of a bulk write with a single insert
+    public void recordAll(List<DocumentChange> changes) {
+        if (!enabled || changes.isEmpty()) {
+            return;
+        }
+        ensureIndexes();
+        mongoTemplate.insert(changes.stream().map(OutboxEvent::new).toList(), COLLECTION);
+    }
+
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(COLLECTION);
+        indexOps.ensureIndex(new Index().on("publishedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                .named("outbox_pending"));
+        indexOps.ensureIndex(new Index().on("publishedAt", Sort.Direction.ASC).expire(retention)
+                .named("outbox_retention"));
+        indexesEnsured = true;
+    }
+}
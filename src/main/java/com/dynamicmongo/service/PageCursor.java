@@ -0,0 +1,48 @@
+package com.dynamicmongo.service;
+
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key value and id of the last document on a page,
+ * bound to the sort it was produced for. Encoded as base64url extended JSON so
+ * BSON types (ObjectId, dates, longs) survive the round trip.
+ */
+final class PageCursor {
+
+    private final String sort;
+    private final Object sortValue;
+    private final String lastId;
+
+    PageCursor(String sort, Object sortValue, String lastId) {
+        this.sort = sort;
+        this.sortValue = sortValue;
+        this.lastId = lastId;
+    }
+
+    String getSort() { return sort; }
+    Object getSortValue() { return sortValue; }
+    String getLastId() { return lastId; }
+
+    String encode() {
+        Document document = new Document("s", sort).append("v", sortValue).append("id", lastId);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String token) {
+        try {
+            String json = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            Document document = Document.parse(json);
+            String lastId = document.getString("id");
+            if (lastId == null) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new PageCursor(document.getString("s"), document.get("v"), lastId);
+        } catch (IllegalArgumentException | JsonParseException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.QueryFilter;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a {@link QueryFilter} tree into MongoDB criteria. Operands are coerced to the
+ * type declared by the schema so that e.g. "999.99" matches a stored double and range
+ * predicates on indexed fields stay index-backed. Fields that are not part of the schema
+ * are queried with their values as given.
+ */
+@Component
+public class QueryCriteriaBuilder {
+
+    public static final int MAX_CONDITIONS = 100;
+    public static final int MAX_IN_VALUES = 1000;
+
+    // createdAt and updatedAt are stored as BSON dates, like DATE fields
+    private static final FieldDefinition TIMESTAMP_FIELD = new FieldDefinition("timestamp", "DATE", false);
+
+    @Autowired
+    private FieldTypeCoercer coercer;
+
+    public Criteria build(QueryFilter filter, CollectionSchema schema) {
+        Map<String, FieldDefinition> fields = fieldsByName(schema);
+        int[] conditions = {0};
+        return toCriteria(filter, fields, conditions);
+    }
+
+    // Equality on each entry, as used by the query-string filter of the paging endpoint
+    public List<Criteria> equalities(Map<String, Object> criteria, CollectionSchema schema) {
+        Map<String, FieldDefinition> fields = fieldsByName(schema);
+        List<Criteria> conditions = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : criteria.entrySet()) {
+            String path = resolvePath(entry.getKey());
+            conditions.add(Criteria.where(path).is(coerce(entry.getValue(), path, fields)));
+        }
+        return conditions;
+    }
+
+    // Maps a public field name to its document path: id, createdAt and updatedAt are top-level
+    public String resolvePath(String field) {
+        if (field == null || field.isBlank()) {
+            throw new IllegalArgumentException("Field name must not be empty");
+        }
+        if (field.startsWith("$") || field.contains(".$")) {
+            throw new IllegalArgumentException("Invalid field name: " + field);
+        }
+        switch (field) {
+            case "id":
+            case "_id":
+                return "_id";
+            case "createdAt":
+            case "updatedAt":
+                return field;
+            default:
+                return field.startsWith("data.") ? field : "data." + field;
+        }
+    }
+
+    private Criteria toCriteria(QueryFilter filter, Map<String, FieldDefinition> fields, int[] conditions) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter node must not be null");
+        }
+        if (++conditions[0] > MAX_CONDITIONS) {
+            throw new IllegalArgumentException("Filter must not contain more than " + MAX_CONDITIONS + " nodes");
+        }
+
+        boolean hasAnd = filter.getAnd() != null;
+        boolean hasOr = filter.getOr() != null;
+        boolean hasField = filter.getField() != null;
+        if ((hasAnd ? 1 : 0) + (hasOr ? 1 : 0) + (hasField ? 1 : 0) != 1) {
+            throw new IllegalArgumentException("Filter node must have exactly one of 'field', 'and' or 'or'");
+        }
+        if (hasAnd) {
+            return new Criteria().andOperator(children(filter.getAnd(), "and", fields, conditions));
+        }
+        if (hasOr) {
+            return new Criteria().orOperator(children(filter.getOr(), "or", fields, conditions));
+        }
+        return condition(filter, fields);
+    }
+
+    private Criteria[] children(List<QueryFilter> nodes, String operator, Map<String, FieldDefinition> fields,
+                                int[] conditions) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("'" + operator + "' must contain at least one filter");
+        }
+        Criteria[] criteria = new Criteria[nodes.size()];
+        for (int i = 0; i < criteria.length; i++) {
+            criteria[i] = toCriteria(nodes.get(i), fields, conditions);
+        }
+        return criteria;
+    }
+
+    private Criteria condition(QueryFilter filter, Map<String, FieldDefinition> fields) {
+        String path = resolvePath(filter.getField());
+        String op = filter.getOp() == null ? "eq" : filter.getOp().toLowerCase();
+        Object value = filter.getValue();
+        Criteria criteria = Criteria.where(path);
+        switch (op) {
+            case "eq":
+                return criteria.is(coerce(value, path, fields));
+            case "ne":
+                return criteria.ne(coerce(value, path, fields));
+            case "gt":
+                return criteria.gt(requireOperand(value, filter, path, fields));
+            case "gte":
+                return criteria.gte(requireOperand(value, filter, path, fields));
+            case "lt":
+                return criteria.lt(requireOperand(value, filter, path, fields));
+            case "lte":
+                return criteria.lte(requireOperand(value, filter, path, fields));
+            case "in":
+                if (!(value instanceof Collection)) {
+                    throw new IllegalArgumentException("Operator 'in' on " + filter.getField() + " requires a list");
+                }
+                Collection<?> values = (Collection<?>) value;
+                if (values.size() > MAX_IN_VALUES) {
+                    throw new IllegalArgumentException("Operator 'in' accepts at most " + MAX_IN_VALUES + " values");
+                }
+                List<Object> coerced = new ArrayList<>(values.size());
+                values.forEach(item -> coerced.add(coerce(item, path, fields)));
+                return criteria.in(coerced);
+            case "exists":
+                if (value == null) {
+                    return criteria.exists(true);
+                }
+                if (value instanceof Boolean) {
+                    return criteria.exists((Boolean) value);
+                }
+                if ("true".equalsIgnoreCase(value.toString()) || "false".equalsIgnoreCase(value.toString())) {
+                    return criteria.exists(Boolean.parseBoolean(value.toString()));
+                }
+                throw new IllegalArgumentException("Operator 'exists' on " + filter.getField() + " requires a boolean");
+            case "prefix":
+                if (!(value instanceof String) || ((String) value).isEmpty()) {
+                    throw new IllegalArgumentException("Operator 'prefix' on " + filter.getField() + " requires a non-empty string");
+                }
+                // Anchored, case-sensitive and escaped so MongoDB can bound the index scan
+                return criteria.regex("^" + escapeRegex((String) value));
+            default:
+                throw new IllegalArgumentException("Unknown operator: " + filter.getOp());
+        }
+    }
+
+    private Object requireOperand(Object value, QueryFilter filter, String path, Map<String, FieldDefinition> fields) {
+        if (value == null) {
+            throw new IllegalArgumentException("Operator '" + filter.getOp() + "' on " + filter.getField() + " requires a value");
+        }
+        return coerce(value, path, fields);
+    }
+
+    private Object coerce(Object value, String path, Map<String, FieldDefinition> fields) {
+        switch (path) {
+            case "_id":
+                // Stored as an ObjectId when the id is one (see DynamicDocumentCodec), as a string otherwise
+                if (value instanceof String && ObjectId.isValid((String) value)) {
+                    return new ObjectId((String) value);
+                }
+                return value instanceof Number ? value.toString() : value;
+            case "createdAt":
+            case "updatedAt":
+                return coercer.coerce(value, TIMESTAMP_FIELD);
+            default:
+                return coercer.coerce(value, fields.get(path.substring("data.".length())));
+        }
+    }
+
+    private static Map<String, FieldDefinition> fieldsByName(CollectionSchema schema) {
+        Map<String, FieldDefinition> fields = new HashMap<>();
+        if (schema != null && schema.getFields() != null) {
+            schema.getFields().forEach(field -> fields.put(field.getName(), field));
+        }
+        return fields;
+    }
+
+    private static String escapeRegex(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,356 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.IndexBuildStatus;
+import com.dynamicmongo.model.IndexDefinition;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the indexes of a collection in line with its schema. Only indexes whose name starts
+ * with {@link #MANAGED_PREFIX} are owned by the schema; anything else on the collection is
+ * left alone. Reconciliation runs on a single background thread, one collection at a time.
+ */
+@Service
+public class SchemaIndexService {
+
+    public static final String MANAGED_PREFIX = "schema_";
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndexService.class);
+    private static final String PRIMARY_KEY_INDEX = MANAGED_PREFIX + "pk";
+    private static final String TEXT_INDEX = MANAGED_PREFIX + "text";
+    private static final int MAX_SEARCH_WEIGHT = 100;
+    // Second name a managed index alternates to when its definition changes
+    private static final String REPLACEMENT_SUFFIX = "__next";
+
+    private final Map<String, IndexBuildStatus> statuses = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("index-build-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Checks the schema's index declarations; throws IllegalArgumentException for invalid ones
+    public void validate(CollectionSchema schema) {
+        desiredIndexes(schema);
+    }
+
+    public IndexBuildStatus reconcileAsync(CollectionSchema schema) {
+        String collectionName = schema.getCollectionName();
+        List<IndexSpec> desired = desiredIndexes(schema);
+        IndexBuildStatus status = new IndexBuildStatus(collectionName);
+        statuses.put(collectionName, status);
+        executor.execute(() -> reconcile(collectionName, desired, status));
+        return status;
+    }
+
+    public Optional<IndexBuildStatus> getStatus(String collectionName) {
+        return Optional.ofNullable(statuses.get(collectionName));
+    }
+
+    public void forget(String collectionName) {
+        statuses.remove(collectionName);
+    }
+
+    public List<Map<String, Object>> listIndexes(String collectionName) {
+        List<Map<String, Object>> indexes = new ArrayList<>();
+        for (IndexInfo info : mongoTemplate.indexOps(collectionName).getIndexInfo()) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (IndexField field : info.getIndexFields()) {
+                keys.put(field.getKey(), field.isText() ? "text"
+                        : field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+            }
+            Map<String, Object> index = new LinkedHashMap<>();
+            index.put("name", info.getName());
+            index.put("keys", keys);
+            index.put("unique", info.isUnique());
+            index.put("managed", info.getName().startsWith(MANAGED_PREFIX));
+            indexes.add(index);
+        }
+        return indexes;
+    }
+
+    // Per-index access counters since the last mongod restart, from $indexStats
+    public List<Map<String, Object>> indexUsage(String collectionName) {
+        List<Map<String, Object>> usage = new ArrayList<>();
+        List<Document> pipeline = List.of(new Document("$indexStats", new Document()));
+        for (Document stats : mongoTemplate.getCollection(collectionName).aggregate(pipeline)) {
+            Document accesses = stats.get("accesses", Document.class);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", stats.getString("name"));
+            entry.put("keys", stats.get("key"));
+            entry.put("ops", accesses == null ? null : accesses.get("ops"));
+            entry.put("since", accesses == null ? null : accesses.get("since"));
+            entry.put("host", stats.getString("host"));
+            usage.add(entry);
+        }
+        return usage;
+    }
+
+    private void reconcile(String collectionName, List<IndexSpec> desired, IndexBuildStatus status) {
+        status.setState(IndexBuildStatus.State.BUILDING);
+        try {
+            IndexOperations indexOps = mongoTemplate.indexOps(collectionName);
+
+            Map<String, IndexInfo> stale = new LinkedHashMap<>();
+            for (IndexInfo info : indexOps.getIndexInfo()) {
+                if (info.getName().startsWith(MANAGED_PREFIX)) {
+                    stale.put(info.getName(), info);
+                }
+            }
+
+            // A changed index is rebuilt under the other of its two names, so the old one keeps serving
+            // queries until its replacement exists
+            List<IndexSpec> toBuild = new ArrayList<>();
+            for (IndexSpec spec : desired) {
+                String alternateName = spec.name + REPLACEMENT_SUFFIX;
+                IndexInfo primary = stale.get(spec.name);
+                IndexInfo alternate = stale.get(alternateName);
+                if (primary != null && spec.matches(primary)) {
+                    stale.remove(spec.name);
+                } else if (alternate != null && spec.matches(alternate)) {
+                    stale.remove(alternateName);
+                } else {
+                    toBuild.add(primary != null && alternate == null ? spec.named(alternateName) : spec);
+                }
+            }
+
+            for (IndexSpec spec : toBuild) {
+                // MongoDB allows one text index per collection and one index per key pattern, so a stale index
+                // that clashes with the new one has to be dropped before it is built
+                Iterator<IndexInfo> clashing = stale.values().iterator();
+                while (clashing.hasNext()) {
+                    IndexInfo info = clashing.next();
+                    if (info.getName().equals(spec.name) || spec.clashesWith(info)) {
+                        indexOps.dropIndex(info.getName());
+                        status.addDropped(info.getName());
+                        clashing.remove();
+                    }
+                }
+                indexOps.ensureIndex(spec.toIndex());
+                status.addCreated(spec.name);
+            }
+
+            for (String name : stale.keySet()) {
+                indexOps.dropIndex(name);
+                status.addDropped(name);
+            }
+            status.finish(IndexBuildStatus.State.READY, null);
+        } catch (Exception e) {
+            log.warn("Index reconciliation for {} failed", collectionName, e);
+            status.finish(IndexBuildStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    private List<IndexSpec> desiredIndexes(CollectionSchema schema) {
+        List<FieldDefinition> fields = schema.getFields() == null ? List.of() : schema.getFields();
+        Set<String> fieldNames = new HashSet<>();
+        fields.forEach(field -> fieldNames.add(field.getName()));
+
+        List<IndexSpec> specs = new ArrayList<>();
+        List<FieldDefinition> primaryKeys = schema.getPrimaryKeyFields();
+        if (!primaryKeys.isEmpty()) {
+            // Partial so that documents written before the key fields existed do not collide on null
+            Map<String, Integer> keys = new LinkedHashMap<>();
+            primaryKeys.forEach(field -> keys.put("data." + field.getName(), 1));
+            specs.add(new IndexSpec(PRIMARY_KEY_INDEX, keys, true, true));
+        }
+
+        // MongoDB allows one text index per collection, so all searchable fields share it; values are weights
+        Map<String, Integer> searchWeights = new LinkedHashMap<>();
+        for (FieldDefinition field : fields) {
+            if (!field.isSearchable()) {
+                continue;
+            }
+            if (!"STRING".equalsIgnoreCase(field.getType())) {
+                throw new IllegalArgumentException("Only STRING fields can be searchable: " + field.getName());
+            }
+            int weight = field.getSearchWeight() == null ? 1 : field.getSearchWeight();
+            if (weight < 1 || weight > MAX_SEARCH_WEIGHT) {
+                throw new IllegalArgumentException("Search weight for " + field.getName() + " must be between 1 and "
+                        + MAX_SEARCH_WEIGHT);
+            }
+            searchWeights.put("data." + field.getName(), weight);
+        }
+        if (!searchWeights.isEmpty()) {
+            specs.add(IndexSpec.text(TEXT_INDEX, searchWeights));
+        }
+
+        for (FieldDefinition field : fields) {
+            boolean coveredByPrimaryKey = primaryKeys.size() == 1 && primaryKeys.get(0) == field;
+            if (field.isIndexed() && !coveredByPrimaryKey) {
+                specs.add(new IndexSpec(MANAGED_PREFIX + "idx_" + field.getName(),
+                        Map.of("data." + field.getName(), 1), false, false));
+            }
+        }
+
+        if (schema.getIndexes() != null) {
+            for (IndexDefinition definition : schema.getIndexes()) {
+                if (definition.getKeys() == null || definition.getKeys().isEmpty()) {
+                    throw new IllegalArgumentException("Index must declare at least one key");
+                }
+                Map<String, Integer> keys = new LinkedHashMap<>();
+                StringBuilder derivedName = new StringBuilder();
+                for (Map.Entry<String, Integer> key : definition.getKeys().entrySet()) {
+                    String topLevelField = key.getKey().split("\\.", 2)[0];
+                    if (!fieldNames.contains(topLevelField)) {
+                        throw new IllegalArgumentException("Index key refers to unknown field: " + key.getKey());
+                    }
+                    Integer direction = key.getValue();
+                    if (direction == null || (direction != 1 && direction != -1)) {
+                        throw new IllegalArgumentException("Index direction for " + key.getKey() + " must be 1 or -1");
+                    }
+                    keys.put("data." + key.getKey(), direction);
+                    derivedName.append(derivedName.length() == 0 ? "" : "_").append(key.getKey()).append('_').append(direction);
+                }
+                String name = definition.getName() == null || definition.getName().isBlank()
+                        ? derivedName.toString()
+                        : definition.getName();
+                if (name.endsWith(REPLACEMENT_SUFFIX)) {
+                    throw new IllegalArgumentException("Index name must not end with " + REPLACEMENT_SUFFIX + ": " + name);
+                }
+                specs.add(new IndexSpec(MANAGED_PREFIX + name, keys, definition.isUnique(), false));
+            }
+        }
+
+        Set<String> names = new HashSet<>();
+        for (IndexSpec spec : specs) {
+            if (!names.add(spec.name)) {
+                throw new IllegalArgumentException("Duplicate index name: " + spec.name.substring(MANAGED_PREFIX.length()));
+            }
+        }
+        return specs;
+    }
+
+    private static final class IndexSpec {
+        final String name;
+        // Directions, or weights for a text index
+        final Map<String, Integer> keys;
+        final boolean unique;
+        final boolean partialOnExistingKeys;
+        final boolean text;
+
+        IndexSpec(String name, Map<String, Integer> keys, boolean unique, boolean partialOnExistingKeys) {
+            this(name, keys, unique, partialOnExistingKeys, false);
+        }
+
+        private IndexSpec(String name, Map<String, Integer> keys, boolean unique, boolean partialOnExistingKeys,
+                          boolean text) {
+            this.name = name;
+            this.keys = keys;
+            this.unique = unique;
+            this.partialOnExistingKeys = partialOnExistingKeys;
+            this.text = text;
+        }
+
+        static IndexSpec text(String name, Map<String, Integer> weights) {
+            return new IndexSpec(name, weights, false, false, true);
+        }
+
+        IndexSpec named(String otherName) {
+            return new IndexSpec(otherName, keys, unique, partialOnExistingKeys, text);
+        }
+
+        // Whether MongoDB would refuse to build this index next to the existing one
+        boolean clashesWith(IndexInfo info) {
+            return text ? isText(info) : !isText(info) && sameKeys(info);
+        }
+
+        boolean matches(IndexInfo info) {
+            if (text) {
+                // Text index fields come back in no particular order
+                if (!isText(info) || info.getIndexFields().size() != keys.size()) {
+                    return false;
+                }
+                for (IndexField field : info.getIndexFields()) {
+                    Integer weight = keys.get(field.getKey());
+                    if (!field.isText() || weight == null || field.getWeight() == null
+                            || field.getWeight().intValue() != weight) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return !isText(info) && info.isUnique() == unique
+                    && (info.getPartialFilterExpression() != null) == partialOnExistingKeys
+                    && sameKeys(info);
+        }
+
+        private boolean sameKeys(IndexInfo info) {
+            if (info.getIndexFields().size() != keys.size()) {
+                return false;
+            }
+            int position = 0;
+            List<Map.Entry<String, Integer>> expected = new ArrayList<>(keys.entrySet());
+            for (IndexField field : info.getIndexFields()) {
+                Map.Entry<String, Integer> key = expected.get(position++);
+                Sort.Direction direction = key.getValue() == 1 ? Sort.Direction.ASC : Sort.Direction.DESC;
+                if (!field.getKey().equals(key.getKey()) || field.getDirection() != direction) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isText(IndexInfo info) {
+            return info.getIndexFields().stream().anyMatch(IndexField::isText);
+        }
+
+        org.springframework.data.mongodb.core.index.IndexDefinition toIndex() {
+            if (text) {
+                TextIndexDefinition.TextIndexDefinitionBuilder builder = new TextIndexDefinition.TextIndexDefinitionBuilder()
+                        .named(name);
+                keys.forEach((path, weight) -> builder.onField(path, weight.floatValue()));
+                return builder.build();
+            }
+            Index index = new Index().named(name).background();
+            keys.forEach((path, direction) -> index.on(path, direction == 1 ? Sort.Direction.ASC : Sort.Direction.DESC));
+            if (unique) {
+                index.unique();
+            }
+            if (partialOnExistingKeys) {
+                Criteria[] exists = keys.keySet().stream()
+                        .map(path -> Criteria.where(path).exists(true))
+                        .toArray(Criteria[]::new);
+                index.partial(PartialIndexFilter.of(exists.length == 1 ? exists[0] : new Criteria().andOperator(exists)));
+            }
+            return index;
+        }
+    }
+}
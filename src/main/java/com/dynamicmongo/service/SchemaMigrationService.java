@@ -0,0 +1,655 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.SchemaMigration;
+import com.dynamicmongo.model.SchemaMigration.Status;
+import com.dynamicmongo.model.SchemaMigration.Step;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings existing documents in line with an updated schema. A schema update is diffed against
+ * the previous field list into per-field steps (convert to a changed type, fill in a new
+ * default, unset a dropped field, report a new required field), which a background thread
+ * applies in ascending _id batches with unordered bulk updates. Each batch only reads documents
+ * that need a step, writes are guarded by the document version so concurrent edits are re-read
+ * rather than overwritten, and batches are paced to {@code migration.max-documents-per-second}.
+ * Progress and the last _id are checkpointed in the schema_migrations collection after every
+ * batch, so a migration interrupted by a restart resumes where it stopped, on whichever instance
+ * claims it first.
+ */
+@Service
+public class SchemaMigrationService {
+
+    static final String COLLECTION = "schema_migrations";
+    static final int MAX_CONFLICT_RETRIES = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrationService.class);
+    private static final List<Status> ACTIVE = List.of(Status.PENDING, Status.RUNNING);
+    // BSON types a stored value may already have for each declared type
+    private static final Map<String, List<String>> CANONICAL_BSON_TYPES = Map.of(
+            "STRING", List.of("string", "null"),
+            "INTEGER", List.of("int", "long", "null"),
+            "DOUBLE", List.of("double", "null"),
+            "BOOLEAN", List.of("bool", "null"),
+            "DATE", List.of("date", "null"),
+            "OBJECT", List.of("object", "null"),
+            "ARRAY", List.of("array", "null"));
+
+    private final String owner = UUID.randomUUID().toString();
+    private ScheduledExecutorService executor;
+    private volatile boolean indexesEnsured;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private FieldTypeCoercer coercer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${migration.batch-size:500}")
+    private int batchSize;
+
+    @Value("${migration.max-documents-per-second:2000}")
+    private int maxDocumentsPerSecond;
+
+    @Value("${migration.poll-interval:30s}")
+    private Duration pollInterval;
+
+    @Value("${migration.lease-ttl:2m}")
+    private Duration leaseTtl;
+
+    @Value("${migration.retention:30d}")
+    private Duration retention;
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("schema-migration-"));
+        // The first poll picks up migrations left unfinished by a restart
+        executor.scheduleWithFixedDelay(this::runPending, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plans and queues the migration for a schema update. A migration still in progress for the
+     * collection is cancelled and folded into the new one, which is planned from the fields the
+     * unfinished migration started from. Returns empty when no stored document can be affected.
+     */
+    public Optional<SchemaMigration> start(CollectionSchema schema, List<FieldDefinition> previousFields,
+                                           boolean dropRemovedFields) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        ensureIndexes();
+        String collectionName = schema.getCollectionName();
+        List<FieldDefinition> from = previousFields == null ? List.of() : previousFields;
+        Optional<SchemaMigration> unfinished = Optional.ofNullable(mongoTemplate.findOne(
+                Query.query(Criteria.where("collectionName").is(collectionName).and("status").in(ACTIVE))
+                        .with(Sort.by(Sort.Direction.ASC, "createdAt")),
+                SchemaMigration.class, COLLECTION));
+        if (unfinished.isPresent()) {
+            from = unfinished.get().getPreviousFields();
+        }
+
+        List<Step> steps = plan(from, schema.getFields(), dropRemovedFields);
+        unfinished.ifPresent(active -> carryOver(active, steps, schema.getFields()));
+        cancelActive(collectionName, "Superseded by a newer schema update");
+        if (steps.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(queue(collectionName, steps, from));
+    }
+
+    /**
+     * Queues a one-off migration that converts every stored value of the schema's fields to its
+     * canonical type, e.g. for data written before values were normalized on write. Like any
+     * migration it is superseded by a later schema update, which takes over its conversions.
+     */
+    public SchemaMigration startNormalization(CollectionSchema schema) {
+        if (!enabled) {
+            throw new IllegalStateException("Schema migrations are disabled");
+        }
+        ensureIndexes();
+        String collectionName = schema.getCollectionName();
+        boolean running = mongoTemplate.exists(
+                Query.query(Criteria.where("collectionName").is(collectionName).and("status").in(ACTIVE)),
+                SchemaMigration.class, COLLECTION);
+        if (running) {
+            throw new IllegalStateException("A schema migration is already in progress for " + collectionName);
+        }
+        List<Step> steps = new ArrayList<>();
+        for (FieldDefinition field : byName(schema.getFields()).values()) {
+            if (CANONICAL_BSON_TYPES.containsKey(typeOf(field))) {
+                steps.add(convertStep(field));
+            }
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("Collection schema has no fields to normalize: " + collectionName);
+        }
+        return queue(collectionName, steps, schema.getFields());
+    }
+
+    public Optional<SchemaMigration> getMigration(String migrationId) {
+        return Optional.ofNullable(mongoTemplate.findById(migrationId, SchemaMigration.class, COLLECTION));
+    }
+
+    public List<SchemaMigration> getMigrations(String collectionName) {
+        Query query = Query.query(Criteria.where("collectionName").is(collectionName))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"));
+        return mongoTemplate.find(query, SchemaMigration.class, COLLECTION);
+    }
+
+    // The running batch finishes, then the migration stops at its next checkpoint
+    public SchemaMigration cancel(String migrationId) {
+        Query query = Query.query(Criteria.where("_id").is(migrationId).and("status").in(ACTIVE));
+        SchemaMigration cancelled = mongoTemplate.findAndModify(query, cancellation("Cancelled"),
+                FindAndModifyOptions.options().returnNew(true), SchemaMigration.class, COLLECTION);
+        if (cancelled != null) {
+            return cancelled;
+        }
+        return getMigration(migrationId)
+                .orElseThrow(() -> new IllegalArgumentException("Schema migration not found: " + migrationId));
+    }
+
+    /**
+     * Diffs two field lists into migration steps. Fields whose type or nested field types
+     * changed, and new fields, are converted; defaults are filled in where a field gained or changed its default; new
+     * required fields without a default are only reported; removed fields are unset when asked.
+     */
+    List<Step> plan(List<FieldDefinition> previousFields, List<FieldDefinition> fields, boolean dropRemovedFields) {
+        Map<String, FieldDefinition> before = byName(previousFields);
+        Map<String, FieldDefinition> after = byName(fields);
+        List<Step> steps = new ArrayList<>();
+        for (FieldDefinition field : after.values()) {
+            FieldDefinition old = before.get(field.getName());
+            String type = typeOf(field);
+            boolean retyped = old == null || !type.equals(typeOf(old))
+                    || !typeSignature(old.getNestedFields()).equals(typeSignature(field.getNestedFields()));
+            if (retyped && CANONICAL_BSON_TYPES.containsKey(type)) {
+                steps.add(convertStep(field));
+            }
+            if (field.getDefaultValue() != null) {
+                if (old == null || !Objects.equals(old.getDefaultValue(), field.getDefaultValue())) {
+                    steps.add(new Step(field.getName(), Step.Action.DEFAULT, null, field.getDefaultValue()));
+                }
+            } else if (field.isRequired() && (old == null || !old.isRequired())) {
+                steps.add(new Step(field.getName(), Step.Action.REQUIRE, null, null));
+            }
+        }
+        if (dropRemovedFields) {
+            for (String name : before.keySet()) {
+                if (!after.containsKey(name)) {
+                    steps.add(new Step(name, Step.Action.UNSET, null, null));
+                }
+            }
+        }
+        return steps;
+    }
+
+    void runPending() {
+        try {
+            SchemaMigration migration;
+            while (!Thread.currentThread().isInterrupted() && (migration = claim()) != null) {
+                run(migration);
+            }
+        } catch (Exception e) {
+            log.warn("Schema migration poll failed", e);
+        }
+    }
+
+    void run(SchemaMigration migration) {
+        if (migration.getStartedAt() == null) {
+            migration.setStartedAt(LocalDateTime.now());
+        }
+        log.info("Running schema migration {} for {} from _id {}",
+                migration.getId(), migration.getCollectionName(), migration.getCheckpoint());
+        try {
+            int read;
+            do {
+                long start = System.nanoTime();
+                read = migrateBatch(migration);
+                if (!checkpoint(migration)) {
+                    log.info("Schema migration {} was cancelled or taken over by another instance", migration.getId());
+                    return;
+                }
+                throttle(read, start);
+            } while (read == batchSize);
+            finish(migration, Status.COMPLETED, null);
+            log.info("Schema migration {} for {} completed: {} document(s) updated",
+                    migration.getId(), migration.getCollectionName(), migration.getDocumentsUpdated());
+        } catch (InterruptedException e) {
+            // Shutting down: give the migration back so the next instance to start resumes it without waiting for the lease
+            Thread.currentThread().interrupt();
+            release(migration);
+        } catch (Exception e) {
+            log.warn("Schema migration {} for {} failed", migration.getId(), migration.getCollectionName(), e);
+            finish(migration, Status.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Migrates the next batch of documents after the checkpoint and advances it. Documents
+     * whose version changed between the read and the write are re-read and retried a few times
+     * before being counted as conflicted. Returns the number of documents read.
+     */
+    int migrateBatch(SchemaMigration migration) {
+        String collectionName = migration.getCollectionName();
+        Document selection = selection(migration.getSteps());
+        if (migration.getCheckpoint() != null) {
+            selection = new Document("$and", List.of(
+                    new Document("_id", new Document("$gt", migration.getCheckpoint())), selection));
+        }
+        Query query = new BasicQuery(selection, projection(migration.getSteps()))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        List<Document> documents = mongoTemplate.find(query, Document.class, collectionName);
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        migration.addScanned(documents.size());
+
+        List<Document> pending = documents;
+        long updated = 0;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+            Map<Object, Update> updates = new LinkedHashMap<>();
+            Map<Object, Object> versions = new HashMap<>();
+            for (Document document : pending) {
+                Update update = updateFor(document, migration, attempt == 0);
+                if (update != null) {
+                    bulk.updateOne(sameVersion(document), update);
+                    updates.put(document.get("_id"), update);
+                    versions.put(document.get("_id"), document.get("version"));
+                }
+            }
+            if (updates.isEmpty()) {
+                break;
+            }
+            BulkWriteResult result = outboxService.write(() -> {
+                BulkWriteResult written = bulk.execute();
+                outboxService.recordAll(changes(collectionName, migration.getSteps(), updates, versions));
+                return written;
+            });
+            updated += result.getModifiedCount();
+            List<Object> ids = new ArrayList<>(updates.keySet());
+            int unmatched = ids.size() - result.getMatchedCount();
+            if (unmatched == 0) {
+                break;
+            }
+            if (attempt == MAX_CONFLICT_RETRIES) {
+                migration.addConflicted(unmatched);
+                break;
+            }
+            // Some documents were written or deleted since they were read; fetch the ones still needing changes
+            Document stillPending = new Document("$and", List.of(
+                    new Document("_id", new Document("$in", ids)), selection(migration.getSteps())));
+            pending = mongoTemplate.find(new BasicQuery(stillPending, projection(migration.getSteps())),
+                    Document.class, collectionName);
+        }
+
+        migration.addUpdated(updated);
+        migration.setCheckpoint(documents.get(documents.size() - 1).get("_id"));
+        if (updated > 0) {
+            eventPublisher.publishEvent(new CollectionChangedEvent(collectionName));
+        }
+        return documents.size();
+    }
+
+    /**
+     * Outbox events for a migrated batch. The bulk result does not say which documents matched, so
+     * the batch is read back: a document whose version moved since it was read gets an update event
+     * carrying the current values of the fields the migration set or removed.
+     */
+    private List<DocumentChange> changes(String collectionName, List<Step> steps, Map<Object, Update> updates,
+                                         Map<Object, Object> versions) {
+        if (!outboxService.isEnabled()) {
+            return List.of();
+        }
+        Query written = new BasicQuery(new Document("_id", new Document("$in", new ArrayList<>(updates.keySet()))),
+                projection(steps));
+        List<DocumentChange> changes = new ArrayList<>();
+        for (Document current : mongoTemplate.find(written, Document.class, collectionName)) {
+            Object id = current.get("_id");
+            if (Objects.equals(versions.get(id), current.get("version"))) {
+                continue;
+            }
+            Document data = current.get("data") instanceof Document nested ? nested : new Document();
+            Document update = updates.get(id).getUpdateObject();
+            Map<String, Object> fields = new LinkedHashMap<>();
+            List<String> removedFields = new ArrayList<>();
+            if (update.get("$set") instanceof Document set) {
+                for (String path : set.keySet()) {
+                    String field = path.substring("data.".length());
+                    if (data.containsKey(field)) {
+                        fields.put(field, data.get(field));
+                    }
+                }
+            }
+            if (update.get("$unset") instanceof Document unset) {
+                for (String path : unset.keySet()) {
+                    String field = path.substring("data.".length());
+                    if (!data.containsKey(field)) {
+                        removedFields.add(field);
+                    }
+                }
+            }
+            DocumentChange change = new DocumentChange(collectionName, "update", String.valueOf(id));
+            change.setFields(fields);
+            change.setRemovedFields(removedFields);
+            change.setVersion(current.get("version") instanceof Number version ? version.longValue() : null);
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    // The changes one document needs, or null if none; failures are recorded on the migration when record is set
+    Update updateFor(Document document, SchemaMigration migration, boolean record) {
+        Object id = document.get("_id");
+        Document data = document.get("data") instanceof Document nested ? nested : new Document();
+        Update update = new Update();
+        boolean changed = false;
+        for (Step step : migration.getSteps()) {
+            String field = step.getField();
+            String path = "data." + field;
+            Object value = data.get(field);
+            switch (step.getAction()) {
+                case CONVERT:
+                    if (value != null) {
+                        FieldDefinition definition = new FieldDefinition(field, step.getType(), false);
+                        definition.setNestedFields(step.getNestedFields());
+                        try {
+                            Object converted = coercer.convert(value, definition);
+                            if (!converted.equals(value)) {
+                                update.set(path, converted);
+                                changed = true;
+                            }
+                        } catch (IllegalArgumentException e) {
+                            if (record) {
+                                migration.addConversionFailure();
+                                migration.addError(id, field, e.getMessage());
+                            }
+                        }
+                    }
+                    break;
+                case DEFAULT:
+                    if (!data.containsKey(field)) {
+                        update.set(path, step.getValue());
+                        changed = true;
+                    }
+                    break;
+                case UNSET:
+                    if (data.containsKey(field)) {
+                        update.unset(path);
+                        changed = true;
+                    }
+                    break;
+                case REQUIRE:
+                    if (value == null && record) {
+                        migration.addMissingRequired();
+                        migration.addError(id, field, "Required field is missing");
+                    }
+                    break;
+            }
+        }
+        // A new version invalidates cached copies and ETags; updatedAt stays the time of the last user edit
+        return changed ? update.inc("version", 1) : null;
+    }
+
+    // Documents needing at least one step, so batches skip those already in shape
+    private Document selection(List<Step> steps) {
+        List<Document> conditions = new ArrayList<>();
+        for (Step step : steps) {
+            String path = "data." + step.getField();
+            switch (step.getAction()) {
+                case CONVERT:
+                    addConvertConditions(path, step.getType(), step.getNestedFields(), conditions);
+                    break;
+                case DEFAULT:
+                    conditions.add(new Document(path, new Document("$exists", false)));
+                    break;
+                case UNSET:
+                    conditions.add(new Document(path, new Document("$exists", true)));
+                    break;
+                case REQUIRE:
+                    conditions.add(new Document(path, null));
+                    break;
+            }
+        }
+        return new Document("$or", conditions);
+    }
+
+    // Values not stored as their type, including nested fields of an OBJECT at any depth
+    private static void addConvertConditions(String path, String type, List<FieldDefinition> nestedFields,
+                                             List<Document> conditions) {
+        conditions.add(new Document(path, new Document("$exists", true)
+                .append("$not", new Document("$type", CANONICAL_BSON_TYPES.get(type)))));
+        if (type.equals("OBJECT") && nestedFields != null) {
+            for (FieldDefinition nested : nestedFields) {
+                if (CANONICAL_BSON_TYPES.containsKey(typeOf(nested))) {
+                    addConvertConditions(path + "." + nested.getName(), typeOf(nested), nested.getNestedFields(), conditions);
+                }
+            }
+        }
+    }
+
+    private Document projection(List<Step> steps) {
+        Document projection = new Document("_id", 1).append("version", 1);
+        steps.forEach(step -> projection.put("data." + step.getField(), 1));
+        return projection;
+    }
+
+    // Documents written before versioning have no version field
+    private Query sameVersion(Document document) {
+        Object version = document.get("version");
+        Criteria criteria = Criteria.where("_id").is(document.get("_id"));
+        return Query.query(version == null ? criteria.and("version").exists(false) : criteria.and("version").is(version));
+    }
+
+    private void throttle(int documents, long startNanos) throws InterruptedException {
+        if (maxDocumentsPerSecond <= 0 || documents == 0) {
+            return;
+        }
+        long budgetMillis = documents * 1000L / maxDocumentsPerSecond;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        if (budgetMillis > elapsedMillis) {
+            Thread.sleep(budgetMillis - elapsedMillis);
+        }
+    }
+
+    // Takes the oldest queued migration, or a running one whose owner stopped sending heartbeats
+    private SchemaMigration claim() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("status").in(ACTIVE).orOperator(
+                        Criteria.where("owner").is(null),
+                        Criteria.where("owner").is(owner),
+                        Criteria.where("heartbeatAt").lt(now.minus(leaseTtl))))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("status", Status.RUNNING)
+                .set("owner", owner)
+                .set("heartbeatAt", now);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                SchemaMigration.class, COLLECTION);
+    }
+
+    // Saves progress and renews the lease; false once the migration was cancelled or claimed elsewhere
+    private boolean checkpoint(SchemaMigration migration) {
+        Update update = progress(migration).set("heartbeatAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(owned(migration), update, SchemaMigration.class, COLLECTION)
+                .getMatchedCount() > 0;
+    }
+
+    private void finish(SchemaMigration migration, Status status, String message) {
+        migration.setStatus(status);
+        migration.setMessage(message);
+        migration.setFinishedAt(LocalDateTime.now());
+        Update update = progress(migration)
+                .set("status", status)
+                .set("message", message)
+                .set("finishedAt", migration.getFinishedAt())
+                .unset("owner");
+        mongoTemplate.updateFirst(owned(migration), update, SchemaMigration.class, COLLECTION);
+    }
+
+    private void release(SchemaMigration migration) {
+        mongoTemplate.updateFirst(owned(migration), progress(migration).unset("owner"), SchemaMigration.class, COLLECTION);
+    }
+
+    private Query owned(SchemaMigration migration) {
+        return Query.query(Criteria.where("_id").is(migration.getId())
+                .and("owner").is(owner)
+                .and("status").is(Status.RUNNING));
+    }
+
+    private Update progress(SchemaMigration migration) {
+        return new Update()
+                .set("checkpoint", migration.getCheckpoint())
+                .set("startedAt", migration.getStartedAt())
+                .set("documentsScanned", migration.getDocumentsScanned())
+                .set("documentsUpdated", migration.getDocumentsUpdated())
+                .set("documentsConflicted", migration.getDocumentsConflicted())
+                .set("conversionFailures", migration.getConversionFailures())
+                .set("missingRequired", migration.getMissingRequired())
+                .set("errors", migration.getErrors())
+                .set("errorsTruncated", migration.isErrorsTruncated());
+    }
+
+    private void cancelActive(String collectionName, String reason) {
+        mongoTemplate.updateMulti(Query.query(Criteria.where("collectionName").is(collectionName).and("status").in(ACTIVE)),
+                cancellation(reason), SchemaMigration.class, COLLECTION);
+    }
+
+    private Update cancellation(String reason) {
+        return new Update()
+                .set("status", Status.CANCELLED)
+                .set("message", reason)
+                .set("finishedAt", LocalDateTime.now())
+                .unset("owner");
+    }
+
+    private SchemaMigration queue(String collectionName, List<Step> steps, List<FieldDefinition> previousFields) {
+        SchemaMigration migration = new SchemaMigration(collectionName, steps, new ArrayList<>(previousFields));
+        migration.setCollectionSize(mongoTemplate.estimatedCount(collectionName));
+        SchemaMigration saved = mongoTemplate.insert(migration, COLLECTION);
+        log.info("Queued schema migration {} for {}: {} step(s)", saved.getId(), collectionName, steps.size());
+        if (executor != null) {
+            executor.execute(this::runPending);
+        }
+        return saved;
+    }
+
+    // Conversions and drops of the superseded migration still apply to the documents it did not reach
+    private void carryOver(SchemaMigration superseded, List<Step> steps, List<FieldDefinition> fields) {
+        Map<String, FieldDefinition> current = byName(fields);
+        for (Step step : superseded.getSteps()) {
+            FieldDefinition field = current.get(step.getField());
+            boolean planned = steps.stream()
+                    .anyMatch(s -> s.getAction() == step.getAction() && s.getField().equals(step.getField()));
+            if (planned) {
+                continue;
+            }
+            if (step.getAction() == Step.Action.UNSET && field == null) {
+                steps.add(step);
+            } else if (step.getAction() == Step.Action.CONVERT && field != null
+                    && CANONICAL_BSON_TYPES.containsKey(typeOf(field))) {
+                steps.add(convertStep(field));
+            }
+        }
+    }
+
+    private static Step convertStep(FieldDefinition field) {
+        Step step = new Step(field.getName(), Step.Action.CONVERT, typeOf(field), null);
+        step.setNestedFields(field.getNestedFields());
+        return step;
+    }
+
+    // Nested field names and types, to tell whether an OBJECT's stored shape changed
+    private static String typeSignature(List<FieldDefinition> fields) {
+        if (fields == null) {
+            return "";
+        }
+        StringBuilder signature = new StringBuilder();
+        for (FieldDefinition field : fields) {
+            signature.append(field.getName()).append(':').append(typeOf(field))
+                    .append('{').append(typeSignature(field.getNestedFields())).append('}');
+        }
+        return signature.toString();
+    }
+
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(COLLECTION);
+        indexOps.ensureIndex(new Index().on("collectionName", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC)
+                .named("migration_collection"));
+        indexOps.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC)
+                .named("migration_queue"));
+        indexOps.ensureIndex(new Index().on("finishedAt", Sort.Direction.ASC).expire(retention)
+                .named("migration_retention"));
+        indexesEnsured = true;
+    }
+
+    private static Map<String, FieldDefinition> byName(List<FieldDefinition> fields) {
+        Map<String, FieldDefinition> byName = new LinkedHashMap<>();
+        if (fields != null) {
+            fields.forEach(field -> byName.put(field.getName(), field));
+        }
+        return byName;
+    }
+
+    private static String typeOf(FieldDefinition field) {
+        return field.getType() == null ? "" : field.getType().toUpperCase();
+    }
+}
@@ -0,0 +1,243 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A collection schema compiled into an immutable array of field checks. Type names and
+ * validation rules are resolved once at compile time; error messages are only built when a
+ * check actually fails.
+ */
+final class ValidationPlan {
+
+    private final FieldCheck[] checks;
+
+    private ValidationPlan(FieldCheck[] checks) {
+        this.checks = checks;
+    }
+
+    static ValidationPlan compile(CollectionSchema schema) {
+        List<FieldDefinition> fields = schema.getFields();
+        if (fields == null) {
+            return new ValidationPlan(new FieldCheck[0]);
+        }
+        FieldCheck[] checks = new FieldCheck[fields.size()];
+        for (int i = 0; i < checks.length; i++) {
+            checks[i] = new FieldCheck(fields.get(i));
+        }
+        return new ValidationPlan(checks);
+    }
+
+    void validate(Map<String, Object> data, boolean failFast, List<String> errors) {
+        for (FieldCheck check : checks) {
+            if (!check.validate(data.get(check.name), errors) && failFast) {
+                return;
+            }
+        }
+    }
+
+    // Validates only the fields present in changes; a null value stands for a field being removed
+    void validateFields(Map<String, Object> changes, boolean failFast, List<String> errors) {
+        for (FieldCheck check : checks) {
+            if (changes.containsKey(check.name) && !check.validate(changes.get(check.name), errors) && failFast) {
+                return;
+            }
+        }
+    }
+
+    private enum ValueType {
+        STRING, INTEGER, DOUBLE, BOOLEAN, DATE, UNCHECKED;
+
+        static ValueType of(String type) {
+            if (type == null) return UNCHECKED;
+            switch (type.toUpperCase()) {
+                case "STRING": return STRING;
+                case "INTEGER": return INTEGER;
+                case "DOUBLE": return DOUBLE;
+                case "BOOLEAN": return BOOLEAN;
+                case "DATE": return DATE;
+                default: return UNCHECKED;
+            }
+        }
+    }
+
+    private static final class FieldCheck {
+        private static final int NO_LENGTH = -1;
+
+        final String name;
+        private final boolean required;
+        private final ValueType type;
+        private final int minLength;
+        private final int maxLength;
+        private final double min;
+        private final double max;
+
+        FieldCheck(FieldDefinition field) {
+            this.name = field.getName();
+            this.required = field.isRequired();
+            this.type = ValueType.of(field.getType());
+
+            Map<String, Object> rules = field.getValidation();
+            this.minLength = rules == null ? NO_LENGTH : intRule(rules.get("minLength"));
+            this.maxLength = rules == null ? NO_LENGTH : intRule(rules.get("maxLength"));
+            this.min = rules == null ? Double.NaN : doubleRule(rules.get("min"));
+            this.max = rules == null ? Double.NaN : doubleRule(rules.get("max"));
+        }
+
+        // Returns false if the value violated at least one rule
+        boolean validate(Object value, List<String> errors) {
+            if (value == null || (value instanceof String && isBlank((String) value))) {
+                if (required) {
+                    errors.add("Field '" + name + "' is required");
+                    return false;
+                }
+                if (value == null) {
+                    return true;
+                }
+            }
+
+            boolean valid = checkType(value, errors);
+
+            if (value instanceof String) {
+                int length = ((String) value).length();
+                if (minLength != NO_LENGTH && length < minLength) {
+                    errors.add("Field '" + name + "' must be at least " + minLength + " characters");
+                    valid = false;
+                }
+                if (maxLength != NO_LENGTH && length > maxLength) {
+                    errors.add("Field '" + name + "' must be at most " + maxLength + " characters");
+                    valid = false;
+                }
+            } else if (value instanceof Number) {
+                double number = ((Number) value).doubleValue();
+                if (!Double.isNaN(min) && number < min) {
+                    errors.add("Field '" + name + "' must be at least " + min);
+                    valid = false;
+                }
+                if (!Double.isNaN(max) && number > max) {
+                    errors.add("Field '" + name + "' must be at most " + max);
+                    valid = false;
+                }
+            }
+            return valid;
+        }
+
+        private boolean checkType(Object value, List<String> errors) {
+            switch (type) {
+                case STRING:
+                    if (!(value instanceof String)) {
+                        errors.add("Field '" + name + "' must be a string");
+                        return false;
+                    }
+                    return true;
+                case INTEGER:
+                    if (!(value instanceof Integer) && !(value instanceof Long) && !isIntLiteral(value.toString())) {
+                        errors.add("Field '" + name + "' must be an integer");
+                        return false;
+                    }
+                    return true;
+                case DOUBLE:
+                    if (!(value instanceof Double) && !(value instanceof Float) && !isDoubleLiteral(value.toString())) {
+                        errors.add("Field '" + name + "' must be a number");
+                        return false;
+                    }
+                    return true;
+                case BOOLEAN:
+                    if (!(value instanceof Boolean)
+                            && !"true".equalsIgnoreCase(value.toString())
+                            && !"false".equalsIgnoreCase(value.toString())) {
+                        errors.add("Field '" + name + "' must be a boolean");
+                        return false;
+                    }
+                    return true;
+                case DATE:
+                    if (FieldTypeCoercer.toDate(value) == null) {
+                        errors.add("Field '" + name + "' must be an ISO-8601 date");
+                        return false;
+                    }
+                    return true;
+                default:
+                    return true;
+            }
+        }
+
+        private static int intRule(Object rule) {
+            if (rule instanceof Number) return ((Number) rule).intValue();
+            if (rule instanceof String && isIntLiteral((String) rule)) return Integer.parseInt((String) rule);
+            return NO_LENGTH;
+        }
+
+        private static double doubleRule(Object rule) {
+            if (rule instanceof Number) return ((Number) rule).doubleValue();
+            if (rule instanceof String && isDoubleLiteral((String) rule)) return Double.parseDouble((String) rule);
+            return Double.NaN;
+        }
+    }
+
+    // Same trimming rule as String.trim(): every char <= ' ' counts as blank
+    static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+
+    // Accepts exactly what Integer.parseInt accepts, without throwing
+    static boolean isIntLiteral(String text) {
+        int length = text.length();
+        if (length == 0) return false;
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (length == 1) return false;
+            i = 1;
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return false;
+            value = value * 10 + (c - '0');
+            if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Accepts decimal and scientific notation plus NaN/Infinity, surrounded by optional whitespace
+    static boolean isDoubleLiteral(String text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (start == end) return false;
+
+        int i = start;
+        if (text.charAt(i) == '-' || text.charAt(i) == '+') i++;
+        if (text.startsWith("NaN", i) || text.startsWith("Infinity", i)) {
+            return i + (text.charAt(i) == 'N' ? 3 : 8) == end;
+        }
+
+        int digits = 0;
+        while (i < end && isDigit(text.charAt(i))) { i++; digits++; }
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(text.charAt(i))) { i++; digits++; }
+        }
+        if (digits == 0) return false;
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+            int exponentDigits = 0;
+            while (i < end && isDigit(text.charAt(i))) { i++; exponentDigits++; }
+            if (exponentDigits == 0) return false;
+        }
+        return i == end;
+    }
+}
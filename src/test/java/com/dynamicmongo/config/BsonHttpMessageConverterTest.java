@@ -0,0 +1,54 @@
+package com.dynamicmongo.config;
+
+import com.dynamicmongo.model.DocumentPage;
+import com.dynamicmongo.model.DynamicDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BsonHttpMessageConverterTest {
+
+    private final BsonHttpMessageConverter converter = new BsonHttpMessageConverter();
+
+    @Test
+    void writesPageAsOneBsonDocument() throws Exception {
+        DynamicDocument document = new DynamicDocument(Map.of("name", "Widget", "price", 10.5), "products");
+        document.setId(new ObjectId().toHexString());
+        document.setVersion(2);
+        DocumentPage page = new DocumentPage(List.of(document), 50, "id,asc", "next");
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(page, BsonHttpMessageConverter.APPLICATION_BSON, message);
+
+        byte[] bytes = message.getBodyAsBytes();
+        assertEquals(bytes.length, message.getHeaders().getContentLength());
+        RawBsonDocument bson = new RawBsonDocument(bytes);
+        assertEquals(50, bson.getInt32("limit").getValue());
+        assertEquals("next", bson.getString("nextCursor").getValue());
+        assertTrue(bson.getBoolean("hasMore").getValue());
+        BsonDocument item = bson.getArray("items").get(0).asDocument();
+        assertEquals(BsonType.OBJECT_ID, item.get("_id").getBsonType());
+        assertEquals(10.5, item.getDocument("data").getDouble("price").getValue());
+        assertEquals(2L, item.getInt64("version").getValue());
+    }
+
+    @Test
+    void writesErrorBodiesButNeverReads() throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(Map.of("error", "Collection schema not found: products"),
+                BsonHttpMessageConverter.APPLICATION_BSON, message);
+
+        assertEquals("Collection schema not found: products",
+                new RawBsonDocument(message.getBodyAsBytes()).getString("error").getValue());
+        assertFalse(converter.canRead(Map.class, BsonHttpMessageConverter.APPLICATION_BSON));
+    }
+}
@@ -0,0 +1,71 @@
+package com.dynamicmongo.config;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.repository.CollectionSchemaRepository;
+import com.dynamicmongo.service.CollectionMetrics;
+import com.dynamicmongo.service.CollectionSchemaCache;
+import com.dynamicmongo.service.MongoCommandMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Wires the MongoDB client together with the beans its command listener depends on, with circular
+ * references forbidden as in the application, so a cycle back to MongoTemplate fails here.
+ */
+class MongoConfigContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withAllowCircularReferences(false)
+            .withUserConfiguration(MongoConfig.class, MongoCommandMetrics.class, CollectionMetrics.class,
+                    CollectionSchemaCache.class, TestBeans.class);
+
+    @Test
+    void loadsWithoutBeanCycleAndTagsCollectionsWithASchema() {
+        contextRunner.run(context -> {
+            assertNull(context.getStartupFailure());
+
+            CollectionMetrics metrics = context.getBean(CollectionMetrics.class);
+            assertEquals(CollectionMetrics.OTHER_COLLECTION, metrics.collectionTag("products"));
+            context.getBean(CollectionSchemaCache.class).find("products");
+            assertEquals("products", metrics.collectionTag("products"));
+        });
+    }
+
+    @Configuration
+    @EnableCaching
+    static class TestBeans {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CollectionSchemaCache.CACHE_NAME);
+        }
+
+        // Depends on MongoTemplate like the real repository factory bean does
+        @Bean
+        CollectionSchemaRepository collectionSchemaRepository(MongoTemplate mongoTemplate) {
+            CollectionSchemaRepository repository = mock(CollectionSchemaRepository.class);
+            when(repository.findByCollectionName("products")).thenReturn(Optional.of(new CollectionSchema("products", List.of())));
+            return repository;
+        }
+    }
+}
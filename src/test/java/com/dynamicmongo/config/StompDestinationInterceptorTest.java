@@ -0,0 +1,71 @@
+package com.dynamicmongo.config;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.service.CollectionSchemaCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StompDestinationInterceptorTest {
+
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private StompDestinationInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        CollectionSchemaCache schemaCache = mock(CollectionSchemaCache.class);
+        when(schemaCache.find(anyString())).thenReturn(Optional.empty());
+        when(schemaCache.find("products")).thenReturn(Optional.of(
+                new CollectionSchema("products", List.of(new FieldDefinition("name", "STRING", true)))));
+        interceptor = new StompDestinationInterceptor();
+        ReflectionTestUtils.setField(interceptor, "schemaCache", schemaCache);
+    }
+
+    @Test
+    void rejectsClientSends() {
+        MessageDeliveryException error = assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.SEND, "/topic/collections/products"), channel));
+        assertEquals("Sending to /topic/collections/products is not allowed", error.getMessage());
+    }
+
+    @Test
+    void onlyAllowsSubscriptionsToCollectionsWithASchema() {
+        Message<byte[]> subscribe = frame(StompCommand.SUBSCRIBE, "/topic/collections/products");
+        assertSame(subscribe, interceptor.preSend(subscribe, channel));
+
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/collections/missing"), channel));
+        assertThrows(MessageDeliveryException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, "/topic/anything"), channel));
+
+        Message<byte[]> unsubscribe = frame(StompCommand.UNSUBSCRIBE, null);
+        assertSame(unsubscribe, interceptor.preSend(unsubscribe, channel));
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String destination) {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(command);
+        headers.setSessionId("session-1");
+        headers.setSubscriptionId("sub-1");
+        if (destination != null) {
+            headers.setDestination(destination);
+        }
+        headers.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
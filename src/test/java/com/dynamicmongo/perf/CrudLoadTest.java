@@ -0,0 +1,306 @@
+package com.dynamicmongo.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a concurrent mix of create, read, update, filter and list requests against the running
+ * application and an embedded MongoDB, then records ops/sec and p50/p95/p99 per operation in
+ * target/perf-results.json. When a baseline file exists the run fails if any operation's p99 or
+ * throughput regressed beyond the configured tolerance. Every knob is a -Dperf.* system property;
+ * see the README for the list.
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CrudLoadTest {
+
+    private static final String COLLECTION = "perf_products";
+    private static final int CATEGORIES = 20;
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+
+    @LocalServerPort
+    private int port;
+
+    enum Operation {
+        CREATE(20), READ(30), UPDATE(20), FILTER(15), LIST(15);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        String uri = System.getProperty("perf.mongo-uri");
+        if (uri == null || uri.isBlank()) {
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            uri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/perf_db";
+        }
+        String mongoUri = uri;
+        registry.add("spring.data.mongodb.uri", () -> mongoUri);
+        registry.add("spring.data.mongodb.database", () -> "perf_db");
+        registry.add("spring.kafka.bootstrap-servers", () -> "");
+        registry.add("logging.level.com.dynamicmongo", () -> "WARN");
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @Test
+    void crudMixStaysWithinBaseline() throws Exception {
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 30));
+        int concurrency = Integer.getInteger("perf.concurrency", 16);
+        // Total target rate across all workers; 0 runs every worker flat out
+        int rate = Integer.getInteger("perf.rate", 0);
+
+        createSchema();
+        for (int i = 0, seed = Integer.getInteger("perf.seed-documents", 1000); i < seed; i++) {
+            send(Operation.CREATE);
+        }
+
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(concurrency) / rate : 0;
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> running = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            running.add(workers.submit(() -> {
+                long next = System.nanoTime();
+                while (next < end) {
+                    if (intervalNanos > 0) {
+                        LockSupport.parkNanos(next - System.nanoTime());
+                    }
+                    // Measured from the scheduled start so a stalled server is not hidden by backed-up workers
+                    long intended = intervalNanos > 0 ? next : System.nanoTime();
+                    Operation operation = pick();
+                    boolean ok = send(operation);
+                    if (intended >= measureFrom) {
+                        stats.get(operation).record(System.nanoTime() - intended, ok);
+                    }
+                    next = intervalNanos > 0 ? next + intervalNanos : System.nanoTime();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : running) {
+            worker.get();
+        }
+        workers.shutdown();
+
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) ->
+                results.put(operation.name().toLowerCase(), operationStats.summary(duration)));
+        report(results, concurrency, rate);
+        checkThresholds(results);
+    }
+
+    private void createSchema() throws IOException, InterruptedException {
+        String schema = """
+                {"collectionName": "%s", "fields": [
+                  {"name": "sku", "type": "STRING", "required": true, "primaryKey": true},
+                  {"name": "name", "type": "STRING", "required": true, "validation": {"minLength": 2, "maxLength": 100}},
+                  {"name": "category", "type": "STRING", "required": true, "indexed": true},
+                  {"name": "price", "type": "DOUBLE", "required": true, "validation": {"min": 0}},
+                  {"name": "stock", "type": "INTEGER", "required": false}
+                ]}""".formatted(COLLECTION);
+        // Start from an empty collection when pointed at an existing database
+        http.send(request("/schemas/" + COLLECTION).DELETE().build(), HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> response = http.send(request("/schemas").POST(body(schema)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 300, () -> "Schema creation failed: " + response.body());
+    }
+
+    private boolean send(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String documents = "/collections/" + COLLECTION + "/documents";
+        try {
+            HttpRequest request = switch (operation) {
+                case CREATE -> request(documents).POST(body(objectMapper.writeValueAsString(Map.of(
+                        "sku", "SKU-" + random.nextLong(Long.MAX_VALUE),
+                        "name", "Product " + random.nextInt(100_000),
+                        "category", "category-" + random.nextInt(CATEGORIES),
+                        "price", Math.round(random.nextDouble(1, 1000) * 100) / 100.0,
+                        "stock", random.nextInt(500))))).build();
+                case READ -> request(documents + "/" + randomId()).GET().build();
+                case UPDATE -> request(documents + "/" + randomId())
+                        .PUT(body("{\"price\": " + random.nextInt(1, 1000) + "}")).build();
+                case FILTER -> request(documents + "?limit=20&category=category-" + random.nextInt(CATEGORIES)).GET().build();
+                case LIST -> request(documents + "?limit=50&sort=price,desc").GET().build();
+            };
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            if (operation == Operation.CREATE && response.statusCode() == 201) {
+                JsonNode created = objectMapper.readTree(response.body());
+                ids.add(created.get("id").asText());
+            }
+            return response.statusCode() < 300;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Operation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return Operation.LIST;
+    }
+
+    private String randomId() {
+        synchronized (ids) {
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/dynamic" + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private void report(Map<String, Map<String, Object>> results, int concurrency, int rate) throws IOException {
+        System.out.printf("%n%-8s %10s %8s %10s %10s %10s %10s%n", "op", "count", "errors", "ops/sec", "p50 ms", "p95 ms", "p99 ms");
+        results.forEach((operation, summary) -> System.out.printf("%-8s %10d %8d %10.1f %10.2f %10.2f %10.2f%n",
+                operation, summary.get("count"), summary.get("errors"), summary.get("opsPerSec"),
+                summary.get("p50Ms"), summary.get("p95Ms"), summary.get("p99Ms")));
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("concurrency", concurrency);
+        run.put("rate", rate);
+        run.put("operations", results);
+        File output = new File(System.getProperty("perf.results", "target/perf-results.json"));
+        objectMapper.writeValue(output, run);
+        if (Boolean.getBoolean("perf.update-baseline")) {
+            objectMapper.writeValue(baselineFile(), run);
+        }
+    }
+
+    private void checkThresholds(Map<String, Map<String, Object>> results) throws IOException {
+        double maxErrorRate = Double.parseDouble(System.getProperty("perf.max-error-rate", "0.01"));
+        double latencyTolerance = Double.parseDouble(System.getProperty("perf.latency-tolerance", "0.25"));
+        double throughputTolerance = Double.parseDouble(System.getProperty("perf.throughput-tolerance", "0.20"));
+
+        List<String> failures = new ArrayList<>();
+        results.forEach((operation, summary) -> {
+            long count = (long) summary.get("count");
+            long errors = (long) summary.get("errors");
+            if (count > 0 && (double) errors / count > maxErrorRate) {
+                failures.add(operation + ": " + errors + " of " + count + " requests failed");
+            }
+        });
+
+        File baselineFile = baselineFile();
+        if (baselineFile.exists() && !Boolean.getBoolean("perf.update-baseline")) {
+            JsonNode baseline = objectMapper.readTree(baselineFile).path("operations");
+            results.forEach((operation, summary) -> {
+                JsonNode base = baseline.path(operation);
+                if (base.isMissingNode()) {
+                    return;
+                }
+                double p99 = (double) summary.get("p99Ms");
+                double opsPerSec = (double) summary.get("opsPerSec");
+                if (p99 > base.path("p99Ms").asDouble() * (1 + latencyTolerance)) {
+                    failures.add(String.format("%s: p99 %.2f ms vs baseline %.2f ms", operation, p99, base.path("p99Ms").asDouble()));
+                }
+                if (opsPerSec < base.path("opsPerSec").asDouble() * (1 - throughputTolerance)) {
+                    failures.add(String.format("%s: %.1f ops/sec vs baseline %.1f", operation, opsPerSec, base.path("opsPerSec").asDouble()));
+                }
+            });
+        }
+        assertTrue(failures.isEmpty(), () -> "Performance regression:\n" + String.join("\n", failures));
+    }
+
+    private static File baselineFile() {
+        return new File(System.getProperty("perf.baseline", "src/test/resources/perf-baseline.json"));
+    }
+
+    private static final class OperationStats {
+        // Nanoseconds, up to one minute at three significant digits
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long latencyNanos, boolean ok) {
+            latencies.recordValue(Math.min(latencyNanos, latencies.getHighestTrackableValue()));
+            if (!ok) {
+                errors.increment();
+            }
+        }
+
+        Map<String, Object> summary(Duration duration) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", latencies.getTotalCount());
+            summary.put("errors", errors.sum());
+            summary.put("opsPerSec", latencies.getTotalCount() / (double) duration.toSeconds());
+            summary.put("p50Ms", latencies.getValueAtPercentile(50) / 1e6);
+            summary.put("p95Ms", latencies.getValueAtPercentile(95) / 1e6);
+            summary.put("p99Ms", latencies.getValueAtPercentile(99) / 1e6);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.dynamicmongo.repository;
+
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonType;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class DynamicDocumentCodecTest {
+
+    private final DynamicDocumentCodec codec = new DynamicDocumentCodec(MongoClientSettings.getDefaultCodecRegistry(), List.of(
+            new FieldDefinition("price", "DOUBLE", true),
+            new FieldDefinition("stock", "INTEGER", false)));
+
+    @Test
+    void roundTripsWithoutTypeKey() {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", "Widget");
+        data.put("price", 10);
+        data.put("stock", 3.0);
+        data.put("tags", List.of("a", "b"));
+        data.put("dimensions", Map.of("width", 2));
+        DynamicDocument document = new DynamicDocument(data, "products");
+        document.setId(new ObjectId().toHexString());
+        document.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        document.setVersion(4);
+
+        BsonDocument bson = encode(document);
+
+        assertFalse(bson.containsKey("_class"));
+        assertEquals(BsonType.OBJECT_ID, bson.get("_id").getBsonType());
+        assertEquals(BsonType.DOUBLE, bson.getDocument("data").get("price").getBsonType());
+        assertEquals(BsonType.INT32, bson.getDocument("data").get("stock").getBsonType());
+        assertEquals(BsonType.INT64, bson.get("version").getBsonType());
+
+        DynamicDocument decoded = decode(bson);
+        assertEquals(document.getId(), decoded.getId());
+        assertEquals("products", decoded.getCollectionName());
+        assertEquals(document.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(4L, decoded.getVersion());
+        assertEquals(10.0, decoded.getData().get("price"));
+        assertEquals(3, decoded.getData().get("stock"));
+        assertEquals(List.of("a", "b"), decoded.getData().get("tags"));
+        assertEquals(Map.of("width", 2), decoded.getData().get("dimensions"));
+    }
+
+    @Test
+    void readsLegacyDocumentsWithTypeKey() {
+        BsonDocument bson = BsonDocument.parse("{\"_id\": \"custom-id\", \"data\": {\"price\": 5, \"stock\": 7.0},"
+                + " \"collectionName\": \"products\", \"version\": 2, \"_class\": \"com.dynamicmongo.model.DynamicDocument\"}");
+
+        DynamicDocument decoded = decode(bson);
+
+        assertEquals("custom-id", decoded.getId());
+        assertEquals(5.0, decoded.getData().get("price"));
+        assertEquals(7, decoded.getData().get("stock"));
+        assertEquals(2L, decoded.getVersion());
+        assertEquals(BsonType.STRING, encode(decoded).get("_id").getBsonType());
+    }
+
+    private BsonDocument encode(DynamicDocument document) {
+        BsonDocument bson = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(bson), document, EncoderContext.builder().build());
+        return bson;
+    }
+
+    private DynamicDocument decode(BsonDocument bson) {
+        return codec.decode(new BsonDocumentReader(bson), DecoderContext.builder().build());
+    }
+}
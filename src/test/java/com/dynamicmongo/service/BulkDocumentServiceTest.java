@@ -0,0 +1,171 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.BulkWriteReport;
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.OutboxEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkDocumentServiceTest {
+
+    private final CollectionSchema schema = new CollectionSchema("products", List.of(
+            new FieldDefinition("sku", "STRING", false, true),
+            new FieldDefinition("name", "STRING", true),
+            defaulted(new FieldDefinition("stock", "INTEGER", false), 0)));
+
+    private BulkOperations operations;
+    private BulkDocumentService bulkService;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        operations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DynamicDocument.class, "products"))
+                .thenReturn(operations);
+
+        bulkService = new BulkDocumentService();
+        ReflectionTestUtils.setField(bulkService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(bulkService, "crudService", new DynamicCrudService());
+        ReflectionTestUtils.setField(bulkService, "validationService", new DataValidationService());
+        FieldTypeCoercer coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(bulkService, "coercer", coercer);
+        ReflectionTestUtils.setField(bulkService, "eventPublisher", mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(bulkService, "outboxService", new OutboxService());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void insertRecordsAnOutboxEventPerInsertedDocument() {
+        MongoTemplate outboxTemplate = mock(MongoTemplate.class);
+        when(outboxTemplate.indexOps(OutboxService.COLLECTION)).thenReturn(mock(IndexOperations.class));
+        OutboxService outboxService = new OutboxService();
+        ReflectionTestUtils.setField(outboxService, "mongoTemplate", outboxTemplate);
+        ReflectionTestUtils.setField(outboxService, "enabled", true);
+        ReflectionTestUtils.setField(bulkService, "outboxService", outboxService);
+        when(operations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()));
+
+        bulkService.insertBatch("products", schema, List.of(row("A-1", "Pen"), row("A-2", "Ink")), 0, new BulkWriteReport());
+
+        ArgumentCaptor<List<DynamicDocument>> documents = (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+        verify(operations).insert(documents.capture());
+        ArgumentCaptor<Collection<OutboxEvent>> events = (ArgumentCaptor) ArgumentCaptor.forClass(Collection.class);
+        verify(outboxTemplate).insert(events.capture(), eq(OutboxService.COLLECTION));
+        List<DocumentChange> changes = events.getValue().stream().map(OutboxEvent::getChange).toList();
+        assertEquals(2, changes.size());
+        assertEquals("insert", changes.get(0).getOperation());
+        assertEquals(documents.getValue().get(0).getId(), changes.get(0).getId());
+        assertEquals("Ink", changes.get(1).getFields().get("name"));
+    }
+
+    @Test
+    void upsertMatchesOnPrimaryKeyAndCountsOutcomes() {
+        // Row 0 inserted (upsert at operation 1), row 2 updated, row 3 unchanged
+        when(operations.execute()).thenReturn(BulkWriteResult.acknowledged(
+                0, 2, 0, 1, List.of(new BulkWriteUpsert(1, new BsonObjectId())), List.of()));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(row("A-1", "Pen"));
+        rows.add(row(null, "No key"));
+        rows.add(row("A-2", "Ink"));
+        rows.add(row("A-3", "Pad"));
+        BulkWriteReport report = new BulkWriteReport();
+
+        bulkService.upsertBatch("products", schema, rows, 10, report);
+
+        assertEquals(4, report.getReceived());
+        assertEquals(1, report.getInserted());
+        assertEquals(1, report.getUpdated());
+        assertEquals(1, report.getUnchanged());
+        assertEquals(1, report.getRejected());
+        assertEquals(11, report.getErrors().get(0).getIndex());
+
+        ArgumentCaptor<Query> upsertQueries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> inserts = ArgumentCaptor.forClass(Update.class);
+        verify(operations, times(3)).updateOne(any(Query.class), any(Update.class));
+        verify(operations, times(3)).upsert(upsertQueries.capture(), inserts.capture());
+
+        assertEquals(new Document("data.sku", "A-1"), upsertQueries.getAllValues().get(0).getQueryObject());
+        Document setOnInsert = (Document) inserts.getAllValues().get(0).getUpdateObject().get("$setOnInsert");
+        assertEquals("Pen", setOnInsert.get("data.name"));
+        assertEquals(0, setOnInsert.get("data.stock"));
+        assertEquals(0L, setOnInsert.get("version"));
+    }
+
+    @Test
+    void upsertOnlySetsPayloadFieldsWhenTheyDiffer() {
+        when(operations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        bulkService.upsertBatch("products", schema, List.of(row("A-1", "Pen")), 0, new BulkWriteReport());
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(operations).updateOne(queries.capture(), updates.capture());
+        List<?> conditions = (List<?>) queries.getValue().getQueryObject().get("$and");
+        assertEquals(new Document("data.sku", "A-1"), conditions.get(0));
+        assertTrue(((Document) conditions.get(1)).containsKey("$nor"));
+        Document set = (Document) updates.getValue().getUpdateObject().get("$set");
+        assertEquals("Pen", set.get("data.name"));
+        assertFalse(set.containsKey("data.stock"));
+        assertEquals(new Document("version", 1), updates.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void upsertComparesAndWritesCanonicalTypes() {
+        when(operations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        Map<String, Object> row = row("A-1", "Pen");
+        row.put("stock", "7");
+
+        bulkService.upsertBatch("products", schema, List.of(row), 0, new BulkWriteReport());
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(operations).updateOne(any(Query.class), updates.capture());
+        Document set = (Document) updates.getValue().getUpdateObject().get("$set");
+        assertEquals(7L, set.get("data.stock"));
+    }
+
+    private static Map<String, Object> row(String sku, String name) {
+        Map<String, Object> row = new HashMap<>();
+        if (sku != null) {
+            row.put("sku", sku);
+        }
+        row.put("name", name);
+        return row;
+    }
+
+    private static FieldDefinition defaulted(FieldDefinition field, Object defaultValue) {
+        field.setDefaultValue(defaultValue);
+        return field;
+    }
+}
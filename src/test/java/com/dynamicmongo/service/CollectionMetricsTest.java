@@ -0,0 +1,74 @@
+package com.dynamicmongo.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollectionMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CollectionMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new CollectionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(metrics, "maxCollectionTags", 2);
+    }
+
+    @Test
+    void collectionsWithoutASchemaNeverTakeATag() {
+        assertEquals(CollectionMetrics.OTHER_COLLECTION, metrics.collectionTag("typo"));
+        assertEquals(CollectionMetrics.OTHER_COLLECTION, metrics.collectionTag("missing"));
+        assertEquals(CollectionMetrics.OTHER_COLLECTION, metrics.collectionTag("junk"));
+
+        metrics.registerCollection("products");
+        metrics.registerCollection("orders");
+        assertEquals("products", metrics.collectionTag("products"));
+        assertEquals("orders", metrics.collectionTag("orders"));
+    }
+
+    @Test
+    void collectionsBeyondTheLimitShareOneTag() {
+        for (String known : List.of("products", "orders", "customers", "invoices")) {
+            metrics.registerCollection(known);
+        }
+        assertEquals("products", metrics.collectionTag("products"));
+        assertEquals("orders", metrics.collectionTag("orders"));
+        assertEquals(CollectionMetrics.OTHER_COLLECTION, metrics.collectionTag("customers"));
+        assertEquals("products", metrics.collectionTag("products"));
+
+        metrics.recordOperation("customers", "createDocument", true, 1_000_000);
+        metrics.recordOperation("invoices", "createDocument", false, 1_000_000);
+        assertEquals(2, meterRegistry.find("crud.operation").tag("collection", "other").timers().size());
+        assertEquals(0, meterRegistry.find("crud.operation").tag("collection", "customers").timers().size());
+    }
+
+    @Test
+    void recordsBsonSizeOfDocumentData() {
+        ReflectionTestUtils.setField(metrics, "documentSizeSampleRate", 1.0);
+        metrics.registerCollection("products");
+        metrics.documentSize("products", Map.of("name", "Pen", "price", 1.5));
+
+        DistributionSummary size = meterRegistry.get("crud.document.size").tag("collection", "products").summary();
+        assertEquals(1, size.count());
+        assertTrue(size.totalAmount() > 20);
+    }
+
+    @Test
+    void skipsDocumentSizeOutsideTheSample() {
+        ReflectionTestUtils.setField(metrics, "documentSizeSampleRate", 0.0);
+        metrics.documentSize("products", Map.of("name", "Pen", "price", 1.5));
+
+        assertNull(meterRegistry.find("crud.document.size").summary());
+    }
+}
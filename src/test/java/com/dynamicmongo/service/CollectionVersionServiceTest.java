@@ -0,0 +1,110 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.DocumentQuery;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CollectionVersionServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private CollectionVersionService versions;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        versions = new CollectionVersionService();
+        ReflectionTestUtils.setField(versions, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(versions, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(versions, "versionCacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(versions, "retryDelay", Duration.ofMillis(50));
+        versions.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        versions.shutdown();
+    }
+
+    @Test
+    void cachesCounterUntilLocalWrite() {
+        when(mongoTemplate.findById("products", Document.class, CollectionVersionService.COLLECTION))
+                .thenReturn(new Document("version", 4L), new Document("version", 5L));
+
+        assertEquals(4L, versions.currentVersion("products"));
+        assertEquals(4L, versions.currentVersion("products"));
+
+        versions.onCollectionChanged(new CollectionChangedEvent("products"));
+
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(CollectionVersionService.COLLECTION));
+        assertEquals(5L, versions.currentVersion("products"));
+        verify(mongoTemplate, times(2)).findById("products", Document.class, CollectionVersionService.COLLECTION);
+    }
+
+    @Test
+    void failedIncrementDoesNotFailTheWriteAndIsRetried() throws InterruptedException {
+        when(mongoTemplate.findById("products", Document.class, CollectionVersionService.COLLECTION))
+                .thenReturn(new Document("version", 4L), new Document("version", 5L));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(CollectionVersionService.COLLECTION)))
+                .thenThrow(new DataAccessResourceFailureException("timed out"))
+                .thenThrow(new DataAccessResourceFailureException("timed out"))
+                .thenReturn(null);
+        assertEquals(4L, versions.currentVersion("products"));
+
+        assertDoesNotThrow(() -> versions.onCollectionChanged(new CollectionChangedEvent("products")));
+        // Nothing was stored, so the cached counter is still the right one
+        assertEquals(4L, versions.currentVersion("products"));
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (versions.currentVersion("products") == 4L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(5L, versions.currentVersion("products"));
+        verify(mongoTemplate, times(3)).upsert(any(Query.class), any(Update.class), eq(CollectionVersionService.COLLECTION));
+    }
+
+    @Test
+    void listTagDependsOnCounterAndRequest() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("limit", "20");
+        params.put("category", "books");
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("category", "books");
+        reordered.put("limit", "20");
+
+        String tag = versions.listTag("products", new TreeMap<>(params));
+        assertEquals("W/\"0-", tag.substring(0, 5));
+        assertEquals(tag, versions.listTag("products", reordered));
+        assertNotEquals(tag, versions.listTag("products", Map.of("limit", "50")));
+        assertNotEquals(tag, versions.listTag("orders", params));
+        DocumentQuery query = new DocumentQuery();
+        query.setLimit(20);
+        assertNotEquals(versions.listTag("products", query), versions.listTag("products", new DocumentQuery()));
+
+        when(mongoTemplate.findById("products", Document.class, CollectionVersionService.COLLECTION))
+                .thenReturn(new Document("version", 1L));
+        versions.onCollectionChanged(new CollectionChangedEvent("products"));
+        assertNotEquals(tag, versions.listTag("products", params));
+    }
+}
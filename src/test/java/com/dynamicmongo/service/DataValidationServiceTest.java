@@ -0,0 +1,99 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import org.junit.jupiter.api.Test;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataValidationServiceTest {
+
+    private final DataValidationService validationService = new DataValidationService();
+
+    private CollectionSchema productSchema() {
+        FieldDefinition name = new FieldDefinition("name", "STRING", true);
+        name.setValidation(Map.of("minLength", 2, "maxLength", 10));
+        FieldDefinition price = new FieldDefinition("price", "DOUBLE", true);
+        price.setValidation(Map.of("min", 0));
+        FieldDefinition stock = new FieldDefinition("stock", "integer", false);
+        FieldDefinition active = new FieldDefinition("active", "BOOLEAN", false);
+        return new CollectionSchema("products", List.of(name, price, stock, active));
+    }
+
+    @Test
+    void acceptsValidDocumentIncludingNumericAndBooleanStrings() {
+        Map<String, Object> data = Map.of("name", "Laptop", "price", "999.99", "stock", "42", "active", "TRUE");
+
+        assertTrue(validationService.validateDocument(data, productSchema()).isEmpty());
+    }
+
+    @Test
+    void reportsEveryViolationWithFieldPaths() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "L");
+        data.put("price", -1.0);
+        data.put("stock", "4.2");
+        data.put("active", "maybe");
+
+        List<String> errors = validationService.validateDocument(data, productSchema());
+
+        assertEquals(List.of(
+                "Field 'name' must be at least 2 characters",
+                "Field 'price' must be at least 0.0",
+                "Field 'stock' must be an integer",
+                "Field 'active' must be a boolean"), errors);
+    }
+
+    @Test
+    void failFastStopsAtFirstInvalidField() {
+        Map<String, Object> data = Map.of("name", " ", "price", "abc");
+
+        List<String> errors = validationService.validateDocument(data, productSchema(), true);
+
+        assertEquals(List.of("Field 'name' is required"), errors);
+    }
+
+    @Test
+    void validatesOnlyChangedFieldsAndTreatsNullAsRemoval() {
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("stock", "7");
+        changes.put("price", null);
+
+        List<String> errors = validationService.validateChanges(changes, productSchema());
+
+        assertEquals(List.of("Field 'price' is required"), errors);
+        assertTrue(validationService.validateChanges(Map.of("active", false), productSchema()).isEmpty());
+    }
+
+    @Test
+    void acceptsIsoDatesAndDateValuesForDateFields() {
+        CollectionSchema schema = new CollectionSchema("events", List.of(new FieldDefinition("startsAt", "DATE", true)));
+
+        assertTrue(validationService.validateDocument(Map.of("startsAt", "2025-07-22"), schema).isEmpty());
+        assertTrue(validationService.validateDocument(Map.of("startsAt", "2025-07-22T23:21:01+02:00"), schema).isEmpty());
+        assertTrue(validationService.validateDocument(Map.of("startsAt", new Date()), schema).isEmpty());
+        assertEquals(List.of("Field 'startsAt' must be an ISO-8601 date"),
+                validationService.validateDocument(Map.of("startsAt", "22/07/2025"), schema));
+        assertEquals(List.of("Field 'startsAt' must be an ISO-8601 date"),
+                validationService.validateDocument(Map.of("startsAt", 1753219261000L), schema));
+    }
+
+    @Test
+    void recognisesNumericLiteralsWithoutParsing() {
+        assertTrue(ValidationPlan.isIntLiteral("-2147483648"));
+        assertFalse(ValidationPlan.isIntLiteral("2147483648"));
+        assertFalse(ValidationPlan.isIntLiteral("+"));
+        assertTrue(ValidationPlan.isDoubleLiteral(" 1.5e-3 "));
+        assertTrue(ValidationPlan.isDoubleLiteral(".5"));
+        assertTrue(ValidationPlan.isDoubleLiteral("-Infinity"));
+        assertFalse(ValidationPlan.isDoubleLiteral("1e"));
+        assertFalse(ValidationPlan.isDoubleLiteral("."));
+        assertFalse(ValidationPlan.isDoubleLiteral("12abc"));
+    }
+}
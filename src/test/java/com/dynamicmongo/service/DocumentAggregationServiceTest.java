@@ -0,0 +1,117 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.AggregationMetric;
+import com.dynamicmongo.model.AggregationRequest;
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentAggregationServiceTest {
+
+    private final CollectionSchema schema = new CollectionSchema("products", List.of(
+            new FieldDefinition("name", "STRING", true),
+            new FieldDefinition("category", "STRING", false),
+            new FieldDefinition("price", "DOUBLE", true)));
+
+    private MongoTemplate mongoTemplate;
+    private DocumentAggregationService aggregationService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        DynamicCrudService crudService = mock(DynamicCrudService.class);
+        when(crudService.getSchema("products")).thenReturn(Optional.of(schema));
+
+        FieldTypeCoercer coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+        QueryCriteriaBuilder criteriaBuilder = new QueryCriteriaBuilder();
+        ReflectionTestUtils.setField(criteriaBuilder, "coercer", coercer);
+
+        aggregationService = new DocumentAggregationService();
+        ReflectionTestUtils.setField(aggregationService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(aggregationService, "crudService", crudService);
+        ReflectionTestUtils.setField(aggregationService, "criteriaBuilder", criteriaBuilder);
+        ReflectionTestUtils.setField(aggregationService, "maxCachedRows", 1000L);
+        ReflectionTestUtils.setField(aggregationService, "cacheTtl", Duration.ofMinutes(5));
+        aggregationService.init();
+    }
+
+    @Test
+    void buildsGroupProjectSortAndLimitStages() {
+        AggregationRequest request = request();
+        request.setSort("total,desc");
+        request.setLimit(5);
+
+        List<Document> stages = aggregationService.buildStages(schema, request);
+
+        assertEquals(List.of(
+                new Document("$group", new Document("_id", new Document("category", "$data.category"))
+                        .append("count", new Document("$sum", 1))
+                        .append("total", new Document("$sum", "$data.price"))),
+                new Document("$project", new Document("_id", 0).append("category", "$_id.category")
+                        .append("count", 1).append("total", 1)),
+                new Document("$sort", new Document("total", -1)),
+                new Document("$limit", 5)), stages);
+    }
+
+    @Test
+    void rejectsUnknownAndNonNumericFields() {
+        AggregationRequest unknown = new AggregationRequest();
+        unknown.setGroupBy(List.of("colour"));
+        assertThrows(IllegalArgumentException.class, () -> aggregationService.buildStages(schema, unknown));
+
+        AggregationRequest nonNumeric = new AggregationRequest();
+        nonNumeric.setMetrics(List.of(new AggregationMetric("avg", "name", null)));
+        assertThrows(IllegalArgumentException.class, () -> aggregationService.buildStages(schema, nonNumeric));
+
+        AggregationRequest badSort = request();
+        badSort.setSort("price,desc");
+        assertThrows(IllegalArgumentException.class, () -> aggregationService.buildStages(schema, badSort));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cachesResultsUntilTheCollectionChanges() {
+        List<Document> rows = List.of(new Document("category", "office").append("count", 3).append("total", 12.5));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq("products"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(rows, new Document()));
+
+        assertEquals(rows, aggregationService.aggregate("products", request()));
+        assertEquals(rows, aggregationService.aggregate("products", request()));
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq("products"), eq(Document.class));
+
+        aggregationService.onCollectionChanged(new CollectionChangedEvent("orders"));
+        aggregationService.aggregate("products", request());
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq("products"), eq(Document.class));
+
+        aggregationService.onCollectionChanged(new CollectionChangedEvent("products"));
+        aggregationService.aggregate("products", request());
+        verify(mongoTemplate, times(2)).aggregate(any(TypedAggregation.class), eq("products"), eq(Document.class));
+    }
+
+    private static AggregationRequest request() {
+        AggregationRequest request = new AggregationRequest();
+        request.setGroupBy(List.of("category"));
+        request.setMetrics(List.of(new AggregationMetric("count", null, null), new AggregationMetric("sum", "price", "total")));
+        return request;
+    }
+}
@@ -0,0 +1,138 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentCachePolicy;
+import com.dynamicmongo.model.DynamicDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentCacheServiceTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private CollectionSchemaCache schemaCache;
+    private CacheInvalidationChannel channel;
+    private DocumentCacheService documentCache;
+    private CollectionSchema schema;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        CollectionMetrics metrics = new CollectionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(metrics, "maxCollectionTags", 50);
+        schemaCache = mock(CollectionSchemaCache.class);
+        channel = mock(CacheInvalidationChannel.class);
+
+        documentCache = new DocumentCacheService();
+        ReflectionTestUtils.setField(documentCache, "schemaCache", schemaCache);
+        ReflectionTestUtils.setField(documentCache, "collectionMetrics", metrics);
+        ReflectionTestUtils.setField(documentCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(documentCache, "invalidationChannel", channel);
+
+        schema = new CollectionSchema("countries", List.of());
+        schema.setCache(new DocumentCachePolicy(100, 60));
+        schema.setUpdatedAt(LocalDateTime.now());
+        when(schemaCache.find("countries")).thenReturn(Optional.of(schema));
+        when(schemaCache.find("orders")).thenReturn(Optional.of(new CollectionSchema("orders", List.of())));
+    }
+
+    @Test
+    void cachesReadsAndInvalidatesOnLocalWrites() {
+        assertEquals("1", document("countries", "a").getData().get("load"));
+        assertEquals("1", document("countries", "a").getData().get("load"));
+        verify(channel).watch(eq(Set.of("countries")), any());
+
+        documentCache.onCollectionChanged(new CollectionChangedEvent("countries", "a"));
+        assertEquals("2", document("countries", "a").getData().get("load"));
+
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        criteria.put("region", "EU");
+        criteria.put("active", "true");
+        assertEquals(1, find("countries", criteria).size());
+        assertEquals(3, loads.get());
+        assertEquals(1, find("countries", Map.of("active", "true", "region", "EU")).size());
+        assertEquals(3, loads.get());
+
+        // A create touches no cached id but must drop cached finds
+        documentCache.onCollectionChanged(new CollectionChangedEvent("countries", "b"));
+        find("countries", criteria);
+        document("countries", "a");
+        assertEquals(4, loads.get());
+
+        assertEquals(3.0, meterRegistry.get("document.cache.requests").tag("result", "hit").counters()
+                .stream().mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    void collectionsWithoutPolicyAreNotCached() {
+        document("orders", "a");
+        document("orders", "a");
+        assertEquals(2, loads.get());
+
+        schema.getCache().setEnabled(false);
+        document("countries", "a");
+        document("countries", "a");
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void remoteChangesInvalidateAndRecordStaleness() {
+        document("countries", "a");
+        document("countries", "b");
+
+        documentCache.onRemoteChange("countries", "a", Instant.now().minusMillis(50));
+        document("countries", "a");
+        document("countries", "b");
+        assertEquals(3, loads.get());
+
+        documentCache.onRemoteChange("countries", null, null);
+        document("countries", "b");
+        assertEquals(4, loads.get());
+        assertEquals(1, meterRegistry.get("document.cache.staleness").timer().count());
+    }
+
+    @Test
+    void schemaUpdatesRebuildTheCache() {
+        document("countries", "a");
+        schema.setUpdatedAt(schema.getUpdatedAt().plusSeconds(1));
+        document("countries", "a");
+        assertEquals(2, loads.get());
+
+        schema.setCache(new DocumentCachePolicy(0, 60));
+        assertThrows(IllegalArgumentException.class, () -> documentCache.validate(schema));
+    }
+
+    private DynamicDocument document(String collectionName, String id) {
+        return documentCache.document(collectionName, id, () -> {
+            DynamicDocument document = new DynamicDocument(Map.of("load", String.valueOf(loads.incrementAndGet())), collectionName);
+            document.setId(id);
+            return document;
+        });
+    }
+
+    private List<DynamicDocument> find(String collectionName, Map<String, Object> criteria) {
+        return documentCache.find(collectionName, criteria, () -> {
+            loads.incrementAndGet();
+            return List.of(new DynamicDocument(criteria, collectionName));
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.DocumentChange;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt64;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DocumentChangeStreamServiceTest {
+
+    private final ObjectId id = new ObjectId();
+
+    @Test
+    void updateCarriesOnlyChangedDataFields() {
+        BsonDocument updated = new BsonDocument("data.price", new BsonDouble(899.99))
+                .append("updatedAt", new BsonString("ignored"))
+                .append("version", new BsonInt64(4));
+        Document fullDocument = new Document("data", new Document("name", "Laptop").append("price", 899.99))
+                .append("version", 4L);
+
+        DocumentChange change = DocumentChangeStreamService.toChange("products",
+                event(OperationType.UPDATE, fullDocument, new UpdateDescription(List.of("data.description"), updated)));
+
+        assertEquals("update", change.getOperation());
+        assertEquals(id.toHexString(), change.getId());
+        assertEquals(Map.of("price", 899.99), change.getFields());
+        assertEquals(List.of("description"), change.getRemovedFields());
+        assertEquals(4L, change.getVersion());
+    }
+
+    @Test
+    void insertCarriesAllFieldsAndDeleteOnlyTheId() {
+        Document fullDocument = new Document("data", new Document("name", "Pen"));
+
+        DocumentChange insert = DocumentChangeStreamService.toChange("products",
+                event(OperationType.INSERT, fullDocument, null));
+        DocumentChange delete = DocumentChangeStreamService.toChange("products",
+                event(OperationType.DELETE, null, null));
+
+        assertEquals(Map.of("name", "Pen"), insert.getFields());
+        assertEquals("delete", delete.getOperation());
+        assertEquals(Map.of(), delete.getFields());
+        assertNull(delete.getVersion());
+        assertNull(DocumentChangeStreamService.toChange("products", event(OperationType.DROP, null, null)));
+    }
+
+    @Test
+    void filterMatchesDataFieldsWithNumericEquality() {
+        Document fullDocument = new Document("data", new Document("category", "office")
+                .append("stock", 10)
+                .append("dimensions", new Document("width", 2.0)));
+
+        assertTrue(DocumentChangeStreamService.matches(Map.of("category", "office", "stock", 10L), fullDocument));
+        assertTrue(DocumentChangeStreamService.matches(Map.of("dimensions.width", 2), fullDocument));
+        assertFalse(DocumentChangeStreamService.matches(Map.of("category", "garden"), fullDocument));
+        assertFalse(DocumentChangeStreamService.matches(Map.of("category", "office"), null));
+    }
+
+    private ChangeStreamDocument<Document> event(OperationType type, Document fullDocument, UpdateDescription update) {
+        return new ChangeStreamDocument<>(type.getValue(), new BsonDocument(), null, null, fullDocument, null,
+                new BsonDocument("_id", new BsonObjectId(id)), null, update, null, null, null, null);
+    }
+}
@@ -0,0 +1,133 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentCount;
+import com.dynamicmongo.model.FacetCount;
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentFacetServiceTest {
+
+    private final CollectionSchema schema = new CollectionSchema("products", List.of(
+            new FieldDefinition("name", "STRING", true),
+            new FieldDefinition("category", "STRING", false),
+            new FieldDefinition("tags", "ARRAY", false),
+            new FieldDefinition("dimensions", "OBJECT", false)));
+
+    private MongoTemplate mongoTemplate;
+    private DocumentFacetService facetService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        DynamicCrudService crudService = mock(DynamicCrudService.class);
+        when(crudService.getSchema("products")).thenReturn(Optional.of(schema));
+
+        FieldTypeCoercer coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+        QueryCriteriaBuilder criteriaBuilder = new QueryCriteriaBuilder();
+        ReflectionTestUtils.setField(criteriaBuilder, "coercer", coercer);
+
+        facetService = new DocumentFacetService();
+        ReflectionTestUtils.setField(facetService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(facetService, "crudService", crudService);
+        ReflectionTestUtils.setField(facetService, "criteriaBuilder", criteriaBuilder);
+        ReflectionTestUtils.setField(facetService, "maxCachedEntries", 100L);
+        ReflectionTestUtils.setField(facetService, "cacheTtl", Duration.ofSeconds(10));
+        facetService.init();
+    }
+
+    @Test
+    void estimatesUnfilteredCountsAndQueriesFilteredOnes() {
+        when(mongoTemplate.estimatedCount("products")).thenReturn(1_000_000L);
+        when(mongoTemplate.count(any(Query.class), any(Class.class), eq("products"))).thenReturn(42L);
+
+        DocumentCount total = facetService.count("products", Map.of());
+        assertEquals(1_000_000L, total.getCount());
+        assertTrue(total.isEstimated());
+
+        DocumentCount filtered = facetService.count("products", Map.of("category", "office"));
+        assertEquals(42L, filtered.getCount());
+        assertFalse(filtered.isEstimated());
+    }
+
+    @Test
+    void cachesCountsUntilTheCollectionChanges() {
+        when(mongoTemplate.estimatedCount("products")).thenReturn(5L);
+
+        facetService.count("products", null);
+        facetService.count("products", Map.of());
+        verify(mongoTemplate, times(1)).estimatedCount("products");
+
+        facetService.onCollectionChanged(new CollectionChangedEvent("products"));
+        facetService.count("products", Map.of());
+        verify(mongoTemplate, times(2)).estimatedCount("products");
+    }
+
+    @Test
+    void buildsOneSubPipelinePerFieldAndUnwindsArrays() {
+        Document facet = facetService.buildFacetStage(schema, List.of("category", "tags"), 5);
+
+        Document group = new Document("$group", new Document("_id", "$data.category").append("count", new Document("$sum", 1)));
+        Document sort = new Document("$sort", new Document("count", -1).append("_id", 1));
+        assertEquals(List.of(group, sort, new Document("$limit", 5)),
+                facet.get("$facet", Document.class).get("f0"));
+        assertEquals(new Document("$unwind", "$data.tags"),
+                facet.get("$facet", Document.class).getList("f1", Document.class).get(0));
+    }
+
+    @Test
+    void rejectsUnknownObjectAndMissingFields() {
+        assertThrows(IllegalArgumentException.class, () -> facetService.buildFacetStage(schema, List.of("colour"), 5));
+        assertThrows(IllegalArgumentException.class, () -> facetService.buildFacetStage(schema, List.of("dimensions"), 5));
+        assertThrows(IllegalArgumentException.class, () -> facetService.buildFacetStage(schema, List.of(), 5));
+        assertThrows(IllegalArgumentException.class, () -> facetService.buildFacetStage(schema, List.of("category"), 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapsFacetBucketsBackToFieldNames() {
+        Document row = new Document("f0", List.of(
+                new Document("_id", "office").append("count", 3),
+                new Document("_id", null).append("count", 1)));
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq("products"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(row), new Document()));
+
+        Map<String, List<FacetCount>> facets = facetService.facets("products", List.of("category"), Map.of(), null);
+
+        List<FacetCount> counts = facets.get("category");
+        assertEquals(2, counts.size());
+        assertEquals("office", counts.get(0).getValue());
+        assertEquals(3L, counts.get(0).getCount());
+        assertNull(counts.get(1).getValue());
+
+        facetService.facets("products", List.of("category"), Map.of(), null);
+        verify(mongoTemplate, times(1)).aggregate(any(TypedAggregation.class), eq("products"), eq(Document.class));
+        verify(mongoTemplate, never()).estimatedCount("products");
+    }
+}
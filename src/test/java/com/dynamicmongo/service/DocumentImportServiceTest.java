@@ -0,0 +1,133 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.BulkWriteReport;
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.ImportJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentImportServiceTest {
+
+    private final List<Map<String, Object>> written = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch writerGate = new CountDownLatch(1);
+    private volatile boolean gateWriter;
+    private DocumentImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        CollectionSchema schema = new CollectionSchema("products", List.of(
+                new FieldDefinition("name", "STRING", true),
+                new FieldDefinition("price", "DOUBLE", true),
+                new FieldDefinition("stock", "INTEGER", false)));
+
+        BulkDocumentService bulkService = mock(BulkDocumentService.class);
+        when(bulkService.requireSchema("products")).thenReturn(schema);
+        when(bulkService.resolveBatchSize(any())).thenReturn(2);
+        doAnswer(invocation -> {
+            if (gateWriter) {
+                writerGate.await(10, TimeUnit.SECONDS);
+            }
+            List<Map<String, Object>> rows = invocation.getArgument(2);
+            BulkWriteReport report = invocation.getArgument(4);
+            report.addReceived(rows.size());
+            written.addAll(rows);
+            report.addInserted(rows.size());
+            return null;
+        }).when(bulkService).insertBatch(eq("products"), eq(schema), any(), anyLong(), any());
+
+        FieldTypeCoercer coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+
+        importService = new DocumentImportService();
+        ReflectionTestUtils.setField(importService, "bulkService", bulkService);
+        ReflectionTestUtils.setField(importService, "coercer", coercer);
+        ReflectionTestUtils.setField(importService, "maxConcurrentJobs", 1);
+        ReflectionTestUtils.setField(importService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(importService, "retentionMinutes", 60L);
+        importService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.shutdown();
+    }
+
+    @Test
+    void importsAllRowsWithCoercedTypes() throws Exception {
+        String csv = "name,price,stock\nPen,1.5,10\nInk,2.25,\nPad,3,7\n";
+        ImportJob job = importService.startCsvImport("products", csvFile(csv), null, 0, null);
+
+        awaitFinished(job);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsRead());
+        assertEquals(3, job.getRowsAccepted());
+        assertEquals(Map.of("name", "Pen", "price", 1.5, "stock", 10L), written.get(0));
+        assertEquals(Map.of("name", "Ink", "price", 2.25), written.get(1));
+    }
+
+    @Test
+    void appliesColumnOverridesAndSkipsRows() throws Exception {
+        String csv = "Product Name,Internal,Unit Price\nString,String,Number\nPen,x,1.5\n";
+        ImportJob job = importService.startCsvImport("products", csvFile(csv), null, 1,
+                List.of("name", "", "price"));
+
+        awaitFinished(job);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(List.of(Map.of("name", "Pen", "price", 1.5)), written);
+    }
+
+    @Test
+    void limitsConcurrentImportsAndHonoursCancellation() throws Exception {
+        gateWriter = true;
+        StringBuilder csv = new StringBuilder("name,price\n");
+        for (int i = 0; i < 100; i++) {
+            csv.append("item").append(i).append(',').append(i).append('\n');
+        }
+        ImportJob first = importService.startCsvImport("products", csvFile(csv.toString()), null, 0, null);
+
+        assertThrows(IllegalStateException.class,
+                () -> importService.startCsvImport("products", csvFile("name,price\nPen,1\n"), null, 0, null));
+
+        importService.cancel(first.getId());
+        writerGate.countDown();
+        awaitFinished(first);
+
+        assertEquals(ImportJob.Status.CANCELLED, first.getStatus());
+        assertTrue(first.getRowsAccepted() < 100);
+    }
+
+    private MockMultipartFile csvFile(String content) {
+        return new MockMultipartFile("file", "products.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void awaitFinished(ImportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getStatus() == ImportJob.Status.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.DocumentLookupResult;
+import com.dynamicmongo.model.DynamicDocument;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.SearchHit;
+import com.dynamicmongo.model.SearchPage;
+import com.dynamicmongo.model.SearchRequest;
+import com.dynamicmongo.repository.CollectionSchemaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DynamicCrudServiceTest {
+
+    private DynamicDocumentStore store;
+    private DynamicCrudService crudService;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(DynamicDocumentStore.class);
+        crudService = new DynamicCrudService();
+        ReflectionTestUtils.setField(crudService, "store", store);
+        CollectionMetrics metrics = new CollectionMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(metrics, "maxCollectionTags", 50);
+        ReflectionTestUtils.setField(crudService, "metrics", metrics);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lookupChunksIdsAndKeepsRequestOrder() {
+        // Every even id exists
+        when(store.find(eq("products"), any(Query.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(1);
+            Collection<String> ids = (Collection<String>) ((Document) query.getQueryObject().get("id")).get("$in");
+            List<DynamicDocument> found = new ArrayList<>();
+            for (String id : ids) {
+                if (Integer.parseInt(id) % 2 == 0) {
+                    DynamicDocument document = new DynamicDocument(Map.of("n", id), "products");
+                    document.setId(id);
+                    found.add(0, document);
+                }
+            }
+            return found;
+        });
+
+        List<String> ids = new ArrayList<>();
+        for (int i = DynamicCrudService.LOOKUP_CHUNK_SIZE * 2; i >= 0; i--) {
+            ids.add(String.valueOf(i));
+        }
+        ids.add("4");
+
+        List<DocumentLookupResult> results = crudService.getDocumentsByIds("products", ids);
+
+        verify(store, times(3)).find(eq("products"), any(Query.class));
+        assertEquals(ids.size(), results.size());
+        for (int i = 0; i < ids.size(); i++) {
+            DocumentLookupResult result = results.get(i);
+            assertEquals(ids.get(i), result.getId());
+            boolean expectedFound = Integer.parseInt(ids.get(i)) % 2 == 0;
+            assertEquals(expectedFound, result.isFound());
+            if (expectedFound) {
+                assertEquals(ids.get(i), result.getDocument().getId());
+            } else {
+                assertNull(result.getDocument());
+            }
+        }
+    }
+
+    @Test
+    void lookupRejectsEmptyAndOversizedRequests() {
+        assertThrows(IllegalArgumentException.class, () -> crudService.getDocumentsByIds("products", List.of()));
+        assertThrows(IllegalArgumentException.class, () -> crudService.getDocumentsByIds("products", List.of(" ")));
+
+        List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i <= DynamicCrudService.MAX_LOOKUP_IDS; i++) {
+            tooMany.add(String.valueOf(i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> crudService.getDocumentsByIds("products", tooMany));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchRanksByScoreAndPagesFromTheLastHit() {
+        FieldDefinition name = new FieldDefinition("name", "STRING", true);
+        name.setSearchable(true);
+        CollectionSchemaCache schemaCache = mock(CollectionSchemaCache.class);
+        when(schemaCache.find("products")).thenReturn(Optional.of(new CollectionSchema("products", List.of(name))));
+        ReflectionTestUtils.setField(crudService, "schemaCache", schemaCache);
+        ReflectionTestUtils.setField(crudService, "criteriaBuilder", new QueryCriteriaBuilder());
+
+        List<List<Document>> pipelines = new ArrayList<>();
+        when(store.aggregate(eq("products"), any(Query.class), any(List.class), any(BiFunction.class))).thenAnswer(invocation -> {
+            pipelines.add(invocation.getArgument(2));
+            BiFunction<DynamicDocument, RawBsonDocument, SearchHit> mapper = invocation.getArgument(3);
+            List<SearchHit> hits = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                DynamicDocument document = new DynamicDocument(Map.of("name", "Lamp " + i), "products");
+                document.setId(String.format("%024x", i));
+                hits.add(mapper.apply(document, RawBsonDocument.parse("{\"textScore\": " + (3.0 - i) + "}")));
+            }
+            return hits;
+        });
+
+        SearchRequest request = new SearchRequest();
+        request.setText("lamp");
+        request.setLimit(2);
+        SearchPage first = crudService.searchDocuments("products", request);
+
+        assertEquals(2, first.getItems().size());
+        assertEquals(3.0, first.getItems().get(0).getTextScore());
+        assertTrue(first.isHasMore());
+        assertEquals(new Document("$limit", 3), pipelines.get(0).get(2));
+
+        request.setCursor(first.getNextCursor());
+        crudService.searchDocuments("products", request);
+        Document keyset = pipelines.get(1).get(1).get("$match", Document.class);
+        List<Document> branches = keyset.getList("$or", Document.class);
+        assertEquals(new Document("$lt", 2.0), branches.get(0).get("textScore"));
+        assertEquals(new ObjectId(String.format("%024x", 1)), branches.get(1).get("_id", Document.class).get("$gt"));
+
+        request.setText(" ");
+        assertThrows(IllegalArgumentException.class, () -> crudService.searchDocuments("products", request));
+    }
+
+    @Test
+    void updateRejectsDottedAndOperatorFieldNames() {
+        FieldDefinition address = new FieldDefinition("address", "OBJECT", false);
+        address.setNestedFields(List.of(new FieldDefinition("city", "STRING", true)));
+        CollectionSchemaCache schemaCache = mock(CollectionSchemaCache.class);
+        when(schemaCache.find("customers")).thenReturn(Optional.of(new CollectionSchema("customers", List.of(address))));
+        ReflectionTestUtils.setField(crudService, "schemaCache", schemaCache);
+
+        for (String field : List.of("address.city", "$set", "")) {
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(field, null);
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> crudService.updateDocument("customers", "1", updates));
+            assertEquals("Invalid field name: " + field, error.getMessage());
+        }
+    }
+
+    @Test
+    void schemaRejectsFieldNamesReservedForExportMetadata() {
+        CollectionSchemaRepository schemaRepository = mock(CollectionSchemaRepository.class);
+        ReflectionTestUtils.setField(crudService, "schemaRepository", schemaRepository);
+
+        for (String field : List.of("_id", "_createdAt", "_updatedAt")) {
+            CollectionSchema schema = new CollectionSchema("customers",
+                    List.of(new FieldDefinition(field, "STRING", false)));
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                    () -> crudService.createSchema(schema));
+            assertEquals("Field name is reserved: " + field, error.getMessage());
+        }
+        verify(schemaRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,88 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.FieldDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldTypeCoercerTest {
+
+    private final FieldDefinition dimensions = nested(new FieldDefinition("dimensions", "OBJECT", false),
+            new FieldDefinition("width", "DOUBLE", false), new FieldDefinition("count", "INTEGER", false));
+
+    private final List<FieldDefinition> fields = List.of(
+            new FieldDefinition("name", "STRING", true),
+            new FieldDefinition("stock", "INTEGER", false),
+            new FieldDefinition("price", "DOUBLE", false),
+            new FieldDefinition("active", "BOOLEAN", false),
+            new FieldDefinition("releasedAt", "DATE", false),
+            dimensions);
+
+    private FieldTypeCoercer coercer;
+
+    @BeforeEach
+    void setUp() {
+        coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void normalizesValuesToTheirCanonicalTypes() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Pen");
+        data.put("stock", "42");
+        data.put("price", 3);
+        data.put("active", "TRUE");
+        data.put("releasedAt", "2025-07-22T23:21:01Z");
+        data.put("dimensions", Map.of("width", "2.5", "count", 4));
+        data.put("notes", "kept");
+
+        Map<String, Object> normalized = coercer.normalize(data, fields);
+
+        assertEquals(42L, normalized.get("stock"));
+        assertEquals(3.0, normalized.get("price"));
+        assertEquals(true, normalized.get("active"));
+        assertEquals(Date.from(Instant.parse("2025-07-22T23:21:01Z")), normalized.get("releasedAt"));
+        assertEquals(Map.of("width", 2.5, "count", 4), normalized.get("dimensions"));
+        assertEquals("kept", normalized.get("notes"));
+        assertEquals("42", data.get("stock"));
+    }
+
+    @Test
+    void keepsTheDocumentWhenNothingChangesAndLeavesInvalidValuesForValidation() {
+        Map<String, Object> canonical = Map.of("name", "Pen", "stock", 42, "dimensions", Map.of("width", 2.5));
+        assertSame(canonical, coercer.normalize(canonical, fields));
+
+        Map<String, Object> invalid = Map.of("stock", "4.5", "releasedAt", "yesterday");
+        assertSame(invalid, coercer.normalize(invalid, fields));
+    }
+
+    @Test
+    void readsDatesWithoutOffsetAsUtcAndRejectsLossyConversions() {
+        FieldDefinition date = new FieldDefinition("releasedAt", "DATE", false);
+        assertEquals(Date.from(Instant.parse("2025-07-22T00:00:00Z")), coercer.convert("2025-07-22", date));
+        assertEquals(Date.from(Instant.parse("2025-07-22T10:15:00Z")), coercer.convert("2025-07-22T10:15:00", date));
+        assertEquals(Date.from(Instant.parse("2025-07-22T08:15:00Z")), coercer.convert("2025-07-22T10:15:00+02:00", date));
+
+        FieldDefinition stock = new FieldDefinition("stock", "INTEGER", false);
+        assertEquals(5L, coercer.convert(5.0, stock));
+        assertThrows(IllegalArgumentException.class, () -> coercer.convert(4.5, stock));
+        assertThrows(IllegalArgumentException.class, () -> coercer.convert(true, stock));
+        assertThrows(IllegalArgumentException.class, () -> coercer.convert(List.of(1), dimensions));
+    }
+
+    private static FieldDefinition nested(FieldDefinition field, FieldDefinition... nestedFields) {
+        field.setNestedFields(List.of(nestedFields));
+        return field;
+    }
+}
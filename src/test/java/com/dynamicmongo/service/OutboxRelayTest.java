@@ -0,0 +1,129 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.DocumentChange;
+import com.dynamicmongo.model.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@EmbeddedKafka(partitions = 2, topics = OutboxRelayTest.TOPIC)
+class OutboxRelayTest {
+
+    static final String TOPIC = "dynamic-mongo.changes.products";
+
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        relay = new OutboxRelay();
+        ReflectionTestUtils.setField(relay, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(relay, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(relay, "topicPrefix", "dynamic-mongo.changes.");
+        ReflectionTestUtils.setField(relay, "batchSize", 500);
+        ReflectionTestUtils.setField(relay, "sendTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(relay, "leaseTtl", Duration.ofSeconds(30));
+        relay.init();
+    }
+
+    @Test
+    void publishesPendingEventsInOrderPerDocument(EmbeddedKafkaBroker broker) {
+        ReflectionTestUtils.setField(relay, "kafkaTemplate", kafkaTemplate(broker));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(OutboxRelay.LEASE_COLLECTION))).thenReturn(new Document());
+        List<OutboxEvent> events = List.of(
+                event("a", "insert", 0L), event("b", "insert", 0L), event("a", "update", 1L),
+                event("b", "update", 1L), event("a", "delete", null));
+        when(mongoTemplate.find(any(Query.class), eq(OutboxEvent.class), eq(OutboxService.COLLECTION))).thenReturn(events);
+
+        assertEquals(5, relay.relayBatch());
+
+        Map<String, List<String>> operationsByKey = new HashMap<>();
+        try (Consumer<String, DocumentChange> consumer = consumer(broker)) {
+            broker.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+            for (ConsumerRecord<String, DocumentChange> record : KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(30), 5)) {
+                assertEquals(record.key(), record.value().getId());
+                operationsByKey.computeIfAbsent(record.key(), key -> new ArrayList<>()).add(record.value().getOperation());
+            }
+        }
+        assertEquals(List.of("insert", "update", "delete"), operationsByKey.get("a"));
+        assertEquals(List.of("insert", "update"), operationsByKey.get("b"));
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(OutboxEvent.class), eq(OutboxService.COLLECTION));
+        assertEquals(5.0, meterRegistry.counter("outbox.events.published").count());
+    }
+
+    @Test
+    void skipsPublishingWhileAnotherInstanceHoldsTheLease() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(OutboxRelay.LEASE_COLLECTION))).thenThrow(new DuplicateKeyException("lease"));
+
+        assertEquals(0, relay.relayBatch());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(OutboxEvent.class), eq(OutboxService.COLLECTION));
+    }
+
+    private static OutboxEvent event(String documentId, String operation, Long version) {
+        DocumentChange change = new DocumentChange("products", operation, documentId);
+        change.setVersion(version);
+        OutboxEvent event = new OutboxEvent(change);
+        event.setId(new ObjectId().toHexString());
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    private static KafkaTemplate<String, Object> kafkaTemplate(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    private static Consumer<String, DocumentChange> consumer(EmbeddedKafkaBroker broker) {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("outbox-test", "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.dynamicmongo.model");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(DocumentChange.class)).createConsumer();
+    }
+}
@@ -0,0 +1,37 @@
+package com.dynamicmongo.service;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsTypedSortValues() {
+        String id = new ObjectId().toHexString();
+        Date createdAt = new Date(1_700_000_000_000L);
+
+        PageCursor cursor = PageCursor.decode(new PageCursor("createdAt,desc", createdAt, id).encode());
+
+        assertEquals("createdAt,desc", cursor.getSort());
+        assertEquals(createdAt, cursor.getSortValue());
+        assertEquals(id, cursor.getLastId());
+    }
+
+    @Test
+    void roundTripsNullSortValue() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("price,asc", null, "abc").encode());
+
+        assertNull(cursor.getSortValue());
+        assertEquals("abc", cursor.getLastId());
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not-a-cursor"));
+    }
+}
@@ -0,0 +1,108 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.QueryFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueryCriteriaBuilderTest {
+
+    private final CollectionSchema schema = new CollectionSchema("products", List.of(
+            new FieldDefinition("name", "STRING", true),
+            new FieldDefinition("price", "DOUBLE", true),
+            new FieldDefinition("stock", "INTEGER", false),
+            new FieldDefinition("active", "BOOLEAN", false)));
+
+    private QueryCriteriaBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        FieldTypeCoercer coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+        builder = new QueryCriteriaBuilder();
+        ReflectionTestUtils.setField(builder, "coercer", coercer);
+    }
+
+    @Test
+    void coercesOperandsToSchemaTypes() {
+        QueryFilter filter = new QueryFilter();
+        filter.setAnd(List.of(
+                new QueryFilter("price", "gte", "999.99"),
+                new QueryFilter("stock", "in", List.of("1", "2")),
+                new QueryFilter("active", "eq", "true")));
+
+        Document query = builder.build(filter, schema).getCriteriaObject();
+
+        assertEquals(List.of(
+                new Document("data.price", new Document("$gte", 999.99)),
+                new Document("data.stock", new Document("$in", List.of(1L, 2L))),
+                new Document("data.active", true)), query.get("$and"));
+    }
+
+    @Test
+    void buildsNestedOrWithExistsAndEscapedPrefix() {
+        QueryFilter filter = new QueryFilter();
+        filter.setOr(List.of(
+                new QueryFilter("name", "prefix", "a.b"),
+                new QueryFilter("discontinued", "exists", false),
+                new QueryFilter("createdAt", "lt", "2025-01-01")));
+
+        List<?> branches = (List<?>) builder.build(filter, schema).getCriteriaObject().get("$or");
+
+        Pattern prefix = (Pattern) ((Document) branches.get(0)).get("data.name");
+        assertEquals("^a\\.b", prefix.pattern());
+        assertEquals(new Document("data.discontinued", new Document("$exists", false)), branches.get(1));
+        assertEquals(new Document("createdAt", new Document("$lt", Date.from(Instant.parse("2025-01-01T00:00:00Z")))),
+                branches.get(2));
+    }
+
+    @Test
+    void coercesMetadataOperandsToStoredTypes() {
+        String objectId = "65f1c2a4e4b0a1b2c3d4e5f6";
+        assertEquals(new Document("_id", new ObjectId(objectId)),
+                builder.build(new QueryFilter("id", "eq", objectId), schema).getCriteriaObject());
+        assertEquals(new Document("_id", "42"),
+                builder.build(new QueryFilter("id", "eq", 42), schema).getCriteriaObject());
+        assertEquals(new Document("updatedAt", Date.from(Instant.parse("2025-07-22T08:15:00Z"))),
+                builder.equalities(Map.of("updatedAt", "2025-07-22T10:15:00+02:00"), schema).get(0).getCriteriaObject());
+    }
+
+    @Test
+    void equalitiesCoerceQueryStringValues() {
+        assertEquals(new Document("data.price", 999.99),
+                builder.equalities(Map.of("price", "999.99"), schema).get(0).getCriteriaObject());
+    }
+
+    @Test
+    void rejectsInvalidFilters() {
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.build(new QueryFilter("price", "between", 1), schema));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.build(new QueryFilter("stock", "in", "1"), schema));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.build(new QueryFilter("price", "gt", null), schema));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.build(new QueryFilter("$where", "eq", "1"), schema));
+
+        QueryFilter emptyAnd = new QueryFilter();
+        emptyAnd.setAnd(List.of());
+        assertThrows(IllegalArgumentException.class, () -> builder.build(emptyAnd, schema));
+
+        QueryFilter ambiguous = new QueryFilter("price", "eq", 1);
+        ambiguous.setOr(List.of(new QueryFilter("stock", "eq", 1)));
+        assertThrows(IllegalArgumentException.class, () -> builder.build(ambiguous, schema));
+    }
+}
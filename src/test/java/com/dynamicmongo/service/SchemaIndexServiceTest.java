@@ -0,0 +1,92 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.IndexDefinition;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchemaIndexServiceTest {
+
+    private IndexOperations indexOps;
+    private SchemaIndexService indexService;
+
+    @BeforeEach
+    void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        indexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps("products")).thenReturn(indexOps);
+        indexService = new SchemaIndexService();
+        ReflectionTestUtils.setField(indexService, "mongoTemplate", mongoTemplate);
+        indexService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        indexService.shutdown();
+    }
+
+    @Test
+    void buildsChangedIndexBeforeDroppingTheOldOne() {
+        when(indexOps.getIndexInfo()).thenReturn(List.of(
+                index("schema_byCategory", new Document("data.category", 1), false)));
+        Map<String, Integer> keys = new LinkedHashMap<>();
+        keys.put("category", 1);
+        keys.put("price", -1);
+
+        indexService.reconcileAsync(schema(new IndexDefinition("byCategory", keys, false)));
+
+        verify(indexOps, timeout(1000)).dropIndex("schema_byCategory");
+        ArgumentCaptor<org.springframework.data.mongodb.core.index.IndexDefinition> built =
+                ArgumentCaptor.forClass(org.springframework.data.mongodb.core.index.IndexDefinition.class);
+        InOrder order = inOrder(indexOps);
+        order.verify(indexOps).ensureIndex(built.capture());
+        order.verify(indexOps).dropIndex("schema_byCategory");
+        assertEquals("schema_byCategory__next", built.getValue().getIndexOptions().get("name"));
+    }
+
+    @Test
+    void dropsClashingIndexBeforeRebuildingIt() {
+        // Same key pattern, different options: MongoDB will not hold both
+        when(indexOps.getIndexInfo()).thenReturn(List.of(
+                index("schema_byCategory", new Document("data.category", 1), false)));
+
+        indexService.reconcileAsync(schema(new IndexDefinition("byCategory", Map.of("category", 1), true)));
+
+        verify(indexOps, timeout(1000)).ensureIndex(any());
+        InOrder order = inOrder(indexOps);
+        order.verify(indexOps).dropIndex("schema_byCategory");
+        order.verify(indexOps).ensureIndex(any());
+    }
+
+    private static CollectionSchema schema(IndexDefinition index) {
+        CollectionSchema schema = new CollectionSchema("products", List.of(
+                new FieldDefinition("category", "STRING", false),
+                new FieldDefinition("price", "DOUBLE", false)));
+        schema.setIndexes(List.of(index));
+        return schema;
+    }
+
+    private static IndexInfo index(String name, Document keys, boolean unique) {
+        return IndexInfo.indexInfoOf(new Document("name", name).append("key", keys).append("unique", unique));
+    }
+}
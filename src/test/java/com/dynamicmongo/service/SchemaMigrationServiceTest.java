@@ -0,0 +1,167 @@
+package com.dynamicmongo.service;
+
+import com.dynamicmongo.model.CollectionSchema;
+import com.dynamicmongo.model.FieldDefinition;
+import com.dynamicmongo.model.SchemaMigration;
+import com.dynamicmongo.model.SchemaMigration.Step;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SchemaMigrationServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private SchemaMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        FieldTypeCoercer coercer = new FieldTypeCoercer();
+        ReflectionTestUtils.setField(coercer, "objectMapper", new ObjectMapper());
+
+        migrationService = new SchemaMigrationService();
+        ReflectionTestUtils.setField(migrationService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(migrationService, "coercer", coercer);
+        ReflectionTestUtils.setField(migrationService, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(migrationService, "outboxService", new OutboxService());
+        ReflectionTestUtils.setField(migrationService, "batchSize", 2);
+    }
+
+    @Test
+    void plansStepsFromTheFieldDiff() {
+        FieldDefinition status = new FieldDefinition("status", "STRING", false);
+        status.setDefaultValue("active");
+        List<FieldDefinition> before = List.of(
+                new FieldDefinition("name", "STRING", true),
+                new FieldDefinition("price", "STRING", false),
+                new FieldDefinition("legacyCode", "STRING", false));
+        List<FieldDefinition> after = List.of(
+                new FieldDefinition("name", "STRING", true),
+                new FieldDefinition("price", "DOUBLE", false),
+                new FieldDefinition("sku", "STRING", true),
+                status);
+
+        List<Step> steps = migrationService.plan(before, after, true);
+
+        assertEquals(List.of("price:CONVERT", "sku:CONVERT", "sku:REQUIRE", "status:CONVERT", "status:DEFAULT",
+                "legacyCode:UNSET"), steps.stream().map(step -> step.getField() + ":" + step.getAction()).toList());
+        assertEquals("DOUBLE", steps.get(0).getType());
+        assertEquals("active", steps.get(4).getValue());
+        assertTrue(migrationService.plan(before, before, true).isEmpty());
+        assertEquals(5, migrationService.plan(before, after, false).size());
+    }
+
+    @Test
+    void convertsFillsAndReportsPerDocument() {
+        SchemaMigration migration = new SchemaMigration("products", List.of(
+                new Step("price", Step.Action.CONVERT, "DOUBLE", null),
+                new Step("stock", Step.Action.CONVERT, "INTEGER", null),
+                new Step("status", Step.Action.DEFAULT, null, "active"),
+                new Step("sku", Step.Action.REQUIRE, null, null)), List.of());
+        ObjectId id = new ObjectId();
+        Document document = new Document("_id", id).append("version", 3L)
+                .append("data", new Document("price", "19.5").append("stock", "n/a"));
+
+        Update update = migrationService.updateFor(document, migration, true);
+
+        Document set = update.getUpdateObject().get("$set", Document.class);
+        assertEquals(19.5, set.get("data.price"));
+        assertEquals("active", set.get("data.status"));
+        assertFalse(set.containsKey("data.stock"));
+        assertEquals(new Document("version", 1), update.getUpdateObject().get("$inc"));
+        assertEquals(1, migration.getConversionFailures());
+        assertEquals(1, migration.getMissingRequired());
+        assertEquals(id.toHexString(), migration.getErrors().get(0).getDocumentId());
+        assertEquals("Cannot convert \"n/a\" to INTEGER", migration.getErrors().get(0).getMessage());
+
+        Document migrated = new Document("_id", id).append("data",
+                new Document("price", 19.5).append("stock", 4L).append("status", "active").append("sku", "A-1"));
+        assertNull(migrationService.updateFor(migrated, migration, true));
+    }
+
+    @Test
+    void advancesTheCheckpointAndRetriesConflictingDocuments() {
+        SchemaMigration migration = new SchemaMigration("products",
+                List.of(new Step("stock", Step.Action.CONVERT, "INTEGER", null)), List.of());
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("products")))
+                .thenReturn(List.of(stock(first, 1L, "7"), stock(second, 1L, "8")))
+                .thenReturn(List.of(stock(second, 2L, "9")));
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "products")).thenReturn(bulk);
+        BulkWriteResult conflicted = mock(BulkWriteResult.class);
+        when(conflicted.getMatchedCount()).thenReturn(1);
+        when(conflicted.getModifiedCount()).thenReturn(1);
+        BulkWriteResult retried = mock(BulkWriteResult.class);
+        when(retried.getMatchedCount()).thenReturn(1);
+        when(retried.getModifiedCount()).thenReturn(1);
+        when(bulk.execute()).thenReturn(conflicted).thenReturn(retried);
+
+        assertEquals(2, migrationService.migrateBatch(migration));
+
+        verify(bulk, times(3)).updateOne(any(Query.class), any(Update.class));
+        assertEquals(second, migration.getCheckpoint());
+        assertEquals(2, migration.getDocumentsScanned());
+        assertEquals(2, migration.getDocumentsUpdated());
+        assertEquals(0, migration.getDocumentsConflicted());
+        verify(eventPublisher).publishEvent(any(CollectionChangedEvent.class));
+    }
+
+    @Test
+    void normalizationConvertsEveryFieldIncludingNestedOnes() {
+        ReflectionTestUtils.setField(migrationService, "enabled", true);
+        when(mongoTemplate.indexOps(SchemaMigrationService.COLLECTION)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.insert(any(SchemaMigration.class), eq(SchemaMigrationService.COLLECTION)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        FieldDefinition dimensions = new FieldDefinition("dimensions", "OBJECT", false);
+        dimensions.setNestedFields(List.of(new FieldDefinition("width", "DOUBLE", false)));
+        CollectionSchema schema = new CollectionSchema("products", List.of(
+                new FieldDefinition("releasedAt", "DATE", false), dimensions));
+
+        SchemaMigration migration = migrationService.startNormalization(schema);
+
+        assertEquals(List.of("releasedAt", "dimensions"), migration.getSteps().stream().map(Step::getField).toList());
+        Document document = new Document("_id", new ObjectId()).append("data", new Document("releasedAt", "2025-07-22")
+                .append("dimensions", new Document("width", 2)));
+        Document set = migrationService.updateFor(document, migration, true).getUpdateObject().get("$set", Document.class);
+        assertEquals(Date.from(Instant.parse("2025-07-22T00:00:00Z")), set.get("data.releasedAt"));
+        assertEquals(Map.of("width", 2.0), set.get("data.dimensions"));
+
+        when(mongoTemplate.exists(any(Query.class), eq(SchemaMigration.class), eq(SchemaMigrationService.COLLECTION)))
+                .thenReturn(true);
+        assertThrows(IllegalStateException.class, () -> migrationService.startNormalization(schema));
+    }
+
+    private static Document stock(ObjectId id, long version, String stock) {
+        return new Document("_id", id).append("version", version).append("data", new Document("stock", stock));
+    }
+}